@@ -0,0 +1,45 @@
+package tetrisgame;
+
+import java.util.Random;
+
+/**
+ * Helpers shared by the benchmarks to build reproducible boards.
+ */
+final class BenchBoards {
+    private BenchBoards() {
+    }
+
+    /**
+     * Fills the bottom rows of a board with random locked squares, leaving at least one hole per row so none of them is full.
+     *
+     * @param board The board to fill.
+     * @param rows The number of rows to fill from the floor up.
+     * @param seed The seed of the random pattern, so every run benchmarks the same board.
+     */
+    static void addGarbage(BitBoard board, int rows, long seed) {
+        Random random = new Random(seed);
+        for (int y = board.getHeight() - rows; y < board.getHeight(); y++) {
+            int hole = random.nextInt(board.getWidth());
+            for (int x = 0; x < board.getWidth(); x++) {
+                if (x != hole && random.nextBoolean()) {
+                    board.set(x, y, (byte) (1 + random.nextInt(7)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills whole rows of a board, so they are ready to be cleared.
+     *
+     * @param board The board to fill.
+     * @param from The topmost row to fill.
+     * @param to The bottom row to fill.
+     */
+    static void fillRows(BitBoard board, int from, int to) {
+        for (int y = from; y <= to; y++) {
+            for (int x = 0; x < board.getWidth(); x++) {
+                board.set(x, y, (byte) 1);
+            }
+        }
+    }
+}
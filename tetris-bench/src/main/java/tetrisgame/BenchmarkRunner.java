@@ -0,0 +1,27 @@
+package tetrisgame;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the gc profiler, the same as passing -prof gc to benchmarks.jar.
+ * Next to the timings it reports the bytes allocated per operation (gc.alloc.rate.norm), which should stay zero on the move paths.
+ */
+public class BenchmarkRunner {
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args An optional regular expression selecting the benchmarks to run, all of them by default.
+     * @throws RunnerException If JMH fails to run the benchmarks.
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "tetrisgame\\..*Benchmark")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
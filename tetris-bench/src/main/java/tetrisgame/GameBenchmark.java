@@ -0,0 +1,111 @@
+package tetrisgame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of whole games and of saving and loading a game.
+ * Saves use the binary {@link SaveFormat}, Java serialization of the game is kept as a baseline to compare it against.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    private TetrisGame saved;
+    private byte[] saveBytes;
+    private byte[] serializedBytes;
+    private final ByteArrayOutputStream saveOut = new ByteArrayOutputStream(256);
+
+    /**
+     * Sets up a game in the middle of play, and its saved forms to be loaded.
+     *
+     * @throws IOException If the game can't be saved.
+     */
+    @Setup
+    public void setup() throws IOException {
+        saved = new TetrisGame(42L);
+        BenchBoards.addGarbage(saved.getBoard(), 8, 42L);
+        saved.step();
+        saveBytes = saveGame();
+        serializedBytes = serialize(saved);
+    }
+
+    /**
+     * Plays a whole game with no listener, hard dropping every Tetromino where it spawns until the board overflows.
+     * The game is seeded, so every invocation plays the very same game, the score is returned to keep the work alive.
+     *
+     * @return The score of the game.
+     */
+    @Benchmark
+    public int fullGame() {
+        TetrisGame game = new TetrisGame(42L);
+        while (game.isGameOn()) {
+            game.step();
+            if (game.getCurrTetro().getActive()) {
+                game.pushDown();
+                game.getCurrTetro().moveDown();
+            }
+        }
+        return game.getScore();
+    }
+
+    @Benchmark
+    public byte[] saveGame() throws IOException {
+        saveOut.reset();
+        SaveFormat.write(saved, Channels.newChannel(saveOut));
+        return saveOut.toByteArray();
+    }
+
+    @Benchmark
+    public TetrisGame loadGame() throws IOException {
+        return SaveFormat.read(Channels.newChannel(new ByteArrayInputStream(saveBytes)));
+    }
+
+    @Benchmark
+    public byte[] serializeGame() throws IOException {
+        return serialize(saved);
+    }
+
+    @Benchmark
+    public TetrisGame deserializeGame() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedBytes))) {
+            TetrisGame game = (TetrisGame) in.readObject();
+            game.initTrans();
+            return game;
+        }
+    }
+
+    /**
+     * Serializes a game into memory.
+     *
+     * @param game The game to save.
+     * @return The bytes of the saved game.
+     * @throws IOException If the game can't be serialized.
+     */
+    private static byte[] serialize(TetrisGame game) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(game);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,84 @@
+package tetrisgame;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the per-move checks and moves of a Tetromino ({@link Tetromino}).
+ * The falling Tetromino is put back to the same spot before every move, so every invocation does the same work
+ * and moveDown never locks it. The bottom of the board is filled with garbage for pushDown to land on.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceBenchmark {
+    /**
+     * The index of the shape type of the benchmarked Tetromino.
+     */
+    @Param({"0", "1", "5"})
+    public int shapeType;
+
+    private static final int START_Y = 2;
+
+    private TetrisGame game;
+    private Tetromino tetro;
+    private TetroShape shape;
+    private final int[] down = {0, 1};
+
+    /**
+     * Sets up a game with a few rows of garbage and an active Tetromino near the top.
+     */
+    @Setup
+    public void setup() {
+        game = new TetrisGame();
+        BenchBoards.addGarbage(game.getBoard(), 6, 42L);
+        tetro = new Tetromino(shapeType, 5, game);
+        tetro.activate();
+        game.setCurrTetro(tetro);
+        shape = new TetroShape(shapeType);
+    }
+
+    @Benchmark
+    public boolean isStopped() {
+        return tetro.isStopped(down, tetro.getTopleft());
+    }
+
+    @Benchmark
+    public boolean canRotate() {
+        return tetro.canRotate();
+    }
+
+    @Benchmark
+    public int rotateClock() {
+        shape.rotateClock();
+        return shape.getRotation();
+    }
+
+    @Benchmark
+    public int moveDown() {
+        tetro.getTopleft().setY(START_Y);
+        tetro.moveDown();
+        return tetro.getTopleft().getY();
+    }
+
+    @Benchmark
+    public int pushDown() {
+        tetro.getTopleft().setY(START_Y);
+        tetro.pushDown();
+        return tetro.getTopleft().getY();
+    }
+}
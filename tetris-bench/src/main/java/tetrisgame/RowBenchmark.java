@@ -0,0 +1,64 @@
+package tetrisgame;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of checking and clearing rows of the game ({@link TetrisGame#checkRows()}, {@link TetrisGame#deleteRow(int)}).
+ * Clearing needs full rows, so {@link #clearFourRows()} fills them first, {@link #fillFourRows()} measures the filling alone to be subtracted.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowBenchmark {
+    private TetrisGame game;
+    private BitBoard board;
+
+    /**
+     * Sets up a game whose bottom half is filled with garbage, but has no full rows.
+     */
+    @Setup
+    public void setup() {
+        game = new TetrisGame();
+        board = game.getBoard();
+        BenchBoards.addGarbage(board, board.getHeight() / 2, 42L);
+    }
+
+    @Benchmark
+    public int checkRowsNoneFull() {
+        game.checkRows();
+        return game.getScore();
+    }
+
+    @Benchmark
+    public long deleteRow() {
+        game.deleteRow(board.getHeight() - 1);
+        return board.getRow(board.getHeight() - 1);
+    }
+
+    @Benchmark
+    public long fillFourRows() {
+        BenchBoards.fillRows(board, 0, 3);
+        return board.getRow(3);
+    }
+
+    @Benchmark
+    public int clearFourRows() {
+        BenchBoards.fillRows(board, 0, 3);
+        game.clearRows(0, 3);
+        return game.getScore();
+    }
+}
@@ -0,0 +1,134 @@
+package tetrisgame;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times cold starts of the game, from launching the JVM to the first paint of the board.
+ * Each run starts a fresh JVM on the jar of tetris-swing with the startup probe on (tetris.startupProbe), which starts a new game right away
+ * and prints {@link #MARKER} and exits once the board is painted, so the time is measured from the outside and includes the JVM itself.
+ * The runs are done with the default class data sharing of the JDK and, if the appcds profile built one, with the archive of the game,
+ * after one untimed run of each to warm the file cache. JMH doesn't fit here, every sample is a process of its own.
+ * <p>
+ * The runs need a display, under CI use xvfb-run. Run from the root of the project after building the jar:
+ * mvn -B package -Pappcds, then java -cp tetris-bench/target/benchmarks.jar tetrisgame.StartupBench [runs]
+ */
+public class StartupBench {
+    /**
+     * The line the game prints once the board is painted, the same as StartupProbe.MARKER in tetris-swing.
+     */
+    public static final String MARKER = "tetris-first-paint";
+
+    /**
+     * The number of timed runs of each configuration by default.
+     */
+    public static final int DEFAULT_RUNS = 10;
+
+    private static final long TIMEOUT_SECONDS = 60;
+
+    /**
+     * Runs the benchmark and prints the times of each configuration.
+     * The jar and the archive can be moved with the tetris.startup.jar and tetris.startup.archive system properties.
+     *
+     * @param args An optional number of timed runs, {@link #DEFAULT_RUNS} by default.
+     * @throws IOException If the game can't be started or never paints its board.
+     * @throws InterruptedException If interrupted while waiting for a run.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        Path jar = Path.of(System.getProperty("tetris.startup.jar", "tetris-swing/target/tetris-swing-1.0-SNAPSHOT.jar")).toAbsolutePath();
+        Path archive = Path.of(System.getProperty("tetris.startup.archive", "tetris-swing/target/tetris.jsa")).toAbsolutePath();
+        if (!Files.isRegularFile(jar)) {
+            throw new IOException("No game jar at " + jar + ", build it with mvn -B package -Pappcds");
+        }
+        Path work = Files.createTempDirectory("tetris-startup"); // the game writes its autosave under its working directory
+
+        report("default CDS", time(jar, null, work, runs));
+        if (Files.isRegularFile(archive)) {
+            report("AppCDS", time(jar, archive, work, runs));
+        } else {
+            System.out.println("No AppCDS archive at " + archive + ", build it with mvn -B package -Pappcds");
+        }
+    }
+
+    /**
+     * Times runs of the game in one configuration, after an untimed one.
+     *
+     * @param jar The jar of the game.
+     * @param archive The AppCDS archive, or null for the default one of the JDK.
+     * @param work The working directory of the game.
+     * @param runs The number of timed runs.
+     * @return The times of the runs in milliseconds, sorted.
+     * @throws IOException If a run fails.
+     * @throws InterruptedException If interrupted while waiting for a run.
+     */
+    private static double[] time(Path jar, Path archive, Path work, int runs) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (archive != null) {
+            command.add("-XX:SharedArchiveFile=" + archive);
+        }
+        command.add("-Dtetris.startupProbe=true");
+        command.add("-jar");
+        command.add(jar.toString());
+
+        run(command, work);
+        double[] millis = new double[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = run(command, work) / 1e6;
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    /**
+     * Starts the game once and waits for it to paint its board.
+     *
+     * @param command The command line.
+     * @param work The working directory.
+     * @return The time from starting the process to the marker in nanoseconds.
+     * @throws IOException If the game exits or times out without painting, it is killed after {@link #TIMEOUT_SECONDS}.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private static long run(List<String> command, Path work) throws IOException, InterruptedException {
+        ProcessBuilder builder = new ProcessBuilder(command).directory(work.toFile()).redirectErrorStream(true);
+        long start = System.nanoTime();
+        Process process = builder.start();
+        process.onExit().completeOnTimeout(process, TIMEOUT_SECONDS, TimeUnit.SECONDS).thenRun(process::destroyForcibly); // no-op once it has exited
+        long painted = 0;
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                if (line.equals(MARKER)) {
+                    painted = System.nanoTime() - start;
+                    break;
+                }
+                output.append(line).append('\n');
+            }
+        }
+        process.waitFor();
+        if (painted == 0) {
+            throw new IOException("The game never painted its board:\n" + output);
+        }
+        return painted;
+    }
+
+    /**
+     * Prints the minimum, median and maximum of a configuration.
+     *
+     * @param name The name of the configuration.
+     * @param millis The sorted times in milliseconds.
+     */
+    private static void report(String name, double[] millis) {
+        System.out.printf("%-12s runs %3d  min %8.1f ms  median %8.1f ms  max %8.1f ms%n",
+                name, millis.length, millis[0], millis[millis.length / 2], millis[millis.length - 1]);
+    }
+}
@@ -0,0 +1,271 @@
+package tetrisgame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An autoplayer for the headless game ({@link TetrisGame}).
+ * For the falling Tetromino it enumerates every placement reachable from where it is by letting it fall just far enough to turn,
+ * turning it and sliding it left or right, drops each one on a copy of the board and scores the result with a {@link PlacementHeuristic}.
+ * With lookahead every placement of the next Tetromino is tried on top of each of those as well, and a placement scores as its best follow-up.
+ * <p>
+ * The candidates are evaluated on a {@link ForkJoinPool}, split into batches so small searches aren't swamped by task overhead.
+ * Without a pool the search runs on the calling thread, which is the fastest way to play many games side by side.
+ * An autoplayer keeps no state between searches, so one instance can serve any number of games and threads.
+ */
+public class AutoPlayer {
+    /**
+     * The number of candidates evaluated in one task without lookahead, below this splitting costs more than it saves.
+     */
+    private static final int BATCH = 8;
+
+    private final PlacementHeuristic heuristic;
+    private final boolean lookahead;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs an autoplayer with the default weights, no lookahead, searching on the calling thread.
+     */
+    public AutoPlayer() {
+        this(PlacementHeuristic.DEFAULT, false, null);
+    }
+
+    /**
+     * Constructs an autoplayer.
+     *
+     * @param heuristic The heuristic scoring the placements.
+     * @param lookahead Whether the placements of the next Tetromino are searched as well.
+     * @param pool The pool evaluating the candidates, or null to search on the calling thread.
+     */
+    public AutoPlayer(PlacementHeuristic heuristic, boolean lookahead, ForkJoinPool pool) {
+        this.heuristic = heuristic;
+        this.lookahead = lookahead;
+        this.pool = pool;
+    }
+
+    /**
+     * A reachable placement of a Tetromino, before it is dropped.
+     */
+    private static final class Candidate {
+        final int drops;
+        final int turns;
+        final int x;
+        final ShapeTable.Orientation orientation;
+
+        Candidate(int drops, int turns, int x, ShapeTable.Orientation orientation) {
+            this.drops = drops;
+            this.turns = turns;
+            this.x = x;
+            this.orientation = orientation;
+        }
+    }
+
+    /**
+     * Chooses the best placement for the falling Tetromino of a game.
+     *
+     * @param game The game, it is not changed.
+     * @return The best placement, or null if the Tetromino isn't active.
+     */
+    public Placement choose(TetrisGame game) {
+        Tetromino falling = game.getCurrTetro();
+        if (falling == null || !falling.getActive()) {
+            return null;
+        }
+        BitBoard board = game.getBoard();
+        TetroShape shape = falling.getShape();
+        Coord origin = falling.getTopleft();
+        List<Candidate> candidates = new ArrayList<>();
+        reachable(board, shape.getType(), shape.getRotation(), origin.getX(), origin.getY(), candidates);
+        int next = (lookahead && game.getNextTetro() != null) ? game.getNextTetro().getShape().getType() : -1;
+
+        double[] scores = new double[candidates.size()];
+        Evaluation all = new Evaluation(board, origin.getY(), candidates, next, game.getSpawnX(), scores, 0, candidates.size());
+        if (pool == null) {
+            all.compute();
+        } else {
+            pool.invoke(all);
+        }
+        int best = 0;
+        for (int i = 1; i < scores.length; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        Candidate c = candidates.get(best);
+        return new Placement(c.drops, c.turns, c.x, scores[best]);
+    }
+
+    /**
+     * Plays the falling Tetromino of a game: spawns it if needed, chooses its placement, carries it out and locks it.
+     * Locking right away instead of waiting for gravity is what makes headless play fast.
+     *
+     * @param game The game to play.
+     * @return True if a Tetromino was played, false if the game is over.
+     */
+    public boolean playPiece(TetrisGame game) {
+        if (!game.isGameOn()) {
+            return false;
+        }
+        Tetromino falling = game.getCurrTetro();
+        if (!falling.getActive()) {
+            game.step();
+            if (!game.isGameOn()) {
+                return false;
+            }
+            if (!falling.getActive()) {
+                return true; // it locked as soon as it spawned
+            }
+        }
+        Placement placement = choose(game);
+        placement.apply(game, falling.getTopleft().getX());
+        game.moveDown();
+        return true;
+    }
+
+    /**
+     * Plays a game until it is lost or a number of Tetrominos have been played.
+     *
+     * @param game The game to play.
+     * @param maxPieces The largest number of Tetrominos to play.
+     * @return The number of Tetrominos played.
+     */
+    public long playGame(TetrisGame game, long maxPieces) {
+        long pieces = 0;
+        while (pieces < maxPieces && playPiece(game)) {
+            pieces++;
+        }
+        return pieces;
+    }
+
+    /**
+     * Collects the placements reachable from a position by falling, turning, then sliding left or right.
+     * Orientations reaching above their origin can't be turned to at the top of the board,
+     * so for every number of turns the Tetromino first falls the fewest rows that let every turn on the way fit.
+     *
+     * @param board The board.
+     * @param type The index of the shape type.
+     * @param rotation The rotation of the Tetromino now.
+     * @param x The column of the origin.
+     * @param y The row of the origin.
+     * @param out The list the placements are added to.
+     */
+    private static void reachable(BitBoard board, int type, int rotation, int x, int y, List<Candidate> out) {
+        ShapeTable.Orientation start = ShapeTable.get(type, rotation);
+        int fall = board.dropDistance(start, x, y);
+        int drops = 0;
+        for (int turns = 0; turns < ShapeTable.ROTATIONS; turns++) {
+            ShapeTable.Orientation o = ShapeTable.get(type, (rotation + turns) & (ShapeTable.ROTATIONS - 1));
+            drops = Math.max(drops, -(y + o.getMinY()));
+            if (drops > fall) {
+                return;
+            }
+            int top = y + drops;
+            boolean turnable = true;
+            for (int t = 1; t <= turns && turnable; t++) {
+                turnable = board.fits(ShapeTable.get(type, (rotation + t) & (ShapeTable.ROTATIONS - 1)), x, top);
+            }
+            if (!turnable) {
+                return; // every further turn goes through these ones
+            }
+            out.add(new Candidate(drops, turns, x, o));
+            for (int nx = x - 1; nx + o.getMinX() >= 0 && !board.collides(o, nx, top); nx--) {
+                out.add(new Candidate(drops, turns, nx, o));
+            }
+            for (int nx = x + 1; nx + o.getMaxX() < board.getWidth() && !board.collides(o, nx, top); nx++) {
+                out.add(new Candidate(drops, turns, nx, o));
+            }
+        }
+    }
+
+    /**
+     * Drops a candidate on a board and locks it, clearing the rows it fills.
+     *
+     * @param board The board, changed in place.
+     * @param c The candidate.
+     * @param y The row the candidate is dropped from.
+     * @return The number of rows cleared, or -1 if the placement loses the game.
+     */
+    private static int drop(BitBoard board, Candidate c, int y) {
+        ShapeTable.Orientation o = c.orientation;
+        int top = y + c.drops;
+        int landing = top + board.dropDistance(o, c.x, top);
+        board.lock(o, c.x, landing, (byte) 1);
+        int cleared = board.clearFullRows(landing + o.getMinY(), landing + o.getMaxY());
+        return board.isTopReached() ? -1 : cleared;
+    }
+
+    /**
+     * Evaluates a range of candidates, splitting it in half until it is small enough.
+     */
+    private final class Evaluation extends RecursiveAction {
+        private final BitBoard board;
+        private final int y;
+        private final List<Candidate> candidates;
+        private final int next;
+        private final int spawnX;
+        private final double[] scores;
+        private final int from;
+        private final int to;
+
+        Evaluation(BitBoard board, int y, List<Candidate> candidates, int next, int spawnX, double[] scores, int from, int to) {
+            this.board = board;
+            this.y = y;
+            this.candidates = candidates;
+            this.next = next;
+            this.spawnX = spawnX;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int batch = (next >= 0) ? 1 : BATCH;
+            if (pool != null && to - from > batch) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Evaluation(board, y, candidates, next, spawnX, scores, from, mid),
+                        new Evaluation(board, y, candidates, next, spawnX, scores, mid, to));
+                return;
+            }
+            BitBoard scratch = new BitBoard(board);
+            BitBoard followUp = (next >= 0) ? new BitBoard(board) : null;
+            List<Candidate> nextCandidates = (next >= 0) ? new ArrayList<>() : null;
+            for (int i = from; i < to; i++) {
+                scratch.copyFrom(board);
+                int cleared = drop(scratch, candidates.get(i), y);
+                if (cleared < 0) {
+                    scores[i] = Double.NEGATIVE_INFINITY;
+                } else if (next < 0) {
+                    scores[i] = heuristic.evaluate(scratch, cleared);
+                } else {
+                    scores[i] = bestFollowUp(scratch, followUp, nextCandidates, cleared);
+                }
+            }
+        }
+
+        /**
+         * Scores a board by the best placement of the next Tetromino on it, from where it spawns.
+         *
+         * @param after The board after the current Tetromino is placed.
+         * @param followUp A scratch board.
+         * @param nextCandidates A scratch list.
+         * @param cleared The rows cleared by the current Tetromino.
+         * @return The best score, the score of the board itself if the next Tetromino has nowhere to go.
+         */
+        private double bestFollowUp(BitBoard after, BitBoard followUp, List<Candidate> nextCandidates, int cleared) {
+            nextCandidates.clear();
+            reachable(after, next, 0, spawnX, 0, nextCandidates);
+            double best = nextCandidates.isEmpty() ? heuristic.evaluate(after, cleared) : Double.NEGATIVE_INFINITY;
+            for (Candidate c : nextCandidates) {
+                followUp.copyFrom(after);
+                int more = drop(followUp, c, 0);
+                if (more >= 0) {
+                    best = Math.max(best, heuristic.evaluate(followUp, cleared + more));
+                }
+            }
+            return best;
+        }
+    }
+}
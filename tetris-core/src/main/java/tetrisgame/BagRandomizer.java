@@ -0,0 +1,85 @@
+package tetrisgame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Deals the seven shape types in bags: each bag holds every shape once in shuffled order.
+ * A shape never waits more than 12 pieces and never comes more than twice in a row.
+ */
+public class BagRandomizer extends LcgRandomizer {
+    /**
+     * The current bag.
+     */
+    private final int[] bag = new int[TetrisUtils.SHAPE_COUNT];
+
+    /**
+     * The index of the next shape in the bag, a new bag is shuffled when it reaches the end.
+     */
+    private int position;
+
+    /**
+     * Constructs the randomizer.
+     *
+     * @param seed The seed of the sequence.
+     */
+    public BagRandomizer(long seed) {
+        super(seed);
+        this.position = bag.length;
+    }
+
+    @Override
+    public int next() {
+        if (position == bag.length) {
+            for (int i = 0; i < bag.length; i++) {
+                bag[i] = i;
+            }
+            for (int i = bag.length - 1; i > 0; i--) { // Fisher-Yates
+                int j = nextInt(i + 1);
+                int swap = bag[i];
+                bag[i] = bag[j];
+                bag[j] = swap;
+            }
+            position = 0;
+        }
+        return bag[position++];
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.BAG;
+    }
+
+    @Override
+    public int stateBytes() {
+        return super.stateBytes() + bag.length + 1;
+    }
+
+    @Override
+    public void writeState(ByteBuffer buf) {
+        super.writeState(buf);
+        for (int shape : bag) {
+            buf.put((byte) shape);
+        }
+        buf.put((byte) position);
+    }
+
+    @Override
+    public void readState(ByteBuffer buf) {
+        int start = buf.position() + super.stateBytes(); // checked before anything is set, so a bad state changes nothing
+        for (int i = 0; i < bag.length; i++) {
+            int shape = buf.get(start + i);
+            if (shape < 0 || shape >= TetrisUtils.SHAPE_COUNT) {
+                throw new IllegalArgumentException("Invalid shape in bag " + shape);
+            }
+        }
+        int next = buf.get(start + bag.length);
+        if (next < 0 || next > bag.length) {
+            throw new IllegalArgumentException("Invalid bag position " + next);
+        }
+        super.readState(buf);
+        for (int i = 0; i < bag.length; i++) {
+            bag[i] = buf.get();
+        }
+        position = buf.get();
+    }
+}
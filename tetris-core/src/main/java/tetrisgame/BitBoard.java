@@ -0,0 +1,636 @@
+package tetrisgame;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The game state of a Tetris board stored as a bitmask per row.
+ * Bit x of a row is set when the square in column x is locked, so collision, locking,
+ * full row detection and row deletion all come down to a handful of bitwise operations.
+ * A row is one long for boards up to 64 columns, wider boards use as many longs per row as needed, bit x is bit x % 64 of word x / 64.
+ * A Tetromino spans at most two words of a row, so every operation still costs the same however wide the board is.
+ * The colors of the locked squares are kept in a parallel byte-per-cell array, which is only used for rendering.
+ * A color code of 0 means an empty square, any other code is {@link TetrisUtils.ShapeType} ordinal + 1.
+ * <p>
+ * The rows are kept in a ring: logical row y (0 is the top of the board) is stored in slot (head + y) mod height.
+ * When rows are cleared the rows are compacted on the shorter side of them: either the ring is turned by the number of cleared rows,
+ * which moves every row above them down for free, and the rows between the topmost cleared row and the floor are compacted,
+ * or the ring stays and the rows between the top of the stack and the bottom cleared row are moved down.
+ * A clear costs O(min(height - from, to - stack top) x width) for cleared rows between from and to, so a clear near the floor of a tall board
+ * and a clear of a low stack on it are both cheap. The top of the stack is kept up to date on every change, so it is never searched for.
+ * Every slot also keeps a counter of its locked squares, so a row is full when its counter reaches the width.
+ * <p>
+ * Nothing but a row clear is proportional to the width, and nothing is proportional to the area of the board,
+ * so huge boards cost as much per move as classic ones.
+ * <p>
+ * The board also keeps its skyline, the topmost locked row of every column. It is updated on every lock and clear:
+ * a row clear moves the top of every column above the cleared rows down by their number, and only the columns whose top was in the cleared rows are rescanned.
+ * So the distance a shape can drop ({@link #dropDistance(ShapeTable.Orientation, int, int)}) is found from the shape's bottom profile
+ * without stepping down row by row.
+ */
+public class BitBoard implements Serializable {
+    /**
+     * The largest board width
+     */
+    public static final int MAX_WIDTH = 1024;
+
+    /**
+     * The largest board height
+     */
+    public static final int MAX_HEIGHT = Short.MAX_VALUE;
+
+    /**
+     * The width of the board in squares
+     */
+    private final int width;
+    /**
+     * The height of the board in squares
+     */
+    private final int height;
+    /**
+     * The number of longs of a row
+     */
+    private final int words;
+    /**
+     * The occupancy bitmask of every row slot, words longs per slot
+     */
+    private final long[] rows;
+    /**
+     * The number of locked squares in every row slot
+     */
+    private final int[] fill;
+    /**
+     * The color codes of the squares, stored slot by slot
+     */
+    private final byte[] colors;
+    /**
+     * The topmost locked row of every column, height for an empty column
+     */
+    private final int[] skyline;
+    /**
+     * The topmost row with a locked square, the smallest value of the skyline, height for an empty board
+     */
+    private int stackTop;
+    /**
+     * The slot holding the top row of the board
+     */
+    private int head;
+
+    /**
+     * Creates an empty board of the given size.
+     *
+     * @param width The number of columns, at most {@link #MAX_WIDTH}.
+     * @param height The number of rows, at most {@link #MAX_HEIGHT}.
+     * @throws IllegalArgumentException If the dimensions are not positive or the board is too large.
+     */
+    public BitBoard(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Board dimensions must be positive");
+        }
+        if (width > MAX_WIDTH || height > MAX_HEIGHT) {
+            throw new IllegalArgumentException("Board cannot exceed " + MAX_WIDTH + "x" + MAX_HEIGHT);
+        }
+        this.width = width;
+        this.height = height;
+        this.words = (width + Long.SIZE - 1) >>> 6;
+        this.rows = new long[height * words];
+        this.fill = new int[height];
+        this.colors = new byte[width * height];
+        this.skyline = new int[width];
+        Arrays.fill(skyline, height);
+        this.stackTop = height;
+        this.head = 0;
+    }
+
+    /**
+     * Creates a copy of a board, for example to try placements on without touching the board of a game.
+     *
+     * @param other The board to copy.
+     */
+    public BitBoard(BitBoard other) {
+        this(other.width, other.height);
+        copyFrom(other);
+    }
+
+    /**
+     * Overwrites this board with the contents of another one of the same size, without allocating anything.
+     *
+     * @param other The board to copy.
+     * @throws IllegalArgumentException If the boards differ in size.
+     */
+    public void copyFrom(BitBoard other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Board sizes differ");
+        }
+        System.arraycopy(other.rows, 0, rows, 0, rows.length);
+        System.arraycopy(other.fill, 0, fill, 0, height);
+        System.arraycopy(other.colors, 0, colors, 0, colors.length);
+        System.arraycopy(other.skyline, 0, skyline, 0, width);
+        this.stackTop = other.stackTop;
+        this.head = other.head;
+    }
+
+    /**
+     * Overwrites a range of rows of this board with the same rows of another one of the same size, along with the skyline.
+     * The rows outside the range have to be the same on both boards already, each board keeps its own ring.
+     * Rows empty on both boards are skipped, so copying the rows changed by a move costs as much as the move.
+     *
+     * @param other The board to copy.
+     * @param from The topmost row to copy.
+     * @param to The bottom row to copy.
+     * @throws IllegalArgumentException If the boards differ in size.
+     */
+    public void copyRowsFrom(BitBoard other, int from, int to) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Board sizes differ");
+        }
+        from = Math.max(from, 0);
+        to = Math.min(to, height - 1);
+        for (int y = from; y <= to; y++) {
+            int s = slot(y);
+            int o = other.slot(y);
+            if (fill[s] == 0 && other.fill[o] == 0) {
+                continue;
+            }
+            System.arraycopy(other.rows, o * words, rows, s * words, words);
+            fill[s] = other.fill[o];
+            System.arraycopy(other.colors, o * width, colors, s * width, width);
+        }
+        System.arraycopy(other.skyline, 0, skyline, 0, width);
+        stackTop = other.stackTop;
+    }
+
+    /**
+     * Maps a row of the board to the slot it is stored in.
+     *
+     * @param y The row, between 0 and height - 1.
+     * @return The slot of the row.
+     */
+    private int slot(int y) {
+        int s = head + y;
+        return s >= height ? s - height : s;
+    }
+
+    /**
+     * Checks whether a square is inside the board.
+     *
+     * @param x The column of the square.
+     * @param y The row of the square.
+     * @return True if the square is on the board, false otherwise.
+     */
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /**
+     * Checks whether a square is locked.
+     * The caller has to make sure the square is inside the board.
+     *
+     * @param x The column of the square.
+     * @param y The row of the square.
+     * @return True if the square is occupied by a locked Tetromino, false otherwise.
+     */
+    public boolean isOccupied(int x, int y) {
+        return (rows[slot(y) * words + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Checks whether a shape orientation placed at an origin hits a locked square.
+     * Every row of the shape is tested against the board with an AND of the precomputed row masks, two if it spans two words.
+     * Rows above the board are empty, squares outside the sides of the board are not checked, bounds are the caller's responsibility.
+     *
+     * @param shape The orientation of the shape from the {@link ShapeTable}.
+     * @param x The column of the origin.
+     * @param y The row of the origin.
+     * @return True if any of the squares is occupied, false otherwise.
+     */
+    public boolean collides(ShapeTable.Orientation shape, int x, int y) {
+        long[] masks = shape.getRowMasks();
+        int left = x + shape.getMinX();
+        int top = y + shape.getMinY();
+        int word = left >> 6;
+        int bit = left & 63;
+        boolean spans = bit != 0 && word + 1 < words;
+        for (int i = Math.max(0, -top); i < masks.length; i++) {
+            int base = slot(top + i) * words + word;
+            if ((rows[base] & (masks[i] << bit)) != 0
+                    || (spans && (rows[base + 1] & (masks[i] >>> (Long.SIZE - bit))) != 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a shape orientation placed at an origin is fully inside the board and on free squares.
+     *
+     * @param shape The orientation of the shape from the {@link ShapeTable}.
+     * @param x The column of the origin.
+     * @param y The row of the origin.
+     * @return True if the shape can be placed there, false otherwise.
+     */
+    public boolean fits(ShapeTable.Orientation shape, int x, int y) {
+        if (x + shape.getMinX() < 0 || x + shape.getMaxX() >= width
+                || y + shape.getMinY() < 0 || y + shape.getMaxY() >= height) {
+            return false;
+        }
+        return !collides(shape, x, y);
+    }
+
+    /**
+     * Locks a shape orientation placed at an origin into the board with the given color.
+     * The fill counters of the rows the shape touches and the skyline are updated as well.
+     *
+     * @param shape The orientation of the shape from the {@link ShapeTable}.
+     * @param x The column of the origin.
+     * @param y The row of the origin.
+     * @param color The color code of the squares.
+     */
+    public void lock(ShapeTable.Orientation shape, int x, int y, byte color) {
+        long[] masks = shape.getRowMasks();
+        int left = x + shape.getMinX();
+        int top = y + shape.getMinY();
+        int word = left >> 6;
+        int bit = left & 63;
+        boolean spans = bit != 0 && word + 1 < words;
+        for (int i = 0; i < masks.length; i++) {
+            int s = slot(top + i);
+            int base = s * words + word;
+            long added = (masks[i] << bit) & ~rows[base];
+            rows[base] |= added;
+            fill[s] += Long.bitCount(added);
+            if (spans) {
+                added = (masks[i] >>> (Long.SIZE - bit)) & ~rows[base + 1];
+                rows[base + 1] |= added;
+                fill[s] += Long.bitCount(added);
+            }
+        }
+        for (Coord cell : shape.getCells()) {
+            int cx = x + cell.getX();
+            int cy = y + cell.getY();
+            colors[slot(cy) * width + cx] = color;
+            if (cy < skyline[cx]) {
+                skyline[cx] = cy;
+            }
+        }
+        stackTop = Math.min(stackTop, top);
+    }
+
+    /**
+     * Locks a single square with the given color.
+     *
+     * @param x The column of the square.
+     * @param y The row of the square.
+     * @param color The color code of the square.
+     */
+    public void set(int x, int y, byte color) {
+        int s = slot(y);
+        int w = s * words + (x >>> 6);
+        long bit = 1L << x;
+        if ((rows[w] & bit) == 0) {
+            rows[w] |= bit;
+            fill[s]++;
+        }
+        colors[s * width + x] = color;
+        if (y < skyline[x]) {
+            skyline[x] = y;
+        }
+        stackTop = Math.min(stackTop, y);
+    }
+
+    /**
+     * Frees a single square.
+     *
+     * @param x The column of the square.
+     * @param y The row of the square.
+     */
+    public void clear(int x, int y) {
+        int s = slot(y);
+        int w = s * words + (x >>> 6);
+        long bit = 1L << x;
+        if ((rows[w] & bit) != 0) {
+            rows[w] &= ~bit;
+            fill[s]--;
+        }
+        colors[s * width + x] = 0;
+        if (y == skyline[x]) {
+            skyline[x] = scanDown(x, y + 1);
+        }
+        if (y == stackTop) {
+            stackTop = firstFilled(y);
+        }
+    }
+
+    /**
+     * Checks whether every square of a row is locked.
+     *
+     * @param y The row to check.
+     * @return True if the row is full, false otherwise.
+     */
+    public boolean isRowFull(int y) {
+        return fill[slot(y)] == width;
+    }
+
+    /**
+     * Gets the number of locked squares in a row.
+     *
+     * @param y The row.
+     * @return The fill counter of the row.
+     */
+    public int getFill(int y) {
+        return fill[slot(y)];
+    }
+
+    /**
+     * Deletes a row and shifts every row above it down by one.
+     * The top row becomes empty.
+     *
+     * @param y The row to delete.
+     */
+    public void deleteRow(int y) {
+        removeRows(y, y, false);
+    }
+
+    /**
+     * Clears the full rows among a range of rows, shifting everything above them down.
+     * Only the given rows are checked, so after locking a Tetromino it is enough to pass the rows it touched.
+     *
+     * @param from The topmost row to check.
+     * @param to The bottom row to check.
+     * @return The number of rows cleared.
+     */
+    public int clearFullRows(int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, height - 1);
+        for (int y = from; y <= to; y++) {
+            if (fill[slot(y)] == width) {
+                return removeRows(y, to, true);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Removes rows from the board in one compaction pass, on whichever side of the range has fewer rows to move:
+     * the rows from the top of the stack down to the range ({@link #compactAbove(int, int, int, boolean)})
+     * or the rows from the range down to the floor ({@link #compactBelow(int, int, boolean)}).
+     *
+     * @param from The first row of the range, it is always removed.
+     * @param to The last row of the range.
+     * @param onlyFull Whether only the full rows of the range are removed, or all of them.
+     * @return The number of rows removed.
+     */
+    private int removeRows(int from, int to, boolean onlyFull) {
+        int top = Math.min(stackTop, from);
+        int removed = (to + 1 - top <= height - from)
+                ? compactAbove(top, from, to, onlyFull)
+                : compactBelow(from, to, onlyFull);
+        for (int x = 0; x < width; x++) {
+            int columnTop = skyline[x];
+            if (columnTop < from) {
+                skyline[x] = columnTop + removed; // every removed row was below it, so it moved down by all of them
+            } else if (columnTop <= to) {
+                skyline[x] = scanDown(x, from); // the column was empty above its top, which is now at or below from
+            } // below the range nothing moved
+        }
+        if (stackTop < from) {
+            stackTop += removed;
+        } else if (stackTop <= to) {
+            stackTop = firstFilled(from);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes rows by moving the rows above them down, the ring stays where it is.
+     * The rows from the top of the stack to the end of the range are compacted towards the floor, and the slots left at the top are emptied.
+     *
+     * @param top The topmost row that may have a locked square, at most from.
+     * @param from The first row of the range, it is always removed.
+     * @param to The last row of the range.
+     * @param onlyFull Whether only the full rows of the range are removed, or all of them.
+     * @return The number of rows removed.
+     */
+    private int compactAbove(int top, int from, int to, boolean onlyFull) {
+        int write = to;
+        for (int read = to; read >= top; read--) {
+            if (read >= from && (!onlyFull || read == from || fill[slot(read)] == width)) {
+                continue;
+            }
+            if (write != read) {
+                copySlot(slot(read), slot(write));
+            }
+            write--;
+        }
+        for (int y = top; y <= write; y++) {
+            clearSlot(slot(y));
+        }
+        return write + 1 - top;
+    }
+
+    /**
+     * Removes rows by turning the ring by the number of removed rows, so the rows above the range move down without being touched.
+     * The rows from the range down to the floor are compacted in place so they keep their position,
+     * and the slots freed at the bottom of the ring become the new empty rows at the top.
+     *
+     * @param from The first row of the range, it is always removed.
+     * @param to The last row of the range.
+     * @param onlyFull Whether only the full rows of the range are removed, or all of them.
+     * @return The number of rows removed.
+     */
+    private int compactBelow(int from, int to, boolean onlyFull) {
+        int write = from;
+        for (int read = from; read < height; read++) {
+            if (read <= to && (!onlyFull || read == from || fill[slot(read)] == width)) {
+                continue;
+            }
+            if (write != read) {
+                copySlot(slot(read), slot(write));
+            }
+            write++;
+        }
+        int removed = height - write;
+        for (int y = write; y < height; y++) {
+            clearSlot(slot(y));
+        }
+        head -= removed;
+        if (head < 0) {
+            head += height;
+        }
+        return removed;
+    }
+
+    /**
+     * Finds the topmost row with a locked square at or below a row, from the fill counters.
+     *
+     * @param from The row to start from.
+     * @return The row, height if there is none.
+     */
+    private int firstFilled(int from) {
+        int y = from;
+        while (y < height && fill[slot(y)] == 0) {
+            y++;
+        }
+        return y;
+    }
+
+    /**
+     * Finds the topmost locked square of a column at or below a row.
+     *
+     * @param x The column.
+     * @param from The row to start from.
+     * @return The row of the square, height if there is none.
+     */
+    private int scanDown(int x, int from) {
+        long bit = 1L << x;
+        int word = x >>> 6;
+        int y = from;
+        while (y < height && (rows[slot(y) * words + word] & bit) == 0) {
+            y++;
+        }
+        return y;
+    }
+
+    /**
+     * Computes how many rows a shape orientation placed at an origin can fall before it lands on a locked square or the floor.
+     * The gap under every column of the shape's bottom profile is read from the skyline, so this is O(shape width).
+     * If the shape has slid under an overhang, the skyline of that column is above it and says nothing about the gap,
+     * then it falls back to stepping the shape down with {@link #collides(ShapeTable.Orientation, int, int)}.
+     *
+     * @param shape The orientation of the shape from the {@link ShapeTable}.
+     * @param x The column of the origin.
+     * @param y The row of the origin.
+     * @return The number of rows the shape can move down, 0 if it is already resting.
+     */
+    public int dropDistance(ShapeTable.Orientation shape, int x, int y) {
+        int[] bottoms = shape.getBottoms();
+        int left = x + shape.getMinX();
+        int drop = height - 1 - (y + shape.getMaxY());
+        for (int i = 0; i < bottoms.length; i++) {
+            int bottom = y + bottoms[i];
+            int top = skyline[left + i];
+            if (top <= bottom) {
+                return scanDrop(shape, x, y);
+            }
+            drop = Math.min(drop, top - 1 - bottom);
+        }
+        return Math.max(drop, 0);
+    }
+
+    /**
+     * Computes the drop of a shape by stepping it down one row at a time.
+     *
+     * @param shape The orientation of the shape.
+     * @param x The column of the origin.
+     * @param y The row of the origin.
+     * @return The number of rows the shape can move down.
+     */
+    private int scanDrop(ShapeTable.Orientation shape, int x, int y) {
+        int drop = 0;
+        while (y + drop + shape.getMaxY() < height - 1 && !collides(shape, x, y + drop + 1)) {
+            drop++;
+        }
+        return drop;
+    }
+
+    /**
+     * Gets the topmost locked row of a column.
+     *
+     * @param x The column.
+     * @return The row of the topmost locked square, the height of the board if the column is empty.
+     */
+    public int getSkyline(int x) {
+        return skyline[x];
+    }
+
+    /**
+     * Copies the contents of a row slot into another one.
+     *
+     * @param from The source slot.
+     * @param to The target slot.
+     */
+    private void copySlot(int from, int to) {
+        System.arraycopy(rows, from * words, rows, to * words, words);
+        fill[to] = fill[from];
+        System.arraycopy(colors, from * width, colors, to * width, width);
+    }
+
+    /**
+     * Empties a row slot.
+     *
+     * @param s The slot to empty.
+     */
+    private void clearSlot(int s) {
+        if (fill[s] == 0) {
+            return;
+        }
+        Arrays.fill(rows, s * words, s * words + words, 0L);
+        fill[s] = 0;
+        Arrays.fill(colors, s * width, s * width + width, (byte) 0);
+    }
+
+    /**
+     * Checks whether the top row has a locked square, which means the game is lost.
+     *
+     * @return True if the top row is not empty, false otherwise.
+     */
+    public boolean isTopReached() {
+        return fill[head] != 0;
+    }
+
+    /**
+     * Gets the occupancy bitmask of a row, of its first 64 columns on a wider board.
+     *
+     * @param y The row.
+     * @return The bitmask with bit x set for every locked column x.
+     */
+    public long getRow(int y) {
+        return rows[slot(y) * words];
+    }
+
+    /**
+     * Gets a word of the occupancy bitmask of a row.
+     *
+     * @param y The row.
+     * @param word The index of the word, column x is bit x % 64 of word x / 64.
+     * @return The bitmask of 64 columns of the row.
+     */
+    public long getRowWord(int y, int word) {
+        return rows[slot(y) * words + word];
+    }
+
+    /**
+     * Getter for the number of longs of a row
+     * @return The number of words, 1 for boards up to 64 columns.
+     */
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Gets the color code of a square, 0 if it is empty.
+     *
+     * @param x The column of the square.
+     * @param y The row of the square.
+     * @return The color code of the square.
+     */
+    public byte getColor(int x, int y) {
+        return colors[slot(y) * width + x];
+    }
+
+    /**
+     * Getter for the width of the board
+     * @return The number of columns.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter for the height of the board
+     * @return The number of rows.
+     */
+    public int getHeight() {
+        return height;
+    }
+}
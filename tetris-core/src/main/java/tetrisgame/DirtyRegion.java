@@ -0,0 +1,105 @@
+package tetrisgame;
+
+/**
+ * Collects the squares of the board that changed since the board was last repainted.
+ * Piece moves mark the squares the piece leaves and enters, locks and row clears mark the rows they change.
+ * Swing merges every repaint request of a component into one clip rectangle anyway,
+ * so the region only keeps the bounding rows and columns of the marked squares.
+ */
+public class DirtyRegion {
+    private int minX;
+    private int maxX;
+    private int minY;
+    private int maxY;
+
+    /**
+     * Creates an empty region.
+     */
+    public DirtyRegion() {
+        reset();
+    }
+
+    /**
+     * Marks a single square as changed.
+     *
+     * @param x The column of the square.
+     * @param y The row of the square.
+     */
+    public void mark(int x, int y) {
+        if (x < minX) minX = x;
+        if (x > maxX) maxX = x;
+        if (y < minY) minY = y;
+        if (y > maxY) maxY = y;
+    }
+
+    /**
+     * Marks a range of whole rows as changed.
+     *
+     * @param from The topmost row.
+     * @param to The bottom row.
+     * @param width The width of the board.
+     */
+    public void markRows(int from, int to, int width) {
+        mark(0, from);
+        mark(width - 1, to);
+    }
+
+    /**
+     * Marks every square of another region as changed.
+     *
+     * @param other The region to add, it is not changed.
+     */
+    public void add(DirtyRegion other) {
+        if (!other.isEmpty()) {
+            mark(other.minX, other.minY);
+            mark(other.maxX, other.maxY);
+        }
+    }
+
+    /**
+     * Checks whether anything was marked since the last reset.
+     *
+     * @return True if no square has changed, false otherwise.
+     */
+    public boolean isEmpty() {
+        return maxX < minX;
+    }
+
+    /**
+     * Forgets every marked square, called once the region has been repainted.
+     */
+    public void reset() {
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        maxX = Integer.MIN_VALUE;
+        maxY = Integer.MIN_VALUE;
+    }
+
+    /**
+     * @return The leftmost changed column.
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * @return The rightmost changed column.
+     */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * @return The topmost changed row.
+     */
+    public int getMinY() {
+        return minY;
+    }
+
+    /**
+     * @return The bottom changed row.
+     */
+    public int getMaxY() {
+        return maxY;
+    }
+}
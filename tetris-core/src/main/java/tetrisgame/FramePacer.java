@@ -0,0 +1,68 @@
+package tetrisgame;
+
+/**
+ * Paces a render loop to the refresh rate of a display and counts the refreshes it misses.
+ * Frames start on a fixed grid of slots, one per refresh: a frame done within its slot waits for the next one,
+ * a frame running over its slot drops every refresh it ran past and the loop starts again on the next slot, so it never tries to catch up.
+ * The dropped and presented frames are also counted in the {@link GameMetrics}. Used by a single render thread.
+ */
+public final class FramePacer {
+    private final long periodNanos;
+    private long next;
+    private long dropped;
+
+    /**
+     * Constructs a pacer for a refresh rate.
+     *
+     * @param refreshHz The number of frames a second.
+     */
+    public FramePacer(int refreshHz) {
+        this.periodNanos = 1_000_000_000L / Math.max(1, refreshHz);
+    }
+
+    /**
+     * Starts the first slot.
+     *
+     * @param now The time the first frame starts, from {@link System#nanoTime()}.
+     */
+    public void start(long now) {
+        next = now;
+    }
+
+    /**
+     * Ends the frame of the current slot and works out when the next frame starts.
+     *
+     * @param now The time the frame was done, from {@link System#nanoTime()}.
+     * @param presented True if the frame was shown, false if there was nothing new to show.
+     * @return The time to wait before the next frame in nanoseconds, 0 or more.
+     */
+    public long frameDone(long now, boolean presented) {
+        next += periodNanos;
+        if (now > next) {
+            long missed = (now - next) / periodNanos + 1;
+            dropped += missed;
+            next += missed * periodNanos;
+            GameMetrics.get().countDroppedFrames(missed);
+        }
+        if (presented) {
+            GameMetrics.get().countFrame();
+        }
+        return next - now;
+    }
+
+    /**
+     * Getter for the time between two frames
+     * @return The period in nanoseconds.
+     */
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    /**
+     * Getter for the number of refreshes missed since the pacer was created
+     * @return The number of dropped frames.
+     */
+    public long getDroppedFrames() {
+        return dropped;
+    }
+}
@@ -0,0 +1,56 @@
+package tetrisgame;
+
+/**
+ * Receives notifications from a running {@link TetrisGame}.
+ * The callbacks are made on the thread running the game, a front end has to hand them over to its own thread if needed.
+ */
+public interface GameListener {
+    /**
+     * Called whenever squares of the board or the falling Tetromino have changed.
+     * The region is reset right after the call, so it must not be kept.
+     *
+     * @param changed The squares changed since the last notification.
+     */
+    void boardChanged(DirtyRegion changed);
+
+    /**
+     * Called when the score, the next Tetromino or the state of the game changed, so a front end can update what it shows around the board.
+     * Only a {@link Simulation} or a {@link ReplayPlayer} makes this call, a bare game doesn't.
+     */
+    default void stateChanged() {
+    }
+
+    /**
+     * Called when the score changed, once a snapshot showing it is published.
+     * Only a {@link Simulation} or a {@link ReplayPlayer} makes this call.
+     *
+     * @param score The new score.
+     */
+    default void scoreChanged(int score) {
+    }
+
+    /**
+     * Called when the Tetrominos coming next changed, once a snapshot showing them is published.
+     * They are read from the published snapshots ({@link SnapshotBuffer#getPreview(int)}).
+     * Only a {@link Simulation} or a {@link ReplayPlayer} makes this call.
+     */
+    default void previewChanged() {
+    }
+
+    /**
+     * Called after a Tetromino was locked into the board, once the rows it filled are cleared and the next Tetromino is drawn.
+     * The Tetromino still holds the position it was locked at during the call.
+     *
+     * @param locked The Tetromino locked.
+     */
+    default void pieceLocked(Tetromino locked) {
+    }
+
+    /**
+     * Called when a tick of the {@link Simulation} threw, on its thread. The rest of the tick is skipped and the simulation goes on ticking.
+     *
+     * @param e The exception.
+     */
+    default void tickFailed(RuntimeException e) {
+    }
+}
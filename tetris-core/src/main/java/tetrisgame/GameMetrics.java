@@ -0,0 +1,317 @@
+package tetrisgame;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The metrics of the running game: lock-free histograms of tick, paint, snapshot-to-paint (EDT) delay and key-to-pixel times ({@link LatencyHistogram}),
+ * and counters of spawned Tetrominos, locks, cleared rows, the bytes allocated by game ticks and the frames presented and dropped by the active renderer.
+ * There is one shared instance ({@link #get()}), recording into it never locks and never allocates, so it is always on.
+ * Every counter and histogram is striped, so the games of a tournament recording on every core at once don't contend for the same cache lines.
+ * It is published as a platform MBean by {@link #register()} under {@link #OBJECT_NAME}, and can be dumped as text any time.
+ */
+public final class GameMetrics implements GameMetricsMBean {
+    /**
+     * The name of the MBean.
+     */
+    public static final String OBJECT_NAME = "tetrisgame:type=GameMetrics";
+
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER = allocationCounter();
+
+    private static final GameMetrics INSTANCE = new GameMetrics();
+
+    /**
+     * The time the game engine takes for one tick ({@link TetrisGame#step()}), including the moves it makes.
+     */
+    public final LatencyHistogram tick = new LatencyHistogram("tick");
+    /**
+     * The time a front end takes to paint the board.
+     */
+    public final LatencyHistogram paint = new LatencyHistogram("paint");
+    /**
+     * The time from publishing a snapshot of the game ({@link Simulation}) until the EDT, or the thread of the active renderer, starts painting it.
+     */
+    public final LatencyHistogram edtDelay = new LatencyHistogram("edt-delay");
+    /**
+     * The time from a key press to the end of the paint showing its effect.
+     */
+    public final LatencyHistogram keyToPixel = new LatencyHistogram("key-to-pixel");
+    /**
+     * The time taken to check and clear the rows of a locked Tetromino.
+     */
+    public final LatencyHistogram clear = new LatencyHistogram("clear");
+
+    private final LongAdder pieces = new LongAdder();
+    private final LongAdder locks = new LongAdder();
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder allocationTicks = new LongAdder();
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder droppedFrames = new LongAdder();
+    private final LongAdder tickErrors = new LongAdder();
+
+    private GameMetrics() {
+    }
+
+    /**
+     * Gets the shared metrics.
+     *
+     * @return The metrics.
+     */
+    public static GameMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Publishes the shared metrics on the platform MBean server, does nothing if they already are.
+     * Kept apart from {@link #get()} so headless runs don't pay for starting JMX.
+     */
+    public static synchronized void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Counts a Tetromino entering the board.
+     */
+    public void countPiece() {
+        pieces.increment();
+    }
+
+    /**
+     * Counts a Tetromino locked into the board.
+     */
+    public void countLock() {
+        locks.increment();
+    }
+
+    /**
+     * Counts cleared rows.
+     *
+     * @param rows The number of rows cleared.
+     */
+    public void countLines(int rows) {
+        lines.add(rows);
+    }
+
+    /**
+     * Counts a frame presented by a renderer pacing itself to the display ({@link FramePacer}).
+     */
+    public void countFrame() {
+        frames.increment();
+    }
+
+    /**
+     * Counts refreshes of the display a renderer missed because a frame took longer than its slot.
+     *
+     * @param missed The number of refreshes missed.
+     */
+    public void countDroppedFrames(long missed) {
+        droppedFrames.add(missed);
+    }
+
+    /**
+     * Counts a tick of the simulation which threw, and was skipped ({@link Simulation}).
+     */
+    public void countTickError() {
+        tickErrors.increment();
+    }
+
+    /**
+     * Adds the bytes allocated by one game tick, measured with {@link #threadAllocatedBytes()} around it.
+     *
+     * @param bytes The bytes allocated, ignored if negative (not supported by the JVM).
+     */
+    public void recordTickAllocation(long bytes) {
+        if (bytes >= 0) {
+            allocatedBytes.add(bytes);
+            allocationTicks.increment();
+        }
+    }
+
+    /**
+     * Gets the number of bytes the calling thread has allocated so far.
+     *
+     * @return The bytes, -1 if the JVM can't measure it.
+     */
+    public static long threadAllocatedBytes() {
+        com.sun.management.ThreadMXBean threads = ALLOCATION_COUNTER;
+        if (threads != null && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Looks up the thread bean that counts the bytes allocated by threads, it is cached so measuring allocates nothing itself.
+     *
+     * @return The bean, null if the JVM can't count allocations.
+     */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) threads;
+            if (sun.isThreadAllocatedMemorySupported()) {
+                return sun;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long getTickCount() {
+        return tick.getCount();
+    }
+
+    @Override
+    public long getTickP50Nanos() {
+        return tick.getPercentile(50);
+    }
+
+    @Override
+    public long getTickP99Nanos() {
+        return tick.getPercentile(99);
+    }
+
+    @Override
+    public long getTickMaxNanos() {
+        return tick.getMax();
+    }
+
+    @Override
+    public long getPaintCount() {
+        return paint.getCount();
+    }
+
+    @Override
+    public long getPaintP50Nanos() {
+        return paint.getPercentile(50);
+    }
+
+    @Override
+    public long getPaintP99Nanos() {
+        return paint.getPercentile(99);
+    }
+
+    @Override
+    public long getPaintMaxNanos() {
+        return paint.getMax();
+    }
+
+    @Override
+    public long getEdtDelayP50Nanos() {
+        return edtDelay.getPercentile(50);
+    }
+
+    @Override
+    public long getEdtDelayP99Nanos() {
+        return edtDelay.getPercentile(99);
+    }
+
+    @Override
+    public long getEdtDelayMaxNanos() {
+        return edtDelay.getMax();
+    }
+
+    @Override
+    public long getKeyToPixelCount() {
+        return keyToPixel.getCount();
+    }
+
+    @Override
+    public long getKeyToPixelP50Nanos() {
+        return keyToPixel.getPercentile(50);
+    }
+
+    @Override
+    public long getKeyToPixelP99Nanos() {
+        return keyToPixel.getPercentile(99);
+    }
+
+    @Override
+    public long getKeyToPixelMaxNanos() {
+        return keyToPixel.getMax();
+    }
+
+    @Override
+    public long getClearP99Nanos() {
+        return clear.getPercentile(99);
+    }
+
+    @Override
+    public long getPieces() {
+        return pieces.sum();
+    }
+
+    @Override
+    public long getLocks() {
+        return locks.sum();
+    }
+
+    @Override
+    public long getLinesCleared() {
+        return lines.sum();
+    }
+
+    @Override
+    public long getFrames() {
+        return frames.sum();
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return droppedFrames.sum();
+    }
+
+    @Override
+    public long getTickErrors() {
+        return tickErrors.sum();
+    }
+
+    @Override
+    public double getAllocatedBytesPerTick() {
+        long ticks = allocationTicks.sum();
+        return ticks == 0 ? 0 : (double) allocatedBytes.sum() / ticks;
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        for (LatencyHistogram h : new LatencyHistogram[]{tick, paint, edtDelay, keyToPixel, clear}) {
+            out.append(h).append('\n');
+        }
+        out.append(String.format(Locale.ROOT, "pieces=%d locks=%d lines=%d allocated/tick=%.1fB%n",
+                getPieces(), getLocks(), getLinesCleared(), getAllocatedBytesPerTick()));
+        out.append(String.format(Locale.ROOT, "frames=%d dropped=%d tick-errors=%d%n", getFrames(), getDroppedFrames(), getTickErrors()));
+        return out.toString();
+    }
+
+    @Override
+    public void reset() {
+        tick.reset();
+        paint.reset();
+        edtDelay.reset();
+        keyToPixel.reset();
+        clear.reset();
+        pieces.reset();
+        locks.reset();
+        lines.reset();
+        allocatedBytes.reset();
+        allocationTicks.reset();
+        frames.reset();
+        droppedFrames.reset();
+        tickErrors.reset();
+    }
+}
@@ -0,0 +1,48 @@
+package tetrisgame;
+
+/**
+ * The management interface of the game metrics ({@link GameMetrics}), as seen in JConsole or any other JMX client.
+ * Durations are in nanoseconds.
+ */
+public interface GameMetricsMBean {
+    long getTickCount();
+    long getTickP50Nanos();
+    long getTickP99Nanos();
+    long getTickMaxNanos();
+
+    long getPaintCount();
+    long getPaintP50Nanos();
+    long getPaintP99Nanos();
+    long getPaintMaxNanos();
+
+    long getEdtDelayP50Nanos();
+    long getEdtDelayP99Nanos();
+    long getEdtDelayMaxNanos();
+
+    long getKeyToPixelCount();
+    long getKeyToPixelP50Nanos();
+    long getKeyToPixelP99Nanos();
+    long getKeyToPixelMaxNanos();
+
+    long getClearP99Nanos();
+
+    long getPieces();
+    long getLocks();
+    long getLinesCleared();
+    double getAllocatedBytesPerTick();
+    long getFrames();
+    long getDroppedFrames();
+    long getTickErrors();
+
+    /**
+     * Dumps every histogram and counter as text.
+     *
+     * @return The dump.
+     */
+    String dump();
+
+    /**
+     * Forgets everything recorded so far.
+     */
+    void reset();
+}
@@ -0,0 +1,85 @@
+package tetrisgame;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives the game ticks of any number of Tetris games on a small, fixed set of threads.
+ * Every game registers a single periodic tick which handles gravity, locking and spawning on one timeline,
+ * so no thread is ever created per Tetromino and thousands of games don't mean thousands of sleeping threads.
+ * The threads are daemons, so a scheduler never keeps the application alive on its own.
+ */
+public class GameScheduler {
+    /**
+     * The scheduler shared by every game that doesn't bring its own, created on first use
+     */
+    private static GameScheduler shared;
+
+    /**
+     * The executor running the ticks
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Creates a scheduler running the ticks on the given number of threads.
+     *
+     * @param threads The number of tick threads, at least 1.
+     * @throws IllegalArgumentException If the number of threads is not positive.
+     */
+    public GameScheduler(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A scheduler needs at least one thread");
+        }
+        this.executor = Executors.newScheduledThreadPool(threads, new TickThreadFactory());
+    }
+
+    /**
+     * Gets the scheduler shared by every game in the application.
+     * It runs on a single thread, which is plenty for the short ticks of the games.
+     *
+     * @return The shared scheduler.
+     */
+    public static synchronized GameScheduler shared() {
+        if (shared == null) {
+            shared = new GameScheduler(1);
+        }
+        return shared;
+    }
+
+    /**
+     * Schedules a periodic game tick.
+     * The tick is run at a fixed rate until the returned handle is cancelled.
+     *
+     * @param tick The tick of a game.
+     * @param periodMillis The time between two ticks in milliseconds.
+     * @return The handle used to cancel the tick, when the game is paused or over.
+     */
+    public ScheduledFuture<?> schedule(Runnable tick, long periodMillis) {
+        return executor.scheduleAtFixedRate(tick, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the scheduler, no more ticks are run after this.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Creates the named daemon threads of a scheduler.
+     */
+    private static class TickThreadFactory implements ThreadFactory {
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "tetris-tick-" + COUNTER.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
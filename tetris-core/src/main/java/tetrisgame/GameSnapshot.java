@@ -0,0 +1,225 @@
+package tetrisgame;
+
+/**
+ * A copy of everything a front end shows of a game ({@link TetrisGame}): the board, the falling Tetromino and the ones coming next, the score and the state.
+ * Snapshots are captured by the simulation ({@link Simulation}) on its own thread and handed to the renderer,
+ * which reads them without locks while the game goes on. Once published a snapshot is never changed until the renderer gives it back,
+ * so it has to be treated as read only, its board included.
+ * Only the rows changed since a snapshot was last captured are copied into it, so capturing a large board costs as much as the rows the game touched.
+ */
+public final class GameSnapshot {
+    private final BitBoard board;
+    private long version;
+    private long publishedNanos;
+    private long inputNanos;
+    private int score;
+    private boolean gameOn;
+    private boolean paused;
+    private int pieceType = -1;
+    private int pieceRotation;
+    private int pieceX;
+    private int pieceY;
+    private boolean pieceActive;
+    private int dropDistance;
+    private int nextType = -1;
+    private final int[] preview = new int[TetrisGame.MAX_PREVIEW];
+    private int previewCount;
+
+    /**
+     * The rows of the board changed since this snapshot was last captured, used by the capturing thread only.
+     */
+    final DirtyRegion stale = new DirtyRegion();
+
+    /**
+     * Creates an empty snapshot for a board size.
+     *
+     * @param width The width of the board.
+     * @param height The height of the board.
+     */
+    GameSnapshot(int width, int height) {
+        this.board = new BitBoard(width, height);
+        stale.markRows(0, height - 1, width);
+    }
+
+    /**
+     * Captures a game that isn't running, on the calling thread.
+     * Used to show a game before its simulation starts.
+     *
+     * @param game The game.
+     * @return A new snapshot of the game.
+     */
+    public static GameSnapshot of(TetrisGame game) {
+        BitBoard b = game.getBoard();
+        GameSnapshot s = new GameSnapshot(b.getWidth(), b.getHeight());
+        s.capture(game, 0, 0, System.nanoTime());
+        return s;
+    }
+
+    /**
+     * Copies the state of a game into the snapshot, without allocating anything.
+     * Only the stale rows of the board are copied, the rest of it is already the same as the board of the game.
+     * Called by the thread running the game only, while the snapshot is not published.
+     *
+     * @param game The game.
+     * @param version The number of the snapshot.
+     * @param inputNanos The time of the oldest key event the snapshot shows the effect of, 0 if none.
+     * @param nanos The time of the capture.
+     */
+    void capture(TetrisGame game, long version, long inputNanos, long nanos) {
+        if (!stale.isEmpty()) {
+            this.board.copyRowsFrom(game.getBoard(), stale.getMinY(), stale.getMaxY());
+            stale.reset();
+        }
+        this.version = version;
+        this.inputNanos = inputNanos;
+        this.publishedNanos = nanos;
+        this.score = game.getScore();
+        this.gameOn = game.isGameOn();
+        this.paused = game.isPaused();
+        Tetromino falling = game.getCurrTetro();
+        if (falling != null) {
+            this.pieceType = falling.getShape().getType();
+            this.pieceRotation = falling.getShape().getRotation();
+            this.pieceX = falling.getTopleft().getX();
+            this.pieceY = falling.getTopleft().getY();
+            this.pieceActive = falling.getActive();
+            this.dropDistance = pieceActive ? falling.getDropDistance() : 0;
+        } else {
+            this.pieceType = -1;
+            this.pieceActive = false;
+        }
+        Tetromino next = game.getNextTetro();
+        this.nextType = (next != null) ? next.getShape().getType() : -1;
+        this.previewCount = game.getPreview(preview, preview.length);
+    }
+
+    /**
+     * Getter for the board, it must not be changed
+     * @return The copy of the board.
+     */
+    public BitBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Getter for the number of the snapshot, later snapshots of a game have larger numbers
+     * @return The version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Getter for the time the snapshot was captured
+     * @return The time from {@link System#nanoTime()}.
+     */
+    public long getPublishedNanos() {
+        return publishedNanos;
+    }
+
+    /**
+     * Getter for the time of the oldest key event whose effect this snapshot is the first to show
+     * @return The time from {@link System#nanoTime()}, 0 if none.
+     */
+    public long getInputNanos() {
+        return inputNanos;
+    }
+
+    /**
+     * Getter for the score
+     * @return The score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Getter for the on-state of the game
+     * @return True if the game is still going.
+     */
+    public boolean isGameOn() {
+        return gameOn;
+    }
+
+    /**
+     * Getter for the pause-state of the game
+     * @return True if the game is paused.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Checks whether there is a falling Tetromino to show.
+     *
+     * @return True if the current Tetromino is active.
+     */
+    public boolean isPieceActive() {
+        return pieceActive;
+    }
+
+    /**
+     * Getter for the orientation of the current Tetromino
+     * @return The orientation, null if there is no current Tetromino.
+     */
+    public ShapeTable.Orientation getPieceOrientation() {
+        return (pieceType < 0) ? null : ShapeTable.get(pieceType, pieceRotation);
+    }
+
+    /**
+     * Getter for the kind of the current Tetromino
+     * @return The index of the shape type, -1 if there is none.
+     */
+    public int getPieceType() {
+        return pieceType;
+    }
+
+    /**
+     * Getter for the column of the origin of the current Tetromino
+     * @return The column.
+     */
+    public int getPieceX() {
+        return pieceX;
+    }
+
+    /**
+     * Getter for the row of the origin of the current Tetromino
+     * @return The row.
+     */
+    public int getPieceY() {
+        return pieceY;
+    }
+
+    /**
+     * Getter for how far the current Tetromino would fall, which is where its ghost is shown
+     * @return The number of rows, 0 if it isn't active.
+     */
+    public int getDropDistance() {
+        return dropDistance;
+    }
+
+    /**
+     * Getter for the kind of the next Tetromino
+     * @return The index of the shape type, -1 if there is none.
+     */
+    public int getNextType() {
+        return nextType;
+    }
+
+    /**
+     * Getter for the number of Tetrominos coming next known to the snapshot
+     * @return The number, at most {@link TetrisGame#MAX_PREVIEW}.
+     */
+    public int getPreviewCount() {
+        return previewCount;
+    }
+
+    /**
+     * Getter for the kind of a Tetromino coming next
+     * @param i The place in the queue, 0 is the next Tetromino.
+     * @return The index of the shape type, -1 if it isn't known.
+     */
+    public int getPreview(int i) {
+        return (i < previewCount) ? preview[i] : -1;
+    }
+}
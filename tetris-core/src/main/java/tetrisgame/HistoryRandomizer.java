@@ -0,0 +1,102 @@
+package tetrisgame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Remembers the last four shape types dealt and rerolls a shape found among them, up to six times.
+ * Repeats are rare but possible, and the first shape is never an S, Z or O which would leave the player an overhang.
+ */
+public class HistoryRandomizer extends LcgRandomizer {
+    private static final int ROLLS = 6;
+
+    /**
+     * The shape types allowed as the first piece: I, L, J and T.
+     */
+    private static final int[] FIRST = {1, 3, 4, 5};
+
+    /**
+     * The last four shape types dealt, the oldest first. It starts out as S and Z so they are unlikely early on.
+     */
+    private final int[] history = {6, 2, 2, 6};
+
+    /**
+     * Whether the first shape has been dealt.
+     */
+    private boolean started;
+
+    /**
+     * Constructs the randomizer.
+     *
+     * @param seed The seed of the sequence.
+     */
+    public HistoryRandomizer(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public int next() {
+        int shape;
+        if (!started) {
+            shape = FIRST[nextInt(FIRST.length)];
+            started = true;
+        } else {
+            shape = nextInt(TetrisUtils.SHAPE_COUNT);
+            for (int roll = 1; roll < ROLLS && inHistory(shape); roll++) {
+                shape = nextInt(TetrisUtils.SHAPE_COUNT);
+            }
+        }
+        System.arraycopy(history, 1, history, 0, history.length - 1);
+        history[history.length - 1] = shape;
+        return shape;
+    }
+
+    /**
+     * Checks whether a shape type is among the last ones dealt.
+     *
+     * @param shape The index of the shape type.
+     * @return True if it is in the history, false otherwise.
+     */
+    private boolean inHistory(int shape) {
+        for (int seen : history) {
+            if (seen == shape) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.HISTORY;
+    }
+
+    @Override
+    public int stateBytes() {
+        return super.stateBytes() + history.length + 1;
+    }
+
+    @Override
+    public void writeState(ByteBuffer buf) {
+        super.writeState(buf);
+        for (int shape : history) {
+            buf.put((byte) shape);
+        }
+        buf.put((byte) (started ? 1 : 0));
+    }
+
+    @Override
+    public void readState(ByteBuffer buf) {
+        int start = buf.position() + super.stateBytes(); // checked before anything is set, so a bad state changes nothing
+        for (int i = 0; i < history.length; i++) {
+            int shape = buf.get(start + i);
+            if (shape < 0 || shape >= TetrisUtils.SHAPE_COUNT) {
+                throw new IllegalArgumentException("Invalid shape in history " + shape);
+            }
+        }
+        super.readState(buf);
+        for (int i = 0; i < history.length; i++) {
+            history[i] = buf.get();
+        }
+        started = buf.get() != 0;
+    }
+}
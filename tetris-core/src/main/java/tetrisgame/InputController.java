@@ -0,0 +1,335 @@
+package tetrisgame;
+
+/**
+ * Turns key presses and releases into moves of the falling Tetromino, with delayed auto shift (DAS) and auto repeat rate (ARR).
+ * The key listener only records what happened and when into an {@link InputQueue}, the game tick drains it with {@link #update(long, PieceControls)}.
+ * A held left or right key moves once when pressed, then again after the DAS delay and every ARR interval from there on,
+ * measured from the time of the press itself, so holding a key doesn't depend on the key repeat of the OS or on how busy the EDT is.
+ * A held down key soft drops every ARR interval without the delay, at most once a tick. Key repeats sent by the OS while a key is held are ignored,
+ * also the ones X11 sends as a release followed by a press at the same time: the release of a held key is only applied on the next update,
+ * unless the press of the same key came within {@link #AUTOREPEAT_NANOS} of it, so a held key keeps its DAS.
+ * <p>
+ * Nothing is allocated once the controller is created, so it can run on every tick.
+ */
+public final class InputController {
+    /**
+     * Moves the Tetromino to the left, repeats while held.
+     */
+    public static final int LEFT = 0;
+
+    /**
+     * Moves the Tetromino to the right, repeats while held.
+     */
+    public static final int RIGHT = 1;
+
+    /**
+     * Moves the Tetromino down by a row, repeats while held.
+     */
+    public static final int DOWN = 2;
+
+    /**
+     * Rotates the Tetromino.
+     */
+    public static final int ROTATE = 3;
+
+    /**
+     * Drops the Tetromino as far down as it goes.
+     */
+    public static final int DROP = 4;
+
+    /**
+     * Added to a command to mark the release of its key.
+     */
+    static final int RELEASE = 0x10;
+
+    /**
+     * The default delay before a held key starts repeating, in milliseconds.
+     */
+    public static final int DEFAULT_DAS_MILLIS = 170;
+
+    /**
+     * The default time between two repeats of a held key, in milliseconds.
+     */
+    public static final int DEFAULT_ARR_MILLIS = 50;
+
+    /**
+     * The most repeats made in one update by default, it is reached with an ARR of 0 which moves the Tetromino to the wall at once on boards up to this wide.
+     */
+    static final int MAX_REPEATS = 64;
+
+    /**
+     * A press this close after the release of the same key is the key repeat of the OS, not the player: X11 sends both with the same time.
+     */
+    static final long AUTOREPEAT_NANOS = 1_000_000L;
+
+    private static final int REPEATING = DOWN + 1;
+
+    private final InputQueue queue;
+    private final long dasNanos;
+    private final long arrNanos;
+    private final int maxRepeats;
+
+    /**
+     * Whether the left, right and down keys are held, only used by the consumer.
+     */
+    private final boolean[] held = new boolean[REPEATING];
+
+    /**
+     * The time each held key was pressed.
+     */
+    private final long[] pressedAt = new long[REPEATING];
+
+    /**
+     * The number of moves made so far by each held key.
+     */
+    private final long[] moves = new long[REPEATING];
+
+    /**
+     * Whether the release of each held key was seen and waits for the next update, in case the OS repeats the key with a press right after it.
+     */
+    private final boolean[] releasing = new boolean[REPEATING];
+
+    /**
+     * The time of the release waiting for each key.
+     */
+    private final long[] releasedAt = new long[REPEATING];
+
+    /**
+     * The update the release of each key was seen in.
+     */
+    private final long[] releasedIn = new long[REPEATING];
+
+    /**
+     * The number of updates so far.
+     */
+    private long updates;
+
+    /**
+     * The horizontal key which shifts the Tetromino, the one pressed last, or -1.
+     */
+    private int shifting = -1;
+
+    /**
+     * Constructs a controller with the default DAS and ARR.
+     */
+    public InputController() {
+        this(DEFAULT_DAS_MILLIS, DEFAULT_ARR_MILLIS, 64);
+    }
+
+    /**
+     * Constructs a controller making at most {@link #MAX_REPEATS} repeats an update.
+     *
+     * @param dasMillis The delay before a held key starts repeating, in milliseconds.
+     * @param arrMillis The time between two repeats, in milliseconds, 0 to move to the wall at once.
+     * @param capacity The number of key events buffered between two updates.
+     * @throws IllegalArgumentException If a delay is negative.
+     */
+    public InputController(int dasMillis, int arrMillis, int capacity) {
+        this(dasMillis, arrMillis, capacity, MAX_REPEATS);
+    }
+
+    /**
+     * Constructs a controller.
+     *
+     * @param dasMillis The delay before a held key starts repeating, in milliseconds.
+     * @param arrMillis The time between two repeats, in milliseconds, 0 to move to the wall at once.
+     * @param capacity The number of key events buffered between two updates.
+     * @param maxRepeats The most repeats of a horizontal key made in one update, at least the width of the board so an ARR of 0 reaches the wall.
+     * @throws IllegalArgumentException If a delay is negative or maxRepeats isn't positive.
+     */
+    public InputController(int dasMillis, int arrMillis, int capacity, int maxRepeats) {
+        if (dasMillis < 0 || arrMillis < 0) {
+            throw new IllegalArgumentException("Negative DAS or ARR");
+        }
+        if (maxRepeats <= 0) {
+            throw new IllegalArgumentException("maxRepeats must be positive: " + maxRepeats);
+        }
+        this.maxRepeats = maxRepeats;
+        this.queue = new InputQueue(capacity);
+        this.dasNanos = dasMillis * 1_000_000L;
+        this.arrNanos = arrMillis * 1_000_000L;
+    }
+
+    /**
+     * Records the press of a key, called from the producer thread only.
+     *
+     * @param command The command of the key, {@link #LEFT} to {@link #DROP}.
+     * @param nanos The time of the press from {@link System#nanoTime()}.
+     * @return False if the buffer was full and the press was lost.
+     */
+    public boolean press(int command, long nanos) {
+        return queue.offer(command, nanos);
+    }
+
+    /**
+     * Records the release of a key, called from the producer thread only.
+     *
+     * @param command The command of the key, {@link #LEFT} to {@link #DROP}.
+     * @param nanos The time of the release from {@link System#nanoTime()}.
+     * @return False if the buffer was full and the release was lost.
+     */
+    public boolean release(int command, long nanos) {
+        return queue.offer(command | RELEASE, nanos);
+    }
+
+    /**
+     * Gets the time of the oldest key event not applied yet, called from the consumer thread only.
+     *
+     * @return The time of the event, 0 if there is none.
+     */
+    public long pendingTime() {
+        return queue.peekTime();
+    }
+
+    /**
+     * Applies the recorded key events and the auto repeat of the held keys up to a point in time.
+     * Called from the consumer thread only, usually on every game tick.
+     *
+     * @param now The current time from {@link System#nanoTime()}.
+     * @param controls The moves of the game.
+     */
+    public void update(long now, PieceControls controls) {
+        updates++;
+        while (!queue.isEmpty()) {
+            int command = queue.peekCommand();
+            long nanos = queue.peekTime();
+            queue.remove();
+            if ((command & RELEASE) != 0) {
+                command &= ~RELEASE;
+                if (command < REPEATING && held[command] && !releasing[command]) {
+                    releasing[command] = true; // applied on the next update unless the OS repeats the key
+                    releasedAt[command] = nanos;
+                    releasedIn[command] = updates;
+                } else {
+                    released(command, nanos);
+                }
+            } else {
+                if (command < REPEATING && releasing[command]) {
+                    releasing[command] = false;
+                    if (nanos - releasedAt[command] <= AUTOREPEAT_NANOS) {
+                        continue; // the key repeat of X11, the key is still held
+                    }
+                    released(command, releasedAt[command]);
+                }
+                pressed(command, nanos, controls);
+            }
+        }
+        for (int i = 0; i < REPEATING; i++) {
+            if (releasing[i] && releasedIn[i] < updates) {
+                releasing[i] = false;
+                released(i, releasedAt[i]);
+            }
+        }
+        if (shifting >= 0 && !releasing[shifting]) {
+            repeat(shifting, dasNanos, maxRepeats, now, controls);
+        }
+        if (held[DOWN] && !releasing[DOWN]) {
+            repeat(DOWN, arrNanos, 1, now, controls);
+        }
+    }
+
+    /**
+     * Forgets every held key and every key event not applied yet, for example when the game is paused.
+     * Called from the consumer thread only.
+     */
+    public void reset() {
+        queue.clear();
+        for (int i = 0; i < REPEATING; i++) {
+            held[i] = false;
+            releasing[i] = false;
+        }
+        shifting = -1;
+    }
+
+    /**
+     * Applies the press of a key.
+     *
+     * @param command The command of the key.
+     * @param nanos The time of the press.
+     * @param controls The moves of the game.
+     */
+    private void pressed(int command, long nanos, PieceControls controls) {
+        if (command < REPEATING) {
+            if (held[command]) {
+                return; // a key repeat of the OS
+            }
+            held[command] = true;
+            pressedAt[command] = nanos;
+            moves[command] = 1;
+            if (command != DOWN) {
+                shifting = command;
+            }
+        }
+        move(command, controls);
+    }
+
+    /**
+     * Applies the release of a key, a still held key of the other direction takes over shifting from now.
+     *
+     * @param command The command of the key.
+     * @param nanos The time of the release.
+     */
+    private void released(int command, long nanos) {
+        if (command >= REPEATING || !held[command]) {
+            return;
+        }
+        held[command] = false;
+        if (command == shifting) {
+            int other = (command == LEFT) ? RIGHT : LEFT;
+            shifting = held[other] ? other : -1;
+            if (shifting >= 0) {
+                pressedAt[other] = nanos;
+                moves[other] = 1;
+            }
+        }
+    }
+
+    /**
+     * Makes the repeats of a held key that are due.
+     *
+     * @param command The command of the key.
+     * @param delay The time from the press to the first repeat.
+     * @param limit The most repeats made in this update.
+     * @param now The current time.
+     * @param controls The moves of the game.
+     */
+    private void repeat(int command, long delay, int limit, long now, PieceControls controls) {
+        long since = now - pressedAt[command] - delay;
+        if (since < 0) {
+            return;
+        }
+        long due = (arrNanos == 0) ? Long.MAX_VALUE : 2 + since / arrNanos; // the press itself was the first move
+        for (int i = 0; i < limit && moves[command] < due; i++) {
+            moves[command]++;
+            move(command, controls);
+        }
+    }
+
+    /**
+     * Makes a move.
+     *
+     * @param command The command of the move.
+     * @param controls The moves of the game.
+     */
+    private static void move(int command, PieceControls controls) {
+        switch (command) {
+            case LEFT:
+                controls.moveLeft();
+                break;
+            case RIGHT:
+                controls.moveRight();
+                break;
+            case DOWN:
+                controls.moveDown();
+                break;
+            case ROTATE:
+                controls.rotate();
+                break;
+            case DROP:
+                controls.pushDown();
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package tetrisgame;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded single-producer/single-consumer ring buffer of input commands, each with the time it was given.
+ * One thread (the key listener) offers commands and one thread (the game tick) takes them, neither ever blocks or allocates.
+ * The commands and times live in primitive arrays, the two sides only share the head and tail counters,
+ * which are published with ordered writes so the slots written before them are seen by the other side.
+ */
+public final class InputQueue {
+    private final byte[] commands;
+    private final long[] times;
+    private final int mask;
+
+    /**
+     * The number of commands taken so far, only written by the consumer.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * The number of commands offered so far, only written by the producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The producer's copy of the head, so the shared counter is only read when the buffer looks full.
+     */
+    private long cachedHead;
+
+    /**
+     * Constructs a queue.
+     *
+     * @param capacity The number of commands it holds, rounded up to a power of two.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    public InputQueue(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid capacity " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.commands = new byte[size];
+        this.times = new long[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds a command, called from the producer thread only.
+     *
+     * @param command The command.
+     * @param nanos The time of the command from {@link System#nanoTime()}.
+     * @return True if it was added, false if the queue is full.
+     */
+    public boolean offer(int command, long nanos) {
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.get();
+            if (t - cachedHead > mask) {
+                return false;
+            }
+        }
+        int slot = (int) t & mask;
+        commands[slot] = (byte) command;
+        times[slot] = nanos;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Checks if there is a command to take, called from the consumer thread only.
+     *
+     * @return True if the queue is empty.
+     */
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    /**
+     * Gets the oldest command without taking it, called from the consumer thread only.
+     *
+     * @return The command, -1 if the queue is empty.
+     */
+    public int peekCommand() {
+        long h = head.get();
+        return (h == tail.get()) ? -1 : commands[(int) h & mask];
+    }
+
+    /**
+     * Gets the time of the oldest command without taking it, called from the consumer thread only.
+     *
+     * @return The time of the command, 0 if the queue is empty.
+     */
+    public long peekTime() {
+        long h = head.get();
+        return (h == tail.get()) ? 0 : times[(int) h & mask];
+    }
+
+    /**
+     * Takes the oldest command, after it has been read with {@link #peekCommand()} and {@link #peekTime()}.
+     * Called from the consumer thread only.
+     */
+    public void remove() {
+        long h = head.get();
+        if (h != tail.get()) {
+            head.lazySet(h + 1);
+        }
+    }
+
+    /**
+     * Throws away every command offered so far, called from the consumer thread only.
+     */
+    public void clear() {
+        head.lazySet(tail.get());
+    }
+
+    /**
+     * Getter for the number of commands the queue holds
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,535 @@
+package tetrisgame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An append-only journal of a running game, so it can be recovered after a crash or a power loss.
+ * Every locked Tetromino is appended as a few bytes to a memory mapped segment file: no system call, no allocation and no waiting on the disk,
+ * the operating system writes the pages back on its own and a background thread forces them to the disk every second.
+ * <p>
+ * Every {@link #DEFAULT_CHECKPOINT_PIECES} Tetrominos the whole game is written as a checkpoint in the save format ({@link SaveFormat})
+ * and a new segment is started, so recovery never replays more than one or two segments.
+ * Checkpoints are written to a temporary file by the background thread and moved over the last one, older segments are deleted after that.
+ * The next segment is created and mapped ahead of time by the background thread as a spare, so the thread running the game never waits for the disk.
+ * Only if the spare isn't ready yet the next segment is created on the thread running the game. If even that fails, the Tetrominos locked
+ * while the segment is full are left to the next checkpoint, which is tried again on every lock.
+ * <p>
+ * Files in the journal directory, every number big endian:
+ * <pre>
+ * checkpoint.sav                 long pieces locked so far, then the game in the save format
+ * journal.spare                  the next segment, mapped ahead of time, its base is written once it is taken into use
+ * journal-&lt;base&gt;.log             int magic "TTJL", short version, long base (the pieces locked before the segment), then the records
+ * record                         byte 0x80 | type &lt;&lt; 2 | rotation, short x, short y, byte type of the next Tetromino drawn, byte check
+ * </pre>
+ * A segment is mapped at its full size, so its unwritten tail is zeros, which is never a valid record.
+ * Recovery loads the checkpoint and replays the segments following it while their records are intact and match the game,
+ * a record torn by a crash simply ends the replay one Tetromino early.
+ */
+public final class Journal implements Closeable {
+    /**
+     * The first four bytes of every segment, "TTJL".
+     */
+    public static final int MAGIC = 0x54544A4C;
+
+    /**
+     * The version of the segments written by this class.
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * The number of Tetrominos between two checkpoints.
+     */
+    public static final int DEFAULT_CHECKPOINT_PIECES = 1024;
+
+    static final int HEADER_BYTES = 4 + 2 + 8;
+    static final int RECORD_BYTES = 7;
+    static final String CHECKPOINT = "checkpoint.sav";
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SPARE = "journal.spare";
+    private static final int RECORD_MARK = 0x80;
+    private static final int CHECK_SEED = 0x5A;
+    private static final long FLUSH_MILLIS = 1000;
+
+    private final Path dir;
+    private final int checkpointPieces;
+    private final ScheduledExecutorService writer;
+
+    /**
+     * The segment being appended to, written by the thread running the game only, forced by the writer.
+     */
+    private volatile MappedByteBuffer segment;
+
+    /**
+     * The next segment, mapped by the writer ahead of time and taken by the thread running the game at a checkpoint, null until it is ready.
+     */
+    private volatile MappedByteBuffer spare;
+    private volatile boolean preparing;
+    private int records;
+    private long pieces;
+
+    /**
+     * Creates a journal and schedules the periodic flush.
+     *
+     * @param dir The journal directory.
+     * @param checkpointPieces The number of Tetrominos between two checkpoints.
+     */
+    private Journal(Path dir, int checkpointPieces) {
+        this.dir = dir;
+        this.checkpointPieces = checkpointPieces;
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tetris-journal");
+            t.setDaemon(true);
+            return t;
+        });
+        writer.scheduleWithFixedDelay(this::flush, FLUSH_MILLIS, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts journaling a game, replacing whatever the directory held before.
+     * The game is checkpointed and its first segments are created right away on the calling thread, so call it before the game is run.
+     *
+     * @param dir The journal directory, created if needed.
+     * @param game The game to journal.
+     * @return The journal, hand it to the simulation running the game ({@link Simulation#setJournal(Journal)}).
+     * @throws IOException If the directory or the first checkpoint can't be written.
+     */
+    public static Journal start(Path dir, TetrisGame game) throws IOException {
+        return start(dir, game, DEFAULT_CHECKPOINT_PIECES);
+    }
+
+    /**
+     * Starts journaling a game with a given distance between checkpoints.
+     *
+     * @param dir The journal directory, created if needed.
+     * @param game The game to journal.
+     * @param checkpointPieces The number of Tetrominos between two checkpoints.
+     * @return The journal.
+     * @throws IOException If the directory or the first checkpoint can't be written.
+     */
+    static Journal start(Path dir, TetrisGame game, int checkpointPieces) throws IOException {
+        Files.createDirectories(dir);
+        deleteSegments(dir, Long.MAX_VALUE); // first, so no old segment can ever follow the new checkpoint
+        writeCheckpoint(dir, encode(game, 0));
+        Journal journal = new Journal(dir, checkpointPieces);
+        journal.segment = journal.openSegment(0);
+        journal.spare = journal.openSpare();
+        return journal;
+    }
+
+    /**
+     * Checks whether a directory holds a journal to recover from.
+     *
+     * @param dir The journal directory.
+     * @return True if it has a checkpoint.
+     */
+    public static boolean exists(Path dir) {
+        return Files.isRegularFile(dir.resolve(CHECKPOINT));
+    }
+
+    /**
+     * Recovers the latest state of a journaled game: loads its checkpoint and replays the Tetrominos locked after it.
+     * The Tetromino falling at the time of the crash is lost, the game goes on with the next one.
+     *
+     * @param dir The journal directory.
+     * @return The recovered game, or null if there is no journal or its game was already lost.
+     * @throws IOException If the checkpoint can't be read.
+     */
+    public static TetrisGame recover(Path dir) throws IOException {
+        if (!exists(dir)) {
+            return null;
+        }
+        byte[] bytes = Files.readAllBytes(dir.resolve(CHECKPOINT));
+        if (bytes.length < Long.BYTES) {
+            throw new IOException("Checkpoint ends early");
+        }
+        long count = ByteBuffer.wrap(bytes).getLong();
+        TetrisGame game = SaveFormat.read(Channels.newChannel(new ByteArrayInputStream(bytes, Long.BYTES, bytes.length - Long.BYTES)));
+        for (long base : segments(dir)) {
+            if (base < count) {
+                continue; // already part of the checkpoint
+            }
+            if (base > count) {
+                break; // a segment is missing, nothing after it can be replayed
+            }
+            int replayed = replaySegment(game, dir.resolve(segmentName(base)), base);
+            count += replayed;
+            if (replayed == 0) {
+                break;
+            }
+        }
+        return game.isGameOn() ? game : null;
+    }
+
+    /**
+     * Appends a locked Tetromino, called by the thread running the game right after the lock ({@link GameListener#pieceLocked(Tetromino)}).
+     * Only writes a few bytes to memory, except when a checkpoint is due, then the game is encoded and the spare segment is taken into use.
+     *
+     * @param game The game.
+     * @param locked The Tetromino locked.
+     */
+    public void pieceLocked(TetrisGame game, Tetromino locked) {
+        MappedByteBuffer s = segment;
+        if (s == null) {
+            return; // closed
+        }
+        pieces++;
+        if (records >= checkpointPieces) {
+            checkpoint(game); // the segment is full since the last checkpoint failed, the checkpoint covers this lock too
+            return;
+        }
+        TetroShape shape = locked.getShape();
+        int at = HEADER_BYTES + records * RECORD_BYTES;
+        int head = RECORD_MARK | (shape.getType() << 2) | shape.getRotation();
+        int x = locked.getTopleft().getX();
+        int y = locked.getTopleft().getY();
+        int next = game.getNextTetro().getShape().getType();
+        s.putShort(at + 1, (short) x);
+        s.putShort(at + 3, (short) y);
+        s.put(at + 5, (byte) next);
+        s.put(at + 6, (byte) check(s, at, head));
+        s.put(at, (byte) head);
+        records++;
+        if (records >= checkpointPieces) {
+            checkpoint(game);
+        }
+    }
+
+    /**
+     * Writes a checkpoint of the game and continues in the spare segment.
+     * The game is encoded on the calling thread, everything else touching the disk is left to the writer: forcing the full segment,
+     * naming the spare after its base, writing the checkpoint, deleting the old segments and mapping the next spare.
+     * Only if the spare isn't ready yet the new segment is created on the calling thread, and the writer is asked for a spare again.
+     * If that fails too the segment stays full and the next lock tries again.
+     *
+     * @param game The game.
+     */
+    private void checkpoint(TetrisGame game) {
+        long count = pieces;
+        byte[] state;
+        try {
+            state = encode(game, count);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return; // the next lock tries again
+        }
+        MappedByteBuffer next = spare;
+        boolean spared = next != null;
+        if (spared) {
+            spare = null;
+            next.putLong(6, count);
+            preparing = true;
+        } else {
+            requestSpare();
+            try {
+                next = openSegment(count);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return; // the next lock tries again
+            }
+        }
+        MappedByteBuffer old = segment;
+        MappedByteBuffer taken = next;
+        segment = next;
+        records = 0;
+        writer.execute(() -> {
+            try {
+                old.force();
+                if (spared) {
+                    taken.force();
+                    Files.move(dir.resolve(SPARE), dir.resolve(segmentName(count)), StandardCopyOption.REPLACE_EXISTING);
+                }
+                writeCheckpoint(dir, state);
+                deleteSegments(dir, count);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            if (spared) {
+                prepareSpare();
+            }
+        });
+    }
+
+    /**
+     * Asks the writer for a spare segment, unless it is already preparing one. Called by the thread running the game.
+     */
+    private void requestSpare() {
+        if (!preparing) {
+            preparing = true;
+            writer.execute(this::prepareSpare);
+        }
+    }
+
+    /**
+     * Creates and maps the spare segment, run by the writer.
+     */
+    private void prepareSpare() {
+        try {
+            spare = openSpare();
+        } catch (IOException e) {
+            e.printStackTrace(); // asked for again at the next checkpoint
+        }
+        preparing = false;
+    }
+
+    /**
+     * Forces the segment being appended to onto the disk, run by the writer every second.
+     */
+    private void flush() {
+        MappedByteBuffer s = segment;
+        if (s != null) {
+            s.force();
+        }
+    }
+
+    /**
+     * Stops journaling and forces everything to the disk, the journal can still be recovered afterwards.
+     * Waits for the writer to finish the checkpoints already handed to it.
+     */
+    @Override
+    public void close() {
+        MappedByteBuffer s = segment;
+        segment = null;
+        if (s != null) {
+            writer.execute(s::force);
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops journaling and deletes the journal, once the game is lost or otherwise not worth recovering.
+     * The files are deleted by the writer, so this doesn't wait for the disk.
+     */
+    public void discard() {
+        segment = null;
+        writer.execute(() -> {
+            try {
+                deleteSegments(dir, Long.MAX_VALUE);
+                Files.deleteIfExists(dir.resolve(SPARE));
+                Files.deleteIfExists(dir.resolve(CHECKPOINT));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        writer.shutdown();
+    }
+
+    /**
+     * Getter for the number of Tetrominos locked since the journal was started
+     * @return The number of Tetrominos.
+     */
+    public long getPieces() {
+        return pieces;
+    }
+
+    /**
+     * Creates and maps a new segment named after its base.
+     *
+     * @param base The number of Tetrominos locked before the segment.
+     * @return The mapped segment.
+     * @throws IOException If the file can't be created.
+     */
+    private MappedByteBuffer openSegment(long base) throws IOException {
+        return mapSegment(dir.resolve(segmentName(base)), base);
+    }
+
+    /**
+     * Creates and maps the spare segment, its base is only written once it is taken into use.
+     *
+     * @return The mapped spare.
+     * @throws IOException If the file can't be created.
+     */
+    private MappedByteBuffer openSpare() throws IOException {
+        return mapSegment(dir.resolve(SPARE), -1);
+    }
+
+    /**
+     * Creates and maps a segment file at its full size and writes its header.
+     *
+     * @param file The file.
+     * @param base The number of Tetrominos locked before the segment.
+     * @return The mapped segment.
+     * @throws IOException If the file can't be created.
+     */
+    private MappedByteBuffer mapSegment(Path file, long base) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer s = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) checkpointPieces * RECORD_BYTES);
+            s.putInt(0, MAGIC);
+            s.putShort(4, VERSION);
+            s.putLong(6, base);
+            return s;
+        }
+    }
+
+    /**
+     * Replays the intact records of a segment onto a game.
+     *
+     * @param game The game, at the state the segment starts from.
+     * @param file The segment file.
+     * @param base The number of Tetrominos locked before the segment, as named.
+     * @return The number of records replayed.
+     * @throws IOException If the segment can't be read.
+     */
+    private static int replaySegment(TetrisGame game, Path file, long base) throws IOException {
+        ByteBuffer s = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (s.limit() < HEADER_BYTES || s.getInt(0) != MAGIC || s.getShort(4) != VERSION || s.getLong(6) != base) {
+            return 0;
+        }
+        int replayed = 0;
+        for (int at = HEADER_BYTES; at + RECORD_BYTES <= s.limit() && game.isGameOn(); at += RECORD_BYTES) {
+            if (!replay(game, s, at)) {
+                break;
+            }
+            replayed++;
+        }
+        return replayed;
+    }
+
+    /**
+     * Replays a single record: moves the current Tetromino to where it was locked and locks it again.
+     * The record has to be intact, name the current Tetromino and fit the board, and the next Tetromino drawn has to match it.
+     *
+     * @param game The game.
+     * @param s The segment.
+     * @param at The offset of the record.
+     * @return True if the record was replayed.
+     */
+    private static boolean replay(TetrisGame game, ByteBuffer s, int at) {
+        int head = s.get(at) & 0xFF;
+        if ((head & RECORD_MARK) == 0 || (s.get(at + 6) & 0xFF) != check(s, at, head)) {
+            return false;
+        }
+        int type = (head >>> 2) & 0x7;
+        int rotation = head & 0x3;
+        int x = s.getShort(at + 1);
+        int y = s.getShort(at + 3);
+        int next = s.get(at + 5);
+        Tetromino t = game.getCurrTetro();
+        if (t.getShape().getType() != type || !game.getBoard().fits(ShapeTable.get(type, rotation), x, y)) {
+            return false;
+        }
+        t.setShape(new TetroShape(type, rotation));
+        t.getTopleft().setX(x);
+        t.getTopleft().setY(y);
+        t.lockTetro();
+        return game.getNextTetro().getShape().getType() == next;
+    }
+
+    /**
+     * Computes the check byte of a record from its other bytes.
+     *
+     * @param s The segment.
+     * @param at The offset of the record.
+     * @param head The first byte of the record, which is written last.
+     * @return The check byte.
+     */
+    private static int check(ByteBuffer s, int at, int head) {
+        int c = CHECK_SEED ^ head;
+        for (int i = 1; i < RECORD_BYTES - 1; i++) {
+            c = ((c << 1) | (c >>> 7)) & 0xFF; // rotate, so swapped bytes don't cancel out
+            c ^= s.get(at + i) & 0xFF;
+        }
+        return c;
+    }
+
+    /**
+     * Encodes a checkpoint: the number of Tetrominos locked, then the game in the save format.
+     *
+     * @param game The game.
+     * @param count The number of Tetrominos locked.
+     * @return The bytes of the checkpoint.
+     * @throws IOException If the game can't be encoded.
+     */
+    private static byte[] encode(TetrisGame game, long count) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(ByteBuffer.allocate(Long.BYTES).putLong(count).array());
+        SaveFormat.write(game, Channels.newChannel(bytes));
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a checkpoint to a temporary file, forces it to the disk and moves it over the last checkpoint.
+     *
+     * @param dir The journal directory.
+     * @param state The bytes of the checkpoint.
+     * @throws IOException If writing fails.
+     */
+    private static void writeCheckpoint(Path dir, byte[] state) throws IOException {
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.wrap(state);
+            while (buf.hasRemaining()) {
+                out.write(buf);
+            }
+            out.force(true);
+        }
+        Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Deletes the segments starting before a number of Tetrominos.
+     *
+     * @param dir The journal directory.
+     * @param before The number of Tetrominos, segments with a smaller base are deleted.
+     * @throws IOException If the directory can't be listed.
+     */
+    private static void deleteSegments(Path dir, long before) throws IOException {
+        for (long base : segments(dir)) {
+            if (base < before) {
+                Files.deleteIfExists(dir.resolve(segmentName(base)));
+            }
+        }
+    }
+
+    /**
+     * Lists the bases of the segments in a directory.
+     *
+     * @param dir The journal directory.
+     * @return The bases, in increasing order.
+     * @throws IOException If the directory can't be listed.
+     */
+    private static List<Long> segments(Path dir) throws IOException {
+        List<Long> bases = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                try {
+                    bases.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // not a segment
+                }
+            }
+        }
+        Collections.sort(bases);
+        return bases;
+    }
+
+    private static String segmentName(long base) {
+        return SEGMENT_PREFIX + base + SEGMENT_SUFFIX;
+    }
+}
@@ -0,0 +1,167 @@
+package tetrisgame;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in nanoseconds, cheap enough to record every game tick and every paint.
+ * Values are counted in log-linear buckets: every power of two is split into 8 buckets, so a percentile is off by at most 12.5%.
+ * Every bucket, the count, the sum and the maximum are striped ({@link LongAdder}, {@link LongAccumulator}): threads recording at the same time,
+ * like the games of a tournament, update cells of their own instead of fighting over one cache line, and the cells are only summed when read.
+ * Recording never allocates once a stripe exists for the thread, any number of threads can record and read at the same time.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final String name;
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructs an empty histogram.
+     *
+     * @param name The name of the histogram, used when it is dumped.
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Maps a value to its bucket.
+     *
+     * @param value The value, not negative.
+     * @return The index of the bucket.
+     */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return ((magnitude + 1) << SUB_BITS) + (int) ((value >>> magnitude) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Gets the largest value falling into a bucket.
+     *
+     * @param bucket The index of the bucket.
+     * @return The upper bound of the bucket.
+     */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = (bucket >>> SUB_BITS) - 1;
+        long base = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << magnitude;
+        return base + (1L << magnitude) - 1;
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds, negative values count as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucket(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Records the time passed since a start time.
+     *
+     * @param startNanos The start time from {@link System#nanoTime()}.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Gets a percentile of the recorded durations.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The upper bound of the bucket holding the percentile (at most the largest value), 0 if nothing was recorded.
+     */
+    public long getPercentile(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i].sum();
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Getter for the number of recorded durations
+     * @return The count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Getter for the longest recorded duration
+     * @return The maximum in nanoseconds.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Getter for the mean of the recorded durations
+     * @return The mean in nanoseconds, 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long total = count.sum();
+        return total == 0 ? 0 : (double) sum.sum() / total;
+    }
+
+    /**
+     * Getter for the name of the histogram
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Forgets every recorded duration.
+     * Durations recorded while resetting may be partly kept, which is fine for monitoring.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i].reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Summarizes the histogram in microseconds.
+     *
+     * @return A line with the count, mean, percentiles and maximum.
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%-12s n=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                name, getCount(), getMean() / 1e3, getPercentile(50) / 1e3, getPercentile(90) / 1e3,
+                getPercentile(99) / 1e3, getPercentile(99.9) / 1e3, getMax() / 1e3);
+    }
+}
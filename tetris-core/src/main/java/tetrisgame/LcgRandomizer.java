@@ -0,0 +1,71 @@
+package tetrisgame;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Base of the randomizers, a source of random numbers whose state is a single long.
+ * It is the 48 bit linear congruential generator of {@link Random}, so a seed gives the same numbers as {@code new Random(seed)}.
+ */
+abstract class LcgRandomizer implements Randomizer, Serializable {
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    /**
+     * The state of the generator.
+     */
+    private long state;
+
+    /**
+     * Seeds the generator the same way {@link Random#Random(long)} does.
+     *
+     * @param seed The seed.
+     */
+    LcgRandomizer(long seed) {
+        this.state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    /**
+     * Draws a number uniformly from 0 (inclusive) to bound (exclusive).
+     * Same algorithm as {@link Random#nextInt(int)}, rejecting the uneven top of the range.
+     *
+     * @param bound The upper bound, must be positive.
+     * @return The drawn number.
+     */
+    final int nextInt(int bound) {
+        int r;
+        int u;
+        do {
+            state = (state * MULTIPLIER + ADDEND) & MASK;
+            u = (int) (state >>> 17);
+            r = u % bound;
+        } while (u - r + (bound - 1) < 0);
+        return r;
+    }
+
+    @Override
+    public int stateBytes() {
+        return Long.BYTES;
+    }
+
+    @Override
+    public void writeState(ByteBuffer buf) {
+        buf.putLong(state);
+    }
+
+    @Override
+    public void readState(ByteBuffer buf) {
+        this.state = buf.getLong() & MASK;
+    }
+
+    /**
+     * Sets the raw state of the generator, used to load saves from before randomizers were pluggable.
+     *
+     * @param state The 48 bit state.
+     */
+    final void setRawState(long state) {
+        this.state = state & MASK;
+    }
+}
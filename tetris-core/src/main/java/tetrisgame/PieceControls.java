@@ -0,0 +1,33 @@
+package tetrisgame;
+
+/**
+ * The moves a player can make with the falling Tetromino.
+ * Implemented by the headless game ({@link TetrisGame}), a front end can adapt its own entry points to it,
+ * so the same moves can be issued by a keyboard, a replay or the autoplayer ({@link AutoPlayer}).
+ */
+public interface PieceControls {
+    /**
+     * Moves the current Tetromino to the left.
+     */
+    void moveLeft();
+
+    /**
+     * Moves the current Tetromino to the right.
+     */
+    void moveRight();
+
+    /**
+     * Moves the current Tetromino down by one row, locking it if it can't move further.
+     */
+    void moveDown();
+
+    /**
+     * Rotates the current Tetromino clockwise.
+     */
+    void rotate();
+
+    /**
+     * Drops the current Tetromino as far down as it goes.
+     */
+    void pushDown();
+}
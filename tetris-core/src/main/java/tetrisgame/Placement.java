@@ -0,0 +1,88 @@
+package tetrisgame;
+
+/**
+ * A place the falling Tetromino can be dropped to: the rows it falls before turning, the number of clockwise turns and the column of its origin.
+ * Turned orientations can reach above their origin, so near the top of the board a Tetromino may have to fall a little before it can turn.
+ * Chosen by the autoplayer ({@link AutoPlayer}), a placement is carried out with the same moves a player would make.
+ */
+public final class Placement {
+    private final int drops;
+    private final int turns;
+    private final int x;
+    private final double score;
+
+    /**
+     * Constructs a placement.
+     *
+     * @param drops The number of rows the Tetromino falls before it is turned.
+     * @param turns The number of clockwise turns, between 0 and 3.
+     * @param x The column of the origin after the turns.
+     * @param score The score given to the placement by the heuristic.
+     */
+    public Placement(int drops, int turns, int x, double score) {
+        this.drops = drops;
+        this.turns = turns;
+        this.x = x;
+        this.score = score;
+    }
+
+    /**
+     * Carries out the placement: the Tetromino is moved down, turned, slid to its column and pushed down.
+     * It is the same order of moves the search checked, so every move succeeds if the board hasn't changed since.
+     *
+     * @param controls The controls of the falling Tetromino.
+     * @param fromX The column of the origin of the falling Tetromino now.
+     */
+    public void apply(PieceControls controls, int fromX) {
+        for (int i = 0; i < drops; i++) {
+            controls.moveDown();
+        }
+        for (int i = 0; i < turns; i++) {
+            controls.rotate();
+        }
+        for (int i = fromX; i > x; i--) {
+            controls.moveLeft();
+        }
+        for (int i = fromX; i < x; i++) {
+            controls.moveRight();
+        }
+        controls.pushDown();
+    }
+
+    /**
+     * Getter for the number of rows the Tetromino falls before it is turned
+     * @return The number of rows.
+     */
+    public int getDrops() {
+        return drops;
+    }
+
+    /**
+     * Getter for the number of clockwise turns
+     * @return The number of turns, between 0 and 3.
+     */
+    public int getTurns() {
+        return turns;
+    }
+
+    /**
+     * Getter for the target column of the origin
+     * @return The column.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Getter for the score given by the heuristic
+     * @return The score, negative infinity for a placement that loses the game.
+     */
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "Placement[drops=" + drops + ", turns=" + turns + ", x=" + x + ", score=" + score + "]";
+    }
+}
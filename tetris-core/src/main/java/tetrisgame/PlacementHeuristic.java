@@ -0,0 +1,108 @@
+package tetrisgame;
+
+/**
+ * Scores a board after a Tetromino has been placed, the higher the better.
+ * The score is a weighted sum of four features: the rows cleared by the placement, the aggregate height of the columns,
+ * the number of holes (empty squares under a locked one) and the bumpiness (the height differences of neighbouring columns).
+ * Heights come straight from the skyline of the board ({@link BitBoard#getSkyline(int)}), holes take one pass over the rows.
+ */
+public final class PlacementHeuristic {
+    /**
+     * Weights known to play well on a 10 wide board, lines are rewarded and the rest is punished.
+     */
+    public static final PlacementHeuristic DEFAULT = new PlacementHeuristic(0.760666, -0.510066, -0.35663, -0.184483);
+
+    /**
+     * The number of weights, the length of {@link #toArray()}.
+     */
+    public static final int WEIGHTS = 4;
+
+    private final double lines;
+    private final double height;
+    private final double holes;
+    private final double bumpiness;
+
+    /**
+     * Constructs a heuristic from its weights.
+     *
+     * @param lines The weight of the rows cleared.
+     * @param height The weight of the aggregate height.
+     * @param holes The weight of the number of holes.
+     * @param bumpiness The weight of the bumpiness.
+     */
+    public PlacementHeuristic(double lines, double height, double holes, double bumpiness) {
+        this.lines = lines;
+        this.height = height;
+        this.holes = holes;
+        this.bumpiness = bumpiness;
+    }
+
+    /**
+     * Constructs a heuristic from an array of weights in the order of {@link #toArray()}.
+     *
+     * @param weights The weights: lines, height, holes, bumpiness.
+     * @return The heuristic.
+     * @throws IllegalArgumentException If the array doesn't hold exactly {@link #WEIGHTS} weights.
+     */
+    public static PlacementHeuristic fromArray(double[] weights) {
+        if (weights.length != WEIGHTS) {
+            throw new IllegalArgumentException("Expected " + WEIGHTS + " weights, got " + weights.length);
+        }
+        return new PlacementHeuristic(weights[0], weights[1], weights[2], weights[3]);
+    }
+
+    /**
+     * Gets the weights of the heuristic.
+     *
+     * @return A new array of the weights: lines, height, holes, bumpiness.
+     */
+    public double[] toArray() {
+        return new double[]{lines, height, holes, bumpiness};
+    }
+
+    /**
+     * Scores a board.
+     *
+     * @param board The board after the placement and the clearing of its rows.
+     * @param cleared The number of rows the placement cleared.
+     * @return The score of the board.
+     */
+    public double evaluate(BitBoard board, int cleared) {
+        int aggregate = 0;
+        int bumps = 0;
+        int previous = -1;
+        for (int x = 0; x < board.getWidth(); x++) {
+            int h = board.getHeight() - board.getSkyline(x);
+            aggregate += h;
+            if (previous >= 0) {
+                bumps += Math.abs(h - previous);
+            }
+            previous = h;
+        }
+        return lines * cleared + height * aggregate + holes * countHoles(board) + bumpiness * bumps;
+    }
+
+    /**
+     * Counts the empty squares that have a locked square somewhere above them in the same column.
+     *
+     * @param board The board.
+     * @return The number of holes.
+     */
+    public static int countHoles(BitBoard board) {
+        int count = 0;
+        for (int w = 0; w < board.getWords(); w++) {
+            long covered = 0;
+            for (int y = 0; y < board.getHeight(); y++) {
+                long row = board.getRowWord(y, w);
+                count += Long.bitCount(covered & ~row);
+                covered |= row;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "lines=" + lines + " height=" + height + " holes=" + holes + " bumpiness=" + bumpiness;
+    }
+}
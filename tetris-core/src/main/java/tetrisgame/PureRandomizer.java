@@ -0,0 +1,26 @@
+package tetrisgame;
+
+/**
+ * Draws every shape type independently and uniformly, the way the game always has.
+ * Long droughts and floods of the same shape are possible.
+ */
+public class PureRandomizer extends LcgRandomizer {
+    /**
+     * Constructs the randomizer, it deals the same shapes as {@code new Random(seed).nextInt(7)} would.
+     *
+     * @param seed The seed of the sequence.
+     */
+    public PureRandomizer(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public int next() {
+        return nextInt(TetrisUtils.SHAPE_COUNT);
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.RANDOM;
+    }
+}
@@ -0,0 +1,94 @@
+package tetrisgame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Deals the shape types of the Tetrominos coming into a game ({@link TetrisGame}).
+ * Every randomizer is seeded, so the same seed always deals the same sequence, and its whole state can be
+ * written into a save ({@link SaveFormat}) and read back to continue the sequence exactly where it was.
+ */
+public interface Randomizer {
+    /**
+     * The kinds of randomizers, the ordinal is stored in saves so new kinds have to be added at the end.
+     */
+    enum Kind {
+        /**
+         * Every shape type is drawn independently and uniformly {@link PureRandomizer}.
+         */
+        RANDOM,
+        /**
+         * The seven shape types are dealt in shuffled bags {@link BagRandomizer}.
+         */
+        BAG,
+        /**
+         * Shape types seen recently are rerolled a few times {@link HistoryRandomizer}.
+         */
+        HISTORY;
+
+        /**
+         * Creates a new randomizer of this kind.
+         *
+         * @param seed The seed of the sequence.
+         * @return The randomizer.
+         */
+        public Randomizer create(long seed) {
+            switch (this) {
+                case BAG:
+                    return new BagRandomizer(seed);
+                case HISTORY:
+                    return new HistoryRandomizer(seed);
+                default:
+                    return new PureRandomizer(seed);
+            }
+        }
+    }
+
+    /**
+     * Deals the next shape type.
+     *
+     * @return The index of the shape type (corresponding to TetrisUtils.ShapeType).
+     */
+    int next();
+
+    /**
+     * Deals a whole run of shape types at once, for simulations that need a long sequence up front.
+     *
+     * @param out The array to fill.
+     * @param from The first index to fill.
+     * @param count The number of shape types to deal.
+     */
+    default void next(int[] out, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            out[i] = next();
+        }
+    }
+
+    /**
+     * Gets the kind of the randomizer, saved so the right kind is created on load.
+     *
+     * @return The kind.
+     */
+    Kind getKind();
+
+    /**
+     * Gets the number of bytes {@link #writeState(ByteBuffer)} writes.
+     *
+     * @return The size of the state in bytes.
+     */
+    int stateBytes();
+
+    /**
+     * Writes the state of the randomizer.
+     *
+     * @param buf The buffer to write to.
+     */
+    void writeState(ByteBuffer buf);
+
+    /**
+     * Replaces the state of the randomizer with one written by {@link #writeState(ByteBuffer)}.
+     *
+     * @param buf The buffer to read from.
+     * @throws IllegalArgumentException If the state is out of range, for example read from a damaged save, the randomizer is left as it was then.
+     */
+    void readState(ByteBuffer buf);
+}
@@ -0,0 +1,396 @@
+package tetrisgame;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Plays a replay ({@link ReplayReader}) back in real time at a chosen speed, the replay counterpart of the {@link Simulation}.
+ * The player is the single writer of the game at its cursor: on every frame it works out which tick the replay should be at by now,
+ * plays the replay forward to it without waiting for gravity and publishes a snapshot ({@link GameSnapshot}) of only that tick.
+ * The ticks in between are simulated but never shown, and a renderer slower than the player only paints the latest snapshot,
+ * so playing fast costs the simulation of the ticks and never more than a paint per frame.
+ * <p>
+ * Playing, pausing, changing the speed and seeking are handed to the player thread as tasks, like the moves of a running game.
+ * Seeking backwards loads the nearest keyframe, so jumping anywhere in a replay costs at most the ticks between two keyframes.
+ * The front end listener is called on the player thread after a snapshot is published.
+ */
+public final class ReplayPlayer implements GameListener {
+    /**
+     * The slowest speed, a quarter of real time.
+     */
+    public static final double MIN_SPEED = 0.25;
+
+    /**
+     * The fastest speed, 64 times real time.
+     */
+    public static final double MAX_SPEED = 64;
+
+    /**
+     * The time between two frames in milliseconds, about the refresh rate of a display rather than the tick of the game.
+     */
+    public static final int FRAME_MILLIS = 16;
+
+    /**
+     * The longest time played back in one frame, so a late frame doesn't make the replay lurch forward.
+     */
+    private static final long MAX_FRAME_NANOS = 100_000_000L;
+
+    private final ReplayReader reader;
+    private final GameListener frontEnd;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final SnapshotBuffer snapshots;
+    private final long tickNanos;
+
+    /**
+     * The squares changed since the last snapshot, only used by the player thread.
+     */
+    private final DirtyRegion changes = new DirtyRegion();
+
+    /**
+     * The cursor of the game shown, only used by the player thread.
+     */
+    private ReplayReader.Cursor cursor;
+
+    /**
+     * Where the replay is in ticks with the fraction played since the last one, only used by the player thread.
+     */
+    private double position;
+    private long lastNanos;
+    private boolean seeked;
+
+    private volatile double speed = 1;
+    private volatile boolean playing = true;
+    private volatile long skipped;
+    private volatile ScheduledFuture<?> ticker;
+
+    /**
+     * Constructs a player of a replay from its start.
+     *
+     * @param reader The replay.
+     * @param frontEnd The listener told about published snapshots, or null.
+     * @throws IOException If reading the replay fails.
+     */
+    public ReplayPlayer(ReplayReader reader, GameListener frontEnd) throws IOException {
+        this(reader, reader.seek(0), frontEnd);
+    }
+
+    /**
+     * Constructs a player of a replay from a cursor, which takes over the listener of the game at the cursor.
+     * From now on the cursor may only be touched through the player.
+     *
+     * @param reader The replay.
+     * @param cursor The cursor to play from.
+     * @param frontEnd The listener told about published snapshots, or null.
+     */
+    public ReplayPlayer(ReplayReader reader, ReplayReader.Cursor cursor, GameListener frontEnd) {
+        this.reader = reader;
+        this.frontEnd = frontEnd;
+        this.tickNanos = reader.getTickMillis() * 1_000_000L;
+        this.cursor = cursor;
+        this.position = cursor.getTick();
+        this.snapshots = new SnapshotBuffer(cursor.getGame());
+        cursor.getGame().setListener(this);
+    }
+
+    /**
+     * Starts playing the replay back, publishing a snapshot every frame.
+     *
+     * @param scheduler The scheduler running the player.
+     * @param frameMillis The time between two frames in milliseconds.
+     */
+    public synchronized void start(GameScheduler scheduler, long frameMillis) {
+        if (ticker == null || ticker.isDone()) {
+            lastNanos = System.nanoTime();
+            ticker = scheduler.schedule(this::tick, frameMillis);
+        }
+    }
+
+    /**
+     * Stops the player, a frame already running is finished.
+     */
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.cancel(false);
+        }
+    }
+
+    /**
+     * Checks whether the player is ticking.
+     *
+     * @return True if it was started and not stopped.
+     */
+    public boolean isRunning() {
+        ScheduledFuture<?> t = ticker;
+        return t != null && !t.isDone();
+    }
+
+    /**
+     * Runs a task on the player thread at the start of the next frame.
+     * If the player isn't running the task is run right away on the calling thread.
+     *
+     * @param task The task.
+     * @return The future of the task, done once it has run.
+     */
+    public Future<?> submit(Runnable task) {
+        FutureTask<Void> future = new FutureTask<>(task, null);
+        if (isRunning()) {
+            tasks.add(future);
+        } else {
+            future.run();
+        }
+        return future;
+    }
+
+    /**
+     * Goes on playing the replay, from the start if it is at its end.
+     *
+     * @return The future of the task.
+     */
+    public Future<?> play() {
+        return submit(() -> {
+            if (cursor.isAtEnd()) {
+                seekNow(0);
+            }
+            playing = true;
+        });
+    }
+
+    /**
+     * Stops the replay at the tick it is at.
+     */
+    public void pause() {
+        playing = false;
+    }
+
+    /**
+     * Checks whether the replay is being played, not paused or at its end.
+     *
+     * @return True if it is playing.
+     */
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    /**
+     * Sets how much faster than real time the replay is played.
+     *
+     * @param speed The speed, kept between {@link #MIN_SPEED} and {@link #MAX_SPEED}.
+     */
+    public void setSpeed(double speed) {
+        this.speed = Math.max(MIN_SPEED, Math.min(MAX_SPEED, speed));
+    }
+
+    /**
+     * Getter for the speed of the replay
+     * @return The speed, 1 is real time.
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Plays the replay twice as fast, up to {@link #MAX_SPEED}.
+     */
+    public void faster() {
+        setSpeed(speed * 2);
+    }
+
+    /**
+     * Plays the replay half as fast, down to {@link #MIN_SPEED}.
+     */
+    public void slower() {
+        setSpeed(speed / 2);
+    }
+
+    /**
+     * Jumps to a tick of the replay.
+     *
+     * @param tick The tick, clamped to the replay.
+     * @return The future of the jump, done once the cursor is there, its snapshot is published at the end of the frame.
+     */
+    public Future<?> seek(long tick) {
+        return submit(() -> seekNow(tick));
+    }
+
+    /**
+     * Jumps forward or backward from the tick shown.
+     *
+     * @param ticks The number of ticks to jump, negative to go back.
+     * @return The future of the jump, done once the cursor is there, its snapshot is published at the end of the frame.
+     */
+    public Future<?> skip(long ticks) {
+        return submit(() -> seekNow(cursor.getTick() + ticks));
+    }
+
+    /**
+     * Jumps to the tick a Tetromino starts falling ({@link ReplayReader#seekPiece(long)}).
+     *
+     * @param piece The number of the piece, from 1.
+     * @return The future of the jump, done once the cursor is there, its snapshot is published at the end of the frame.
+     */
+    public Future<?> seekPiece(long piece) {
+        return submit(() -> {
+            try {
+                show(reader.seekPiece(piece));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Getter for the number of ticks played but never published, because they came between two frames
+     * @return The number of skipped ticks.
+     */
+    public long getSkippedTicks() {
+        return skipped;
+    }
+
+    /**
+     * Getter for the replay played
+     * @return The reader of the replay.
+     */
+    public ReplayReader getReader() {
+        return reader;
+    }
+
+    /**
+     * Gets the latest published snapshot, called from the renderer thread only.
+     *
+     * @return The latest snapshot.
+     */
+    public GameSnapshot latest() {
+        return snapshots.latest();
+    }
+
+    /**
+     * Getter for the snapshots published by the player, read by the renderer
+     * @return The snapshot buffer.
+     */
+    public SnapshotBuffer getSnapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Getter for the game at the cursor, it may only be touched from submitted tasks while the player is running
+     * @return The game shown.
+     */
+    public TetrisGame getGame() {
+        return cursor.getGame();
+    }
+
+    /**
+     * Getter for the tick shown, it may only be read from submitted tasks while the player is running
+     * @return The tick of the cursor.
+     */
+    public long getTick() {
+        return cursor.getTick();
+    }
+
+    @Override
+    public void boardChanged(DirtyRegion changed) {
+        changes.add(changed);
+    }
+
+    /**
+     * One frame of the player, run by the scheduler.
+     */
+    void tick() {
+        tick(System.nanoTime());
+    }
+
+    /**
+     * One frame of the player at a given time: runs the submitted tasks, plays the replay forward to where it should be by now
+     * and publishes a snapshot if anything changed.
+     *
+     * @param nanos The time of the frame, from {@link System#nanoTime()}.
+     */
+    void tick(long nanos) {
+        for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+            task.run();
+        }
+        long elapsed = Math.min(nanos - lastNanos, MAX_FRAME_NANOS);
+        lastNanos = nanos;
+        long from = cursor.getTick();
+        if (playing && elapsed > 0) {
+            position += elapsed * speed / tickNanos;
+            try {
+                cursor.advanceTo((long) position);
+            } catch (IOException e) {
+                e.printStackTrace();
+                playing = false; // the replay is shown as far as it could be read
+            }
+            if (cursor.isAtEnd()) {
+                playing = false;
+            }
+        }
+        long played = cursor.getTick() - from;
+        if (played > 1) {
+            skipped += played - 1;
+        }
+        if (played > 0 || seeked || !changes.isEmpty() || cursor.getGame().isUpdated()) {
+            publish();
+        }
+    }
+
+    /**
+     * Moves the cursor to a tick, on the player thread.
+     *
+     * @param tick The tick.
+     */
+    private void seekNow(long tick) {
+        try {
+            show(reader.seek(tick));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Shows the game at another cursor from now on, on the player thread.
+     * The whole board is published again, the new game has nothing in common with the old one.
+     *
+     * @param next The cursor.
+     */
+    private void show(ReplayReader.Cursor next) {
+        cursor.getGame().setListener(null);
+        cursor = next;
+        position = next.getTick();
+        next.getGame().setListener(this);
+        snapshots.staleAll(next.getGame().getBoard());
+        BitBoard board = next.getGame().getBoard();
+        changes.markRows(0, board.getHeight() - 1, board.getWidth());
+        seeked = true;
+    }
+
+    /**
+     * Publishes a snapshot of the game at the cursor and tells the front end.
+     */
+    private void publish() {
+        TetrisGame game = cursor.getGame();
+        int hud = snapshots.publish(game, changes, 0);
+        boolean stateChanged = game.isUpdated() || seeked;
+        game.update();
+        seeked = false;
+        if (frontEnd != null) {
+            if (!changes.isEmpty()) {
+                frontEnd.boardChanged(changes);
+            }
+            if ((hud & SnapshotBuffer.SCORE_CHANGED) != 0) {
+                frontEnd.scoreChanged(snapshots.getScore());
+            }
+            if ((hud & SnapshotBuffer.PREVIEW_CHANGED) != 0) {
+                frontEnd.previewChanged();
+            }
+            if (stateChanged) {
+                frontEnd.stateChanged();
+            }
+        }
+        changes.reset();
+    }
+}
@@ -0,0 +1,455 @@
+package tetrisgame;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a replay written by a {@link ReplayRecorder} and plays it back from any tick.
+ * Opening a replay only reads the headers of its chunks, seeking loads the keyframe before the tick
+ * and plays the actions from there, so it costs as much as the distance from the nearest keyframe, never the whole game.
+ * A replay cut short by a crash, or damaged, is read up to its last complete chunk.
+ * Replays also know how many Tetrominos were locked before each keyframe, so jumping to a piece ({@link #seekPiece(long)}) costs the same as seeking a tick.
+ */
+public final class ReplayReader implements Closeable {
+    /**
+     * The most a chunk can grow when inflated, deflate can't compress by more than 1032 to 1.
+     * A chunk header asking for more is damaged, so a bad length can't make the reader allocate gigabytes.
+     */
+    static final long MAX_INFLATION = 1032;
+
+    private final SeekableByteChannel in;
+    private final int width;
+    private final int height;
+    private final int tickMillis;
+    private final int chunks;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] pieces;
+    private final long[] offsets;
+    private final int[] rawLengths;
+    private final int[] packedLengths;
+
+    /**
+     * Opens a replay and indexes its chunks.
+     *
+     * @param in The channel to read from, closed with the reader.
+     * @throws IOException If reading fails, or the data is not a replay or was written by a newer version.
+     */
+    public ReplayReader(SeekableByteChannel in) throws IOException {
+        this.in = in;
+        ByteBuffer header = read(0, ReplayRecorder.HEADER_BYTES);
+        if (header == null || header.getInt() != ReplayRecorder.MAGIC) {
+            throw new IOException("Not a Tetris replay");
+        }
+        short version = header.getShort();
+        if (version < 1 || version > ReplayRecorder.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        this.width = header.getShort();
+        this.height = header.getShort();
+        this.tickMillis = header.getInt();
+
+        long[] s = new long[16];
+        long[] e = new long[16];
+        long[] c = new long[16];
+        long[] o = new long[16];
+        int[] r = new int[16];
+        int[] p = new int[16];
+        int n = 0;
+        long size = in.size();
+        long at = ReplayRecorder.HEADER_BYTES;
+        int headerBytes = (version == 1) ? ReplayRecorder.V1_CHUNK_HEADER_BYTES : ReplayRecorder.CHUNK_HEADER_BYTES;
+        while (true) {
+            ByteBuffer chunk = read(at, headerBytes);
+            if (chunk == null || chunk.get() != ReplayRecorder.CHUNK) {
+                break;
+            }
+            long start = chunk.getLong();
+            long end = chunk.getLong();
+            long locked = (version == 1) ? (n == 0 ? 0 : -1) : chunk.getLong(); // version 1 only knows there were none at the start
+            int rawLength = chunk.getInt();
+            int packedLength = chunk.getInt();
+            long body = at + headerBytes;
+            if (packedLength < 0 || rawLength < 0 || body + packedLength > size || end < start) {
+                break; // torn by a crash
+            }
+            if (rawLength > packedLength * MAX_INFLATION) {
+                break; // damaged, it can't inflate to that length
+            }
+            if (n == s.length) {
+                s = Arrays.copyOf(s, n * 2);
+                e = Arrays.copyOf(e, n * 2);
+                c = Arrays.copyOf(c, n * 2);
+                o = Arrays.copyOf(o, n * 2);
+                r = Arrays.copyOf(r, n * 2);
+                p = Arrays.copyOf(p, n * 2);
+            }
+            s[n] = start;
+            e[n] = end;
+            c[n] = locked;
+            o[n] = body;
+            r[n] = rawLength;
+            p[n] = packedLength;
+            n++;
+            at = body + packedLength;
+        }
+        if (n == 0) {
+            throw new IOException("Replay has no complete chunk");
+        }
+        this.chunks = n;
+        this.starts = s;
+        this.ends = e;
+        this.pieces = c;
+        this.offsets = o;
+        this.rawLengths = r;
+        this.packedLengths = p;
+    }
+
+    /**
+     * Getter for the width of the board
+     * @return The width in squares.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter for the height of the board
+     * @return The height in squares.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Getter for the length of a tick of the recorded game
+     * @return The length in milliseconds.
+     */
+    public int getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Getter for the last tick of the replay
+     * @return The number of ticks recorded.
+     */
+    public long getEndTick() {
+        return ends[chunks - 1];
+    }
+
+    /**
+     * Getter for the number of keyframes
+     * @return The number of chunks.
+     */
+    public int getKeyframeCount() {
+        return chunks;
+    }
+
+    /**
+     * Getter for the tick of a keyframe
+     * @param i The index of the keyframe.
+     * @return The tick the keyframe shows the game at.
+     */
+    public long getKeyframeTick(int i) {
+        return starts[i];
+    }
+
+    /**
+     * Getter for the number of Tetrominos locked before a keyframe
+     * @param i The index of the keyframe.
+     * @return The number of locked Tetrominos, -1 if the replay doesn't know it.
+     */
+    public long getKeyframePieces(int i) {
+        return pieces[i];
+    }
+
+    /**
+     * Plays the replay back to a tick: loads the nearest keyframe before it and plays the actions from there.
+     *
+     * @param tick The tick, clamped to the replay.
+     * @return A cursor at the tick, holding a game in the state it was at.
+     * @throws IOException If reading fails or the replay is damaged.
+     */
+    public Cursor seek(long tick) throws IOException {
+        tick = Math.max(0, Math.min(tick, getEndTick()));
+        int lo = 0;
+        int hi = chunks - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (starts[mid] <= tick) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        Cursor cursor = new Cursor(lo);
+        cursor.advanceTo(tick);
+        return cursor;
+    }
+
+    /**
+     * Plays the replay back to the tick a Tetromino starts falling: loads the last keyframe before it and plays the actions from there.
+     * Pieces are numbered from 1, the piece n falls once n - 1 Tetrominos are locked.
+     *
+     * @param piece The number of the piece.
+     * @return A cursor at the first tick the piece is falling, or at the end of the replay if it never falls.
+     * @throws IOException If reading fails or the replay is damaged.
+     */
+    public Cursor seekPiece(long piece) throws IOException {
+        long locked = Math.max(0, piece - 1);
+        int i = chunks - 1;
+        while (i > 0 && (pieces[i] < 0 || pieces[i] >= locked)) {
+            i--; // the piece may already be falling at a keyframe with as many locked, so its spawn is in an earlier chunk
+        }
+        Cursor cursor = new Cursor(i);
+        cursor.advanceToPiece(piece);
+        return cursor;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Reads a part of the replay.
+     *
+     * @param position The offset in the replay.
+     * @param length The number of bytes.
+     * @return A buffer holding the bytes, or null if the replay ends first.
+     * @throws IOException If reading fails.
+     */
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        in.position(position);
+        while (buf.hasRemaining()) {
+            if (in.read(buf) < 0) {
+                return null;
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * Reads and inflates a chunk.
+     *
+     * @param i The index of the chunk.
+     * @return The raw chunk.
+     * @throws IOException If reading fails or the chunk is damaged.
+     */
+    private byte[] inflate(int i) throws IOException {
+        ByteBuffer packed = read(offsets[i], packedLengths[i]);
+        if (packed == null) {
+            throw new EOFException("Replay ends early");
+        }
+        byte[] raw = new byte[rawLengths[i]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(packed.array(), 0, packedLengths[i]);
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int n = inflater.inflate(raw, length, raw.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != raw.length) {
+                throw new IOException("Damaged replay chunk " + i);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Damaged replay chunk " + i, e);
+        } finally {
+            inflater.end();
+        }
+        return raw;
+    }
+
+    /**
+     * A position in a replay with the game as it was there, which can only move forward.
+     * Moving forward plays the actions and ticks of the game, going on into the following chunks as needed.
+     */
+    public final class Cursor {
+        private final TetrisGame game;
+        private long tick;
+        private int chunk;
+        private byte[] raw;
+        private int position;
+        private long lastAction;
+        private long nextTick = -1;
+        private int nextAction;
+
+        /**
+         * Creates a cursor at the keyframe of a chunk.
+         *
+         * @param chunk The index of the chunk.
+         * @throws IOException If reading fails or the chunk is damaged.
+         */
+        private Cursor(int chunk) throws IOException {
+            this.chunk = chunk;
+            this.raw = inflate(chunk);
+            ByteBuffer buf = ByteBuffer.wrap(raw);
+            boolean paused = (buf.get() & 1) != 0;
+            int length = buf.getInt();
+            this.game = SaveFormat.read(Channels.newChannel(new ByteArrayInputStream(raw, buf.position(), length)));
+            if (paused) {
+                game.pause();
+            }
+            if (pieces[chunk] >= 0) {
+                game.setPieces(pieces[chunk]);
+            }
+            this.tick = starts[chunk];
+            this.lastAction = tick;
+            this.position = buf.position() + length;
+            readAction();
+        }
+
+        /**
+         * Getter for the game at the cursor, it must only be changed by the cursor
+         * @return The game.
+         */
+        public TetrisGame getGame() {
+            return game;
+        }
+
+        /**
+         * Getter for the tick of the cursor
+         * @return The tick.
+         */
+        public long getTick() {
+            return tick;
+        }
+
+        /**
+         * Checks whether the cursor has reached the end of the replay.
+         *
+         * @return True if there is nothing more to play.
+         */
+        public boolean isAtEnd() {
+            return tick >= getEndTick();
+        }
+
+        /**
+         * Plays the replay forward to a tick, applying the actions of every tick before running the next one.
+         * A tick before the cursor or after the end of the replay is clamped.
+         *
+         * @param target The tick.
+         * @throws IOException If reading fails or a chunk is damaged.
+         */
+        public void advanceTo(long target) throws IOException {
+            advance(target, 0);
+        }
+
+        /**
+         * Plays the replay forward to the first tick a Tetromino is falling, see {@link ReplayReader#seekPiece(long)}.
+         * If the piece already fell the cursor stays where it is.
+         *
+         * @param piece The number of the piece, from 1.
+         * @throws IOException If reading fails or a chunk is damaged.
+         */
+        public void advanceToPiece(long piece) throws IOException {
+            advance(getEndTick(), Math.max(1, piece));
+        }
+
+        /**
+         * Plays the replay forward until a tick or until a piece is falling, whichever comes first.
+         *
+         * @param target The tick.
+         * @param piece The number of the piece, 0 to only stop at the tick.
+         * @throws IOException If reading fails or a chunk is damaged.
+         */
+        private void advance(long target, long piece) throws IOException {
+            target = Math.min(target, getEndTick());
+            while (true) {
+                if (nextTick >= 0 && nextTick <= tick) {
+                    apply(nextAction);
+                    readAction();
+                    continue;
+                }
+                if (tick >= target || (piece > 0 && game.getPieces() >= piece - 1 && game.getCurrTetro().getActive())) {
+                    return;
+                }
+                game.step();
+                tick++;
+            }
+        }
+
+        /**
+         * Applies an action to the game.
+         *
+         * @param action The action.
+         */
+        private void apply(int action) {
+            switch (action) {
+                case ReplayRecorder.LEFT:
+                    game.moveLeft();
+                    break;
+                case ReplayRecorder.RIGHT:
+                    game.moveRight();
+                    break;
+                case ReplayRecorder.DOWN:
+                    game.moveDown();
+                    break;
+                case ReplayRecorder.ROTATE:
+                    game.rotate();
+                    break;
+                case ReplayRecorder.DROP:
+                    game.pushDown();
+                    break;
+                case ReplayRecorder.PAUSE:
+                    game.pause();
+                    break;
+                case ReplayRecorder.RESUME:
+                    game.resume();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /**
+         * Reads the next action, from the following chunk once this one has none left.
+         * The keyframe of the following chunk is skipped, the game already is where it shows.
+         *
+         * @throws IOException If reading fails or the chunk is damaged.
+         */
+        private void readAction() throws IOException {
+            while (position >= raw.length) {
+                if (chunk + 1 >= chunks) {
+                    nextTick = -1;
+                    return;
+                }
+                chunk++;
+                raw = inflate(chunk);
+                ByteBuffer buf = ByteBuffer.wrap(raw);
+                buf.get();
+                int length = buf.getInt();
+                position = buf.position() + length;
+                lastAction = starts[chunk];
+            }
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (position >= raw.length || shift > 63) {
+                    throw new IOException("Damaged replay chunk " + chunk);
+                }
+                b = raw[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            nextTick = lastAction + (value >>> ReplayRecorder.ACTION_BITS);
+            nextAction = (int) (value & ReplayRecorder.ACTION_MASK);
+            lastAction = nextTick;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package tetrisgame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Records a game ({@link TetrisGame}) as a compact replay while it runs, read back with a {@link ReplayReader}.
+ * The game tells the recorder about every tick and every action of the player (the moves of {@link PieceControls}, pausing and resuming),
+ * which is all it takes to play the game again, as the Tetrominos come from the randomizer stored in the keyframes.
+ * <p>
+ * The replay is a series of chunks, each starting with a keyframe of the whole game in the save format ({@link SaveFormat})
+ * followed by the actions up to the next keyframe, so seeking only replays the ticks since the nearest keyframe.
+ * A chunk is deflated and written once the next keyframe is due, so a replay grows by a few hundred bytes every {@link #DEFAULT_KEYFRAME_TICKS} ticks
+ * and a crash loses at most the ticks since the last keyframe.
+ * <p>
+ * Layout of version 2, big endian:
+ * <pre>
+ * int   magic "TTRP"
+ * short version
+ * short width, short height      of the board in squares
+ * int   tick length              in milliseconds
+ * chunks                         byte 'C', long first tick, long end tick, long locked Tetrominos at the first tick,
+ *                                int raw length, int deflated length, deflated bytes
+ * raw chunk                      byte flags (bit 0: paused), int keyframe length, keyframe in the save format, actions
+ * action                         unsigned varint (ticks since the last action &lt;&lt; 3 | action)
+ * </pre>
+ * Ticks are counted from the start of the recording, an action is numbered by the ticks run before it was made.
+ * The keyframe of a chunk is the game after as many ticks as its first tick, the actions numbered with it included,
+ * so playing back means applying the actions of a tick, then running the next tick.
+ * The number of Tetrominos locked before a keyframe ({@link TetrisGame#getPieces()}) isn't part of the save format, so it is kept in the chunk header,
+ * which lets a reader jump to a piece without playing the game from the start. Version 1 didn't have it.
+ * The recorder is used by the thread running the game only, recording an action doesn't allocate.
+ */
+public final class ReplayRecorder implements Closeable {
+    /**
+     * The first four bytes of every replay, "TTRP".
+     */
+    public static final int MAGIC = 0x54545250;
+
+    /**
+     * The version written by this class, older versions are still read.
+     */
+    public static final short VERSION = 2;
+
+    /**
+     * The number of ticks between two keyframes, 10 seconds of play.
+     */
+    public static final int DEFAULT_KEYFRAME_TICKS = 1000;
+
+    /**
+     * The actions, the moves have the codes of the commands of the {@link InputController}.
+     */
+    public static final int LEFT = InputController.LEFT;
+    public static final int RIGHT = InputController.RIGHT;
+    public static final int DOWN = InputController.DOWN;
+    public static final int ROTATE = InputController.ROTATE;
+    public static final int DROP = InputController.DROP;
+    public static final int PAUSE = 5;
+    public static final int RESUME = 6;
+
+    static final int ACTION_BITS = 3;
+    static final int ACTION_MASK = (1 << ACTION_BITS) - 1;
+    static final byte CHUNK = 'C';
+    static final int HEADER_BYTES = 4 + 2 + 2 + 2 + 4;
+    static final int CHUNK_HEADER_BYTES = 1 + 8 + 8 + 8 + 4 + 4;
+    static final int V1_CHUNK_HEADER_BYTES = 1 + 8 + 8 + 4 + 4;
+
+    private final WritableByteChannel out;
+    private final int keyframeTicks;
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    private byte[] raw = new byte[4096];
+    private int rawLength;
+    private byte[] packed = new byte[1024];
+    private long tick;
+    private long chunkStart;
+    private long chunkPieces;
+    private long lastAction;
+    private boolean stopped;
+
+    /**
+     * Starts recording a game, writing the header and the first keyframe right away.
+     * The recorder still has to be set on the game ({@link TetrisGame#setRecorder(ReplayRecorder)}).
+     *
+     * @param out The channel the replay is written to, closed with the recorder.
+     * @param game The game.
+     * @throws IOException If writing the header fails.
+     */
+    public ReplayRecorder(WritableByteChannel out, TetrisGame game) throws IOException {
+        this(out, game, DEFAULT_KEYFRAME_TICKS);
+    }
+
+    /**
+     * Starts recording a game with a given distance between keyframes.
+     *
+     * @param out The channel the replay is written to, closed with the recorder.
+     * @param game The game.
+     * @param keyframeTicks The number of ticks between two keyframes.
+     * @throws IOException If writing the header fails, the channel is left open for the caller to close then.
+     */
+    ReplayRecorder(WritableByteChannel out, TetrisGame game, int keyframeTicks) throws IOException {
+        this.out = out;
+        this.keyframeTicks = keyframeTicks;
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC);
+            header.putShort(VERSION);
+            header.putShort((short) game.getBoard().getWidth());
+            header.putShort((short) game.getBoard().getHeight());
+            header.putInt(TetrisGame.FRAME_MILLIS);
+            header.flip();
+            writeFully(header);
+            startChunk(game);
+        } catch (IOException | RuntimeException e) {
+            deflater.end(); // nobody can close a recorder that was never made
+            throw e;
+        }
+    }
+
+    /**
+     * Records an action of the player, made after the current tick.
+     *
+     * @param action The action.
+     */
+    public void action(int action) {
+        if (stopped) {
+            return;
+        }
+        long delta = tick - lastAction;
+        lastAction = tick;
+        putVarint((delta << ACTION_BITS) | action);
+    }
+
+    /**
+     * Records a tick, called by the game at the start of every tick.
+     * Writes the chunk and starts the next one when a keyframe is due, so every keyframe shows the game between two ticks.
+     *
+     * @param game The game.
+     */
+    public void beforeStep(TetrisGame game) {
+        if (stopped) {
+            return;
+        }
+        if (tick - chunkStart >= keyframeTicks) {
+            try {
+                writeChunk();
+                startChunk(game);
+            } catch (IOException e) {
+                e.printStackTrace();
+                stopped = true; // the replay so far stays readable
+            }
+        }
+        tick++;
+    }
+
+    /**
+     * Getter for the number of ticks recorded
+     * @return The number of ticks.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Writes the last chunk and closes the channel.
+     *
+     * @throws IOException If writing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!stopped) {
+                stopped = true;
+                writeChunk();
+            }
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    /**
+     * Starts a chunk with a keyframe of the game.
+     *
+     * @param game The game.
+     * @throws IOException If the game can't be encoded.
+     */
+    private void startChunk(TetrisGame game) throws IOException {
+        ByteArrayOutputStream keyframe = new ByteArrayOutputStream();
+        SaveFormat.write(game, Channels.newChannel(keyframe));
+        chunkStart = tick;
+        chunkPieces = game.getPieces();
+        lastAction = tick;
+        rawLength = 0;
+        ensure(1 + 4 + keyframe.size());
+        raw[rawLength++] = (byte) (game.isPaused() ? 1 : 0);
+        ByteBuffer.wrap(raw, rawLength, 4).putInt(keyframe.size());
+        rawLength += 4;
+        System.arraycopy(keyframe.toByteArray(), 0, raw, rawLength, keyframe.size());
+        rawLength += keyframe.size();
+    }
+
+    /**
+     * Deflates the current chunk and writes it.
+     *
+     * @throws IOException If writing fails.
+     */
+    private void writeChunk() throws IOException {
+        deflater.reset();
+        deflater.setInput(raw, 0, rawLength);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == packed.length) {
+                packed = Arrays.copyOf(packed, packed.length * 2);
+            }
+            length += deflater.deflate(packed, length, packed.length - length);
+        }
+        ByteBuffer header = ByteBuffer.allocate(CHUNK_HEADER_BYTES);
+        header.put(CHUNK);
+        header.putLong(chunkStart);
+        header.putLong(tick);
+        header.putLong(chunkPieces);
+        header.putInt(rawLength);
+        header.putInt(length);
+        header.flip();
+        writeFully(header);
+        writeFully(ByteBuffer.wrap(packed, 0, length));
+    }
+
+    /**
+     * Appends an unsigned varint to the current chunk, seven bits a byte, lowest first.
+     *
+     * @param value The value.
+     */
+    private void putVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            raw[rawLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        raw[rawLength++] = (byte) value;
+    }
+
+    /**
+     * Makes room for more bytes in the current chunk.
+     *
+     * @param more The number of bytes to make room for.
+     */
+    private void ensure(int more) {
+        if (rawLength + more > raw.length) {
+            raw = Arrays.copyOf(raw, Math.max(raw.length * 2, rawLength + more));
+        }
+    }
+
+    private void writeFully(ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+    }
+}
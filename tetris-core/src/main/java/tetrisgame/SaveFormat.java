@@ -0,0 +1,297 @@
+package tetrisgame;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The binary format of saved games, read and written over NIO channels.
+ * Only the state of the game is stored, so a save is a bit over a hundred bytes for a classic board
+ * and doesn't depend on how the classes of the game look like, unlike Java serialization.
+ *
+ * Layout of version 2, big endian:
+ * <pre>
+ * int   magic "TTRS"
+ * short version
+ * short width, short height      of the board in squares
+ * int   score
+ * byte  flags                    bit 0: game on
+ * int   gravity counter
+ * piece current, piece next      byte type, byte rotation, short x, short y, byte active
+ * byte  randomizer kind          ordinal of {@link Randomizer.Kind}
+ * short randomizer state length
+ * bytes randomizer state         as written by {@link Randomizer#writeState(ByteBuffer)}
+ * rows                           (width + 7) / 8 bytes per row from the top, bit x is column x, lowest byte first
+ * colors                         4 bit color code of every locked square in row order, two per byte
+ * </pre>
+ * Version 1 had no randomizer kind, just the long state of a {@link PureRandomizer} right after the gravity counter.
+ */
+public final class SaveFormat {
+    /**
+     * The first four bytes of every save, "TTRS".
+     */
+    public static final int MAGIC = 0x54545253;
+
+    /**
+     * The version written by this class, older versions are still read.
+     */
+    public static final short VERSION = 2;
+
+    private static final int PIECE_BYTES = 7;
+    private static final int PREFIX_BYTES = 4 + 2;
+    private static final int STATE_BYTES = 2 + 2 + 4 + 1 + 4;
+    private static final int HEADER_BYTES = PREFIX_BYTES + STATE_BYTES + 2 * PIECE_BYTES + 1 + 2;
+
+    private SaveFormat() {
+    }
+
+    /**
+     * Writes a game to a channel.
+     * The whole save is encoded into one buffer, so the channel sees a single write for most saves.
+     *
+     * @param game The game to save.
+     * @param out The channel to write to, it is not closed.
+     * @throws IOException If writing to the channel fails.
+     */
+    public static void write(TetrisGame game, WritableByteChannel out) throws IOException {
+        BitBoard board = game.getBoard();
+        int width = board.getWidth();
+        int height = board.getHeight();
+        int rowBytes = (width + 7) / 8;
+        int squares = 0;
+        for (int y = 0; y < height; y++) {
+            squares += board.getFill(y);
+        }
+        Randomizer randomizer = game.getRandomizer();
+        int randomizerBytes = randomizer.stateBytes();
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + randomizerBytes + height * rowBytes + (squares + 1) / 2);
+        buf.putInt(MAGIC);
+        buf.putShort(VERSION);
+        buf.putShort((short) width);
+        buf.putShort((short) height);
+        buf.putInt(game.getScore());
+        buf.put((byte) (game.isGameOn() ? 1 : 0));
+        buf.putInt(game.getGravityCounter());
+        putPiece(buf, game.getCurrTetro());
+        putPiece(buf, game.getNextTetro());
+        buf.put((byte) randomizer.getKind().ordinal());
+        buf.putShort((short) randomizerBytes);
+        randomizer.writeState(buf);
+        for (int y = 0; y < height; y++) {
+            for (int i = 0; i < rowBytes; i++) {
+                buf.put((byte) (board.getRowWord(y, i >>> 3) >>> (8 * (i & 7))));
+            }
+        }
+        int pending = -1;
+        for (int y = 0; y < height; y++) {
+            if (board.getFill(y) == 0) {
+                continue;
+            }
+            for (int w = 0; w < board.getWords(); w++) {
+                long row = board.getRowWord(y, w);
+                while (row != 0) {
+                    int code = board.getColor(w * Long.SIZE + Long.numberOfTrailingZeros(row), y) & 0xF;
+                    row &= row - 1;
+                    if (pending < 0) {
+                        pending = code;
+                    } else {
+                        buf.put((byte) ((pending << 4) | code));
+                        pending = -1;
+                    }
+                }
+            }
+        }
+        if (pending >= 0) {
+            buf.put((byte) (pending << 4));
+        }
+        buf.flip();
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+    }
+
+    /**
+     * Reads a game from a channel.
+     * The header is read first, the rest is read once the size of the randomizer state and the board is known.
+     * The transient state of the loaded game is fresh, it is not paused and has no listener.
+     *
+     * @param in The channel to read from, it is not closed.
+     * @return The loaded game.
+     * @throws IOException If reading fails, the data is not a save, it was written by a newer version, or a piece, a color or the randomizer state is out of range.
+     */
+    public static TetrisGame read(ReadableByteChannel in) throws IOException {
+        ByteBuffer prefix = readFully(in, PREFIX_BYTES);
+        if (prefix.getInt() != MAGIC) {
+            throw new IOException("Not a Tetris save");
+        }
+        short version = prefix.getShort();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported save version " + version);
+        }
+        ByteBuffer header = readFully(in, (version == 1) ? STATE_BYTES + Long.BYTES + 2 * PIECE_BYTES : HEADER_BYTES - PREFIX_BYTES);
+        int width = header.getShort();
+        int height = header.getShort();
+        if (width < 1 || width > BitBoard.MAX_WIDTH || height < 1 || height > BitBoard.MAX_HEIGHT) {
+            throw new IOException("Invalid board size " + width + "x" + height);
+        }
+        int score = header.getInt();
+        boolean gameOn = (header.get() & 1) != 0;
+        int gravityCounter = header.getInt();
+        long legacyState = (version == 1) ? header.getLong() : 0;
+        int pieces = header.position(); // the pieces need the game, which needs the randomizer stored after them
+        header.position(pieces + 2 * PIECE_BYTES);
+        Randomizer randomizer;
+        if (version == 1) {
+            PureRandomizer pure = new PureRandomizer(0);
+            pure.setRawState(legacyState);
+            randomizer = pure;
+        } else {
+            int kind = header.get();
+            int length = header.getShort();
+            Randomizer.Kind[] kinds = Randomizer.Kind.values();
+            if (kind < 0 || kind >= kinds.length) {
+                throw new IOException("Unknown randomizer kind " + kind);
+            }
+            randomizer = kinds[kind].create(0);
+            if (length != randomizer.stateBytes()) {
+                throw new IOException("Invalid randomizer state length " + length);
+            }
+            try {
+                randomizer.readState(readFully(in, length));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid randomizer state: " + e.getMessage(), e);
+            }
+        }
+
+        BitBoard board = new BitBoard(width, height);
+        TetrisGame game = new TetrisGame(board, randomizer);
+        header.position(pieces);
+        game.setCurrTetro(getPiece(header, game));
+        game.setNextTetro(getPiece(header, game));
+        game.restore(score, gameOn, gravityCounter);
+
+        int rowBytes = (width + 7) / 8;
+        int words = board.getWords();
+        ByteBuffer rowBuf = readFully(in, height * rowBytes);
+        long[] rows = new long[height * words];
+        int squares = 0;
+        int tail = width % Long.SIZE;
+        long lastMask = (tail == 0) ? -1L : (1L << tail) - 1;
+        for (int y = 0; y < height; y++) {
+            for (int i = 0; i < rowBytes; i++) {
+                rows[y * words + (i >>> 3)] |= (rowBuf.get() & 0xFFL) << (8 * (i & 7));
+            }
+            rows[y * words + words - 1] &= lastMask;
+            for (int w = 0; w < words; w++) {
+                squares += Long.bitCount(rows[y * words + w]);
+            }
+        }
+        ByteBuffer colorBuf = readFully(in, (squares + 1) / 2);
+        int index = 0;
+        int packed = 0;
+        for (int y = 0; y < height; y++) {
+            for (int w = 0; w < words; w++) {
+                long row = rows[y * words + w];
+                while (row != 0) {
+                    int x = w * Long.SIZE + Long.numberOfTrailingZeros(row);
+                    row &= row - 1;
+                    int code;
+                    if ((index++ & 1) == 0) {
+                        packed = colorBuf.get();
+                        code = (packed >>> 4) & 0xF;
+                    } else {
+                        code = packed & 0xF;
+                    }
+                    if (code < 1 || code > TetrisUtils.SHAPE_COUNT) {
+                        throw new IOException("Invalid color code " + code + " at " + x + "," + y);
+                    }
+                    board.set(x, y, (byte) code);
+                }
+            }
+        }
+        checkPiece(game.getCurrTetro(), board);
+        checkPiece(game.getNextTetro(), board);
+        return game;
+    }
+
+    /**
+     * Checks that a loaded Tetromino is inside the board, and for a falling one that it is on free squares,
+     * so a damaged save fails here rather than in a later move or paint.
+     * A Tetromino waiting to spawn may overlap the stack, that is how a game is lost.
+     *
+     * @param t The Tetromino.
+     * @param board The loaded board.
+     * @throws IOException If the Tetromino can't be where the save puts it.
+     */
+    private static void checkPiece(Tetromino t, BitBoard board) throws IOException {
+        ShapeTable.Orientation o = t.getShape().getOrientation();
+        int x = t.getTopleft().getX();
+        int y = t.getTopleft().getY();
+        boolean inside = board.inBounds(x + o.getMinX(), y + o.getMinY()) && board.inBounds(x + o.getMaxX(), y + o.getMaxY());
+        if (!inside || (t.getActive() && !board.fits(o, x, y))) {
+            throw new IOException("Invalid Tetromino position " + x + "," + y);
+        }
+    }
+
+    /**
+     * Writes a Tetromino.
+     *
+     * @param buf The buffer to write to.
+     * @param t The Tetromino.
+     */
+    private static void putPiece(ByteBuffer buf, Tetromino t) {
+        buf.put((byte) t.getShape().getType());
+        buf.put((byte) t.getShape().getRotation());
+        buf.putShort((short) t.getTopleft().getX());
+        buf.putShort((short) t.getTopleft().getY());
+        buf.put((byte) (t.getActive() ? 1 : 0));
+    }
+
+    /**
+     * Reads a Tetromino.
+     *
+     * @param buf The buffer to read from.
+     * @param game The game the Tetromino is in.
+     * @return The Tetromino.
+     * @throws IOException If the shape type or the rotation is invalid.
+     */
+    private static Tetromino getPiece(ByteBuffer buf, TetrisGame game) throws IOException {
+        int type = buf.get();
+        int rotation = buf.get();
+        int x = buf.getShort();
+        int y = buf.getShort();
+        boolean active = buf.get() != 0;
+        if (type < 0 || type >= TetrisUtils.SHAPE_COUNT) {
+            throw new IOException("Invalid shape type " + type);
+        }
+        if (rotation < 0 || rotation >= ShapeTable.ROTATIONS) {
+            throw new IOException("Invalid rotation " + rotation);
+        }
+        Tetromino t = new Tetromino(type, x, game);
+        t.getTopleft().setY(y);
+        t.setShape(new TetroShape(type, rotation));
+        t.setActive(active);
+        return t;
+    }
+
+    /**
+     * Reads exactly the given number of bytes from a channel.
+     *
+     * @param in The channel to read from.
+     * @param length The number of bytes.
+     * @return A buffer holding the bytes, ready to be read.
+     * @throws IOException If reading fails or the channel ends early.
+     */
+    private static ByteBuffer readFully(ReadableByteChannel in, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (in.read(buf) < 0) {
+                throw new EOFException("Save ends early");
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+}
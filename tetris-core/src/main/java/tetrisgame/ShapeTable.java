@@ -0,0 +1,162 @@
+package tetrisgame;
+
+import java.util.Arrays;
+
+/**
+ * Static table holding every orientation of every Tetris shape.
+ * The table is built once from {@link TetrisUtils#shapes}: each shape is turned clockwise three times
+ * around its origin, the same way the squares of a Tetromino have always been rotated.
+ * For every orientation the extents, the row bitmasks and the bottom profile used by the board ({@link BitBoard}) are precomputed,
+ * so rotating or testing a rotation never has to allocate or rescan coordinates.
+ */
+public final class ShapeTable {
+    /**
+     * The number of distinct orientations of a shape
+     */
+    public static final int ROTATIONS = 4;
+
+    /**
+     * The orientations indexed by shape ordinal and rotation
+     */
+    private static final Orientation[][] TABLE = build();
+
+    /**
+     * One orientation of a shape with everything precomputed.
+     * Instances are shared, so the squares returned by {@link #getCells()} must not be modified.
+     */
+    public static final class Orientation {
+        private final Coord[] cells;
+        private final int minX;
+        private final int maxX;
+        private final int minY;
+        private final int maxY;
+        private final long[] rowMasks;
+        private final int[] bottoms;
+
+        /**
+         * Computes the extents, row masks and bottom profile of a set of squares.
+         *
+         * @param cells The squares relative to the origin.
+         */
+        private Orientation(Coord[] cells) {
+            this.cells = cells;
+            int loX = 0, hiX = 0, loY = 0, hiY = 0;
+            for (Coord c : cells) {
+                loX = Math.min(loX, c.getX());
+                hiX = Math.max(hiX, c.getX());
+                loY = Math.min(loY, c.getY());
+                hiY = Math.max(hiY, c.getY());
+            }
+            this.minX = loX;
+            this.maxX = hiX;
+            this.minY = loY;
+            this.maxY = hiY;
+            this.rowMasks = new long[hiY - loY + 1];
+            this.bottoms = new int[hiX - loX + 1];
+            Arrays.fill(bottoms, Integer.MIN_VALUE);
+            for (Coord c : cells) {
+                rowMasks[c.getY() - loY] |= 1L << (c.getX() - loX);
+                bottoms[c.getX() - loX] = Math.max(bottoms[c.getX() - loX], c.getY());
+            }
+        }
+
+        /**
+         * Gets the squares of the orientation relative to the origin.
+         * @return The shared array of squares, not to be modified.
+         */
+        public Coord[] getCells() {
+            return cells;
+        }
+
+        /**
+         * Gets the leftmost column offset relative to the origin (never positive).
+         * @return The smallest x offset.
+         */
+        public int getMinX() {
+            return minX;
+        }
+
+        /**
+         * Gets the rightmost column offset relative to the origin (never negative).
+         * @return The largest x offset.
+         */
+        public int getMaxX() {
+            return maxX;
+        }
+
+        /**
+         * Gets the topmost row offset relative to the origin (never positive).
+         * @return The smallest y offset.
+         */
+        public int getMinY() {
+            return minY;
+        }
+
+        /**
+         * Gets the bottom row offset relative to the origin (never negative).
+         * @return The largest y offset.
+         */
+        public int getMaxY() {
+            return maxY;
+        }
+
+        /**
+         * Gets the occupancy bitmask of every row of the orientation, from the top row down.
+         * Bit 0 of a mask is the leftmost column ({@link #getMinX()}).
+         * @return The shared array of row masks, not to be modified.
+         */
+        public long[] getRowMasks() {
+            return rowMasks;
+        }
+
+        /**
+         * Gets the bottom profile of the orientation: the lowest row offset of every column, from the leftmost column ({@link #getMinX()}).
+         * This is the part of the shape that lands first, so it is all the board needs to compute a drop.
+         * @return The shared array of row offsets, not to be modified.
+         */
+        public int[] getBottoms() {
+            return bottoms;
+        }
+    }
+
+    private ShapeTable() {
+    }
+
+    /**
+     * Builds the orientations of every shape by rotating the base coordinates.
+     * When rotating clockwise by 90 degrees offest on the x axis becomes the same offset on the y
+     * Offset on the y axis becomes the same magnitude but opposite direction offset on the x axis
+     *
+     * @return The table indexed by shape ordinal and rotation.
+     */
+    private static Orientation[][] build() {
+        Orientation[][] table = new Orientation[TetrisUtils.shapes.length][ROTATIONS];
+        for (int type = 0; type < TetrisUtils.shapes.length; type++) {
+            int[][] base = TetrisUtils.shapes[type];
+            Coord[] cells = new Coord[base.length];
+            for (int j = 0; j < base.length; j++) {
+                cells[j] = new Coord(base[j]);
+            }
+            for (int rot = 0; rot < ROTATIONS; rot++) {
+                table[type][rot] = new Orientation(cells);
+                Coord[] next = new Coord[cells.length];
+                for (int j = 0; j < cells.length; j++) {
+                    next[j] = new Coord(-cells[j].getY(), cells[j].getX());
+                }
+                cells = next;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Looks up an orientation of a shape.
+     *
+     * @param type The index of the shape (corresponding to TetrisUtils.ShapeType).
+     * @param rotation The number of clockwise turns, between 0 and 3.
+     * @return The precomputed orientation.
+     */
+    public static Orientation get(int type, int rotation) {
+        return TABLE[type][rotation];
+    }
+}
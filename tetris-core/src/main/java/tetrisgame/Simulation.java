@@ -0,0 +1,325 @@
+package tetrisgame;
+
+import java.util.Queue;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Runs a game ({@link TetrisGame}) as its single writer and publishes what it looks like to the renderer.
+ * Only the tick of the simulation ever changes the game: it runs the submitted tasks, applies the input ({@link InputController}),
+ * lets the agent (the autoplayer) move, advances the game and then publishes a {@link GameSnapshot} if anything changed.
+ * The tick runs on a {@link GameScheduler}, a periodic task never overlaps with itself, so the game needs no locks.
+ * <p>
+ * Snapshots are triple buffered ({@link SnapshotBuffer}), neither side ever waits for the other or allocates.
+ * The front end listener is called on the simulation thread after a snapshot is published, with the squares changed since the last one.
+ */
+public final class Simulation implements GameListener {
+    private final TetrisGame game;
+    private final InputController input;
+    private final GameListener frontEnd;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final SnapshotBuffer snapshots;
+
+    /**
+     * The squares changed since the last snapshot, only used by the writer.
+     */
+    private final DirtyRegion changes = new DirtyRegion();
+
+    private boolean publishedGameOn;
+    private boolean publishedPaused;
+    private volatile Runnable agent;
+    private volatile Journal journal;
+    private volatile ScheduledFuture<?> ticker;
+
+    /**
+     * Constructs the simulation of a game, which takes over the listener of the game.
+     * From now on the game may only be touched through the tick of the simulation, or before it is started.
+     *
+     * @param game The game.
+     * @param input The input applied on every tick.
+     * @param frontEnd The listener told about published snapshots, or null.
+     */
+    public Simulation(TetrisGame game, InputController input, GameListener frontEnd) {
+        this.game = game;
+        this.input = input;
+        this.frontEnd = frontEnd;
+        this.snapshots = new SnapshotBuffer(game);
+        this.publishedGameOn = game.isGameOn();
+        this.publishedPaused = game.isPaused();
+        game.setListener(this);
+    }
+
+    /**
+     * Starts ticking the simulation.
+     *
+     * @param scheduler The scheduler running the tick.
+     * @param periodMillis The time between two ticks in milliseconds.
+     */
+    public synchronized void start(GameScheduler scheduler, long periodMillis) {
+        if (ticker == null || ticker.isDone()) {
+            ticker = scheduler.schedule(this::tick, periodMillis);
+        }
+    }
+
+    /**
+     * Stops ticking the simulation, a tick already running is finished.
+     */
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.cancel(false);
+        }
+    }
+
+    /**
+     * Checks whether the simulation is ticking.
+     *
+     * @return True if it was started and not stopped.
+     */
+    public boolean isRunning() {
+        ScheduledFuture<?> t = ticker;
+        return t != null && !t.isDone();
+    }
+
+    /**
+     * Getter for the handle of the tick
+     * @return The handle, null before the simulation is started.
+     */
+    public ScheduledFuture<?> getTicker() {
+        return ticker;
+    }
+
+    /**
+     * Runs a task on the simulation thread at the start of the next tick, like anything else that changes the game.
+     * If the simulation isn't running the task is run right away on the calling thread, nothing else touches the game then.
+     *
+     * @param task The task.
+     * @return The future of the task, done once it has run.
+     */
+    public Future<?> submit(Runnable task) {
+        FutureTask<Void> future = new FutureTask<>(task, null);
+        if (isRunning()) {
+            tasks.add(future);
+        } else {
+            future.run();
+        }
+        return future;
+    }
+
+    /**
+     * Pauses the game and forgets the input not applied yet.
+     *
+     * @return The future of the pause, done once the game is paused.
+     */
+    public Future<?> pause() {
+        return submit(() -> {
+            game.pause();
+            input.reset();
+        });
+    }
+
+    /**
+     * Resumes the game.
+     *
+     * @return The future of the resume, done once the game is resumed.
+     */
+    public Future<?> resume() {
+        return submit(game::resume);
+    }
+
+    /**
+     * Sets the agent moving the Tetromino on every tick before the game advances, like the autoplayer.
+     *
+     * @param agent The agent, run on the simulation thread, or null.
+     */
+    public void setAgent(Runnable agent) {
+        this.agent = agent;
+    }
+
+    /**
+     * Getter for the input applied by the simulation, its key events are recorded by the front end
+     * @return The input controller.
+     */
+    public InputController getInput() {
+        return input;
+    }
+
+    /**
+     * Getter for the simulated game, it may only be touched from submitted tasks while the simulation is running
+     * @return The game.
+     */
+    public TetrisGame getGame() {
+        return game;
+    }
+
+    /**
+     * Gets the latest published snapshot, called from the renderer thread only.
+     * The snapshot stays valid until the next call, so it must not be kept across events.
+     *
+     * @return The latest snapshot.
+     */
+    public GameSnapshot latest() {
+        return snapshots.latest();
+    }
+
+    /**
+     * Getter for the snapshots published by the simulation, read by the renderer
+     * @return The snapshot buffer.
+     */
+    public SnapshotBuffer getSnapshots() {
+        return snapshots;
+    }
+
+    /**
+     * One tick of the simulation, run by the scheduler.
+     * The bytes it allocates are recorded in the {@link GameMetrics}.
+     * Whatever it throws is caught and reported ({@link #reportFailure(RuntimeException)}), the scheduler cancels a task which throws and the game would freeze.
+     */
+    void tick() {
+        long allocated = GameMetrics.threadAllocatedBytes();
+        try {
+            runTick();
+        } catch (RuntimeException e) {
+            reportFailure(e);
+        }
+        if (allocated >= 0) {
+            GameMetrics.get().recordTickAllocation(GameMetrics.threadAllocatedBytes() - allocated);
+        }
+    }
+
+    /**
+     * The body of a tick: runs the submitted tasks, applies the input and the agent, steps the game and publishes a snapshot if anything changed.
+     */
+    private void runTick() {
+        for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+            task.run();
+            staleAll(); // a task may change the board behind the back of the listener
+        }
+        long pressed = input.pendingTime();
+        input.update(System.nanoTime(), game);
+        long shown = changes.isEmpty() ? 0 : pressed; // input which changes nothing is not measured
+        Runnable a = agent;
+        if (a != null) {
+            a.run();
+        }
+        game.step();
+        if (!game.isGameOn()) {
+            finish();
+        }
+        if (!changes.isEmpty() || game.isUpdated()
+                || game.isGameOn() != publishedGameOn || game.isPaused() != publishedPaused) {
+            publish(shown);
+        }
+    }
+
+    /**
+     * Reports a tick which threw: prints it, counts it in the {@link GameMetrics} and tells the front end.
+     * The whole board is published again on the next tick, the tick may have stopped halfway through a change.
+     *
+     * @param e The exception.
+     */
+    private void reportFailure(RuntimeException e) {
+        e.printStackTrace();
+        GameMetrics.get().countTickError();
+        staleAll();
+        BitBoard board = game.getBoard();
+        changes.markRows(0, board.getHeight() - 1, board.getWidth());
+        if (frontEnd != null) {
+            try {
+                frontEnd.tickFailed(e);
+            } catch (RuntimeException again) {
+                again.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Publishes a snapshot of the game and tells the front end.
+     *
+     * @param inputNanos The time of the oldest key event shown first by this snapshot, 0 if none.
+     */
+    private void publish(long inputNanos) {
+        int hud = snapshots.publish(game, changes, inputNanos);
+        publishedGameOn = game.isGameOn();
+        publishedPaused = game.isPaused();
+        boolean stateChanged = game.isUpdated() || !publishedGameOn;
+        game.update();
+        if (frontEnd != null) {
+            if (!changes.isEmpty()) {
+                frontEnd.boardChanged(changes);
+            }
+            if ((hud & SnapshotBuffer.SCORE_CHANGED) != 0) {
+                frontEnd.scoreChanged(snapshots.getScore());
+            }
+            if ((hud & SnapshotBuffer.PREVIEW_CHANGED) != 0) {
+                frontEnd.previewChanged();
+            }
+            if (stateChanged) {
+                frontEnd.stateChanged();
+            }
+        }
+        changes.reset();
+    }
+
+    /**
+     * Marks the whole board as stale in every snapshot, so the next capture of each copies all of it.
+     */
+    private void staleAll() {
+        snapshots.staleAll(game.getBoard());
+    }
+
+    /**
+     * Discards the journal and finishes the replay of the game once it is lost, on the simulation thread.
+     */
+    private void finish() {
+        Journal j = journal;
+        if (j != null) {
+            journal = null;
+            j.discard(); // a lost game has nothing to recover
+        }
+        ReplayRecorder r = game.getRecorder();
+        if (r != null) {
+            game.setRecorder(null);
+            try {
+                r.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Sets the journal every locked Tetromino is appended to, so the game can be recovered after a crash.
+     * The journal is discarded once the game is lost.
+     *
+     * @param journal The journal, or null to stop journaling.
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Appends a locked Tetromino to the journal, on the simulation thread.
+     *
+     * @param locked The Tetromino locked.
+     */
+    @Override
+    public void pieceLocked(Tetromino locked) {
+        Journal j = journal;
+        if (j != null) {
+            j.pieceLocked(game, locked);
+        }
+    }
+
+    /**
+     * Collects the squares changed by the game until the next snapshot.
+     *
+     * @param changed The squares changed.
+     */
+    @Override
+    public void boardChanged(DirtyRegion changed) {
+        changes.add(changed);
+    }
+}
@@ -0,0 +1,161 @@
+package tetrisgame;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands snapshots ({@link GameSnapshot}) of a game from the thread running it to the renderer, used by the {@link Simulation} and the {@link ReplayPlayer}.
+ * Snapshots are triple buffered: the writer fills its back buffer and swaps it with the ready one through a volatile reference,
+ * the renderer swaps its front buffer with the ready one whenever there is a newer one ({@link #latest()}).
+ * Neither side ever waits for the other or allocates, and the renderer never sees a snapshot being written.
+ * A renderer slower than the writer simply skips the snapshots published in between, it always gets the latest one.
+ * There can only be one renderer, anything else showing the game, like a HUD, reads the published score and Tetrominos coming next instead.
+ */
+public final class SnapshotBuffer {
+    /**
+     * Flags returned by {@link #publish}, telling what the HUD shows has changed.
+     */
+    static final int SCORE_CHANGED = 1;
+    static final int PREVIEW_CHANGED = 2;
+
+    /**
+     * The bits of a shape type in the packed preview.
+     */
+    private static final int PREVIEW_BITS = 4;
+
+    private final AtomicReference<GameSnapshot> ready;
+
+    /**
+     * The snapshot being written, only used by the writer.
+     */
+    private GameSnapshot back;
+
+    /**
+     * The snapshot being read, only used by the renderer.
+     */
+    private GameSnapshot front;
+
+    /**
+     * All three snapshots, whichever buffer they are in now, so the writer can tell each of them which rows it has missed.
+     */
+    private final GameSnapshot[] buffers;
+
+    private long version;
+    private volatile int score;
+
+    /**
+     * The Tetrominos coming next, packed into a long so they are published at once: the shape type + 1 of the i-th in bits 4i to 4i + 3, 0 if unknown.
+     */
+    private volatile long preview;
+
+    /**
+     * Creates the buffers for a game and publishes its first snapshot, on the thread which is going to write them.
+     *
+     * @param game The game.
+     */
+    SnapshotBuffer(TetrisGame game) {
+        BitBoard board = game.getBoard();
+        this.back = new GameSnapshot(board.getWidth(), board.getHeight());
+        this.front = new GameSnapshot(board.getWidth(), board.getHeight());
+        GameSnapshot first = new GameSnapshot(board.getWidth(), board.getHeight());
+        first.capture(game, ++version, 0, System.nanoTime());
+        this.ready = new AtomicReference<>(first);
+        this.buffers = new GameSnapshot[] {first, back, front};
+        this.score = first.getScore();
+        this.preview = pack(first);
+    }
+
+    /**
+     * Gets the latest published snapshot, called from the renderer thread only.
+     * The snapshot stays valid until the next call, so it must not be kept across events.
+     *
+     * @return The latest snapshot.
+     */
+    public GameSnapshot latest() {
+        GameSnapshot r = ready.get();
+        if (r.getVersion() > front.getVersion()) {
+            front = ready.getAndSet(front);
+        }
+        return front;
+    }
+
+    /**
+     * Captures a game into the back buffer and swaps it with the ready one, called by the writer only.
+     *
+     * @param game The game, of the size the buffers were created for.
+     * @param changes The squares changed since the last snapshot.
+     * @param inputNanos The time of the oldest key event shown first by this snapshot, 0 if none.
+     * @return What changed for the HUD, {@link #SCORE_CHANGED} and {@link #PREVIEW_CHANGED} or'ed together.
+     */
+    int publish(TetrisGame game, DirtyRegion changes, long inputNanos) {
+        for (GameSnapshot s : buffers) {
+            s.stale.add(changes);
+        }
+        back.capture(game, ++version, inputNanos, System.nanoTime());
+        int changed = 0;
+        if (back.getScore() != score) {
+            score = back.getScore();
+            changed |= SCORE_CHANGED;
+        }
+        long packed = pack(back);
+        if (packed != preview) {
+            preview = packed;
+            changed |= PREVIEW_CHANGED;
+        }
+        back = ready.getAndSet(back);
+        return changed;
+    }
+
+    /**
+     * Packs the Tetrominos coming next of a snapshot into a long.
+     *
+     * @param snapshot The snapshot.
+     * @return The packed preview.
+     */
+    private static long pack(GameSnapshot snapshot) {
+        long packed = 0;
+        for (int i = 0; i < snapshot.getPreviewCount(); i++) {
+            packed |= (long) (snapshot.getPreview(i) + 1) << (i * PREVIEW_BITS);
+        }
+        return packed;
+    }
+
+    /**
+     * Getter for the score of the latest snapshot, safe from any thread
+     * @return The score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Getter for the kind of the next Tetromino in the latest snapshot, safe from any thread
+     * @return The index of the shape type, -1 if there is none.
+     */
+    public int getNextType() {
+        return getPreview(0);
+    }
+
+    /**
+     * Getter for the kind of a Tetromino coming next in the latest snapshot, safe from any thread
+     * @param i The place in the queue, 0 is the next Tetromino.
+     * @return The index of the shape type, -1 if it isn't known.
+     */
+    public int getPreview(int i) {
+        if (i < 0 || i >= TetrisGame.MAX_PREVIEW) {
+            return -1;
+        }
+        return (int) ((preview >>> (i * PREVIEW_BITS)) & ((1 << PREVIEW_BITS) - 1)) - 1;
+    }
+
+    /**
+     * Marks the whole board as stale in every snapshot, so the next capture of each copies all of it.
+     * Called by the writer whenever the board changed behind the back of its listener.
+     *
+     * @param board The board of the game.
+     */
+    void staleAll(BitBoard board) {
+        for (GameSnapshot s : buffers) {
+            s.stale.markRows(0, board.getHeight() - 1, board.getWidth());
+        }
+    }
+}
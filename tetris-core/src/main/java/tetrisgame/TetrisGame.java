@@ -0,0 +1,675 @@
+package tetrisgame;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * The headless Tetris engine: the board ({@link BitBoard}), the current and next Tetromino ({@link Tetromino}),
+ * the rules for locking, clearing rows and losing, the piece randomizer and the score.
+ * The game is advanced by calling {@link #step()} once per tick, the player's moves are applied right away.
+ * A game is not thread safe, every call has to come from the single thread running it.
+ * It knows nothing about drawing, a front end subscribes with a {@link GameListener} to learn what to repaint.
+ */
+public class TetrisGame implements Serializable, PieceControls {
+    /**
+     * The time between two game ticks in milliseconds, when the game runs in real time.
+     */
+    public static final int FRAME_MILLIS = 10;
+
+    /**
+     * The number of game ticks between two gravity steps of the falling Tetromino.
+     */
+    public static final int GRAVITY_FRAMES = 50;
+
+    /**
+     * The largest number of Tetrominos coming next a game can tell ({@link #getPreview(int[], int)}).
+     */
+    public static final int MAX_PREVIEW = 6;
+
+    /**
+     * The width of the classic board in squares.
+     */
+    public static final int CLASSIC_WIDTH = 10;
+
+    /**
+     * The height of the classic board in squares.
+     */
+    public static final int CLASSIC_HEIGHT = 20;
+
+    /**
+     * The smallest width and height of a board, every Tetromino has to fit at its spawn point.
+     */
+    public static final int MIN_SIZE = 4;
+
+    /**
+     * The shared metrics the game records its ticks, Tetrominos and cleared rows into {@link GameMetrics}.
+     */
+    private static final GameMetrics METRICS = GameMetrics.get();
+
+    /**
+     * The bitboard holding the locked squares of the Tetris game board. {@link BitBoard}
+     */
+    private BitBoard board;
+
+    /**
+     * The currently active Tetromino being controlled by the player.
+     */
+    private Tetromino currTetro;
+
+    /**
+     * The next Tetromino that will appear on the board.
+     */
+    private Tetromino nextTetro;
+
+    /**
+     * The randomizer dealing the shape types of the Tetrominos {@link Randomizer}.
+     * Its state is saved with the game, so a loaded game deals the same Tetrominos.
+     */
+    private Randomizer randomizer;
+
+    /**
+     * The column of the origin of every new Tetromino, the middle of the board.
+     */
+    private int spawnX;
+
+    /**
+     * The largest column index of the board.
+     */
+    private int squareWidth;
+
+    /**
+     * The largest row index of the board.
+     */
+    private int squareHeight;
+
+    /**
+     * The player's current score in the game.
+     */
+    private int score;
+
+    /**
+     * Flag indicating whether the game is currently active.
+     */
+    private boolean gameOn;
+
+    /**
+     * The number of game ticks since the falling Tetromino last moved down.
+     */
+    private int gravityCounter;
+
+    /**
+     * The number of Tetrominos locked since the game was created, not part of the save format.
+     */
+    private long pieces;
+
+    /**
+     * The number of rows cleared since the game was created, not part of the save format.
+     */
+    private long lines;
+
+    /**
+     * Flag indicating whether the game is currently paused.
+     * Transient to avoid being serialized.
+     */
+    private transient boolean paused;
+
+    /**
+     * Flag indicating whether the score or the next Tetromino has changed.
+     * Transient to avoid being serialized.
+     */
+    private transient boolean updated;
+
+    /**
+     * The squares changed since the listener was last notified.
+     * Transient to avoid being serialized.
+     */
+    private transient DirtyRegion dirty;
+
+    /**
+     * The last Tetromino locked, reused as the next one when the one after it locks, null at first.
+     * It is kept for a piece so whoever still looks at the locked Tetromino sees where it landed.
+     * Transient to avoid being serialized.
+     */
+    private transient Tetromino spare;
+
+    /**
+     * The front end listening to the game, if any.
+     * Transient to avoid being serialized.
+     */
+    private transient GameListener listener;
+
+    /**
+     * The recorder of the replay of the game, if it is recorded.
+     * Transient to avoid being serialized.
+     */
+    private transient ReplayRecorder recorder;
+
+    /**
+     * A randomizer of the same kind, loaded with the state of the randomizer to see the Tetrominos it will deal, and the buffer the state is copied through.
+     * Transient to avoid being serialized.
+     */
+    private transient Randomizer lookahead;
+    private transient ByteBuffer lookaheadState;
+
+    /**
+     * Constructs a new game on a classic 10 by 20 board, with purely random Tetrominos from a random seed.
+     */
+    public TetrisGame() {
+        this(new Random().nextLong());
+    }
+
+    /**
+     * Constructs a new game on a classic 10 by 20 board, with purely random Tetrominos from the given seed.
+     * Games with the same seed deal the same Tetrominos.
+     *
+     * @param seed The seed of the randomizer.
+     */
+    public TetrisGame(long seed) {
+        this(new PureRandomizer(seed));
+    }
+
+    /**
+     * Constructs a new game on a classic 10 by 20 board.
+     *
+     * @param randomizer The randomizer dealing the Tetrominos, it belongs to the game from now on.
+     */
+    public TetrisGame(Randomizer randomizer) {
+        this(CLASSIC_WIDTH, CLASSIC_HEIGHT, randomizer);
+    }
+
+    /**
+     * Constructs a new game on a board of any size, from {@link #MIN_SIZE} up to {@link BitBoard#MAX_WIDTH} by {@link BitBoard#MAX_HEIGHT}.
+     * The Tetrominos spawn in the middle of the top row.
+     *
+     * @param width The width of the board in squares.
+     * @param height The height of the board in squares.
+     * @param randomizer The randomizer dealing the Tetrominos, it belongs to the game from now on.
+     * @throws IllegalArgumentException If the board is too small or too large.
+     */
+    public TetrisGame(int width, int height, Randomizer randomizer) {
+        if (width < MIN_SIZE || height < MIN_SIZE) {
+            throw new IllegalArgumentException("Board must be at least " + MIN_SIZE + "x" + MIN_SIZE);
+        }
+        this.board = new BitBoard(width, height);
+        this.squareWidth = width - 1;
+        this.squareHeight = height - 1;
+        this.spawnX = width / 2;
+        this.randomizer = randomizer;
+        initTrans();
+        currTetro = new Tetromino(nextShape(), spawnX, this);
+        nextTetro = new Tetromino(nextShape(), spawnX, this);
+        this.gameOn = true;
+        this.score = 0;
+    }
+
+    /**
+     * Constructs a game on an existing board without any Tetrominos, used when loading a saved game ({@link SaveFormat}).
+     * The caller has to set the current and next Tetromino before the game is stepped.
+     *
+     * @param board The board of the game.
+     * @param randomizer The randomizer, already holding its saved state.
+     */
+    TetrisGame(BitBoard board, Randomizer randomizer) {
+        this.board = board;
+        this.squareWidth = board.getWidth() - 1;
+        this.squareHeight = board.getHeight() - 1;
+        this.spawnX = board.getWidth() / 2;
+        this.randomizer = randomizer;
+        this.gameOn = true;
+        initTrans();
+    }
+
+    /**
+     * Initializes transient fields after deserialization.
+     */
+    public void initTrans() {
+        this.paused = false;
+        this.updated = true;
+        this.dirty = new DirtyRegion();
+    }
+
+    /**
+     * Advances the game by one tick, this is the single timeline of the game
+     * Checks for losing condition every tick
+     * Activates (spawns) the next Tetromino once the previous one is locked, it moves down right away
+     * Moves the current Tetromino down every {@link #GRAVITY_FRAMES} ticks, which locks it once it can't fall further
+     * Full rows are not checked here, locking a Tetromino clears the rows it filled
+     * Does nothing while the game is paused or over
+     * The time of every tick is recorded in the tick histogram of the {@link GameMetrics}
+     */
+    public void step() {
+        if (recorder != null) {
+            recorder.beforeStep(this);
+        }
+        if (paused || !gameOn) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (isLost()) {
+            this.gameOn = false;
+            return;
+        }
+        if (!currTetro.getActive()) {
+            currTetro.activate();
+            METRICS.countPiece();
+            markDirty(currTetro);
+            gravityCounter = GRAVITY_FRAMES;
+        }
+        if (++gravityCounter >= GRAVITY_FRAMES) {
+            gravityCounter = 0;
+            currTetro.moveDown();
+        }
+        flushDirty();
+        METRICS.tick.recordSince(start);
+    }
+
+    /**
+     * Checks if the game is lost (when a locked square is in the top row).
+     *
+     * @return True if the game is lost, false otherwise.
+     */
+    public boolean isLost() {
+        return board.isTopReached();
+    }
+
+    /**
+     * Checks and clears full rows on the whole board.
+     * The game itself only checks the rows touched by a locked Tetromino ({@link #clearRows(int, int)}), this is kept for a full check
+     */
+    public void checkRows() {
+        clearRows(0, board.getHeight() - 1);
+    }
+
+    /**
+     * Clears the full rows among the given rows and updates the score.
+     * Called once whenever a Tetromino is locked, with the rows it occupies
+     * A row is full when the fill counter of the board {@link BitBoard} reaches its width, so rows are never scanned square by square
+     *
+     * @param from The topmost row to check.
+     * @param to The bottom row to check.
+     */
+    public void clearRows(int from, int to) {
+        long start = System.nanoTime();
+        int cleared = board.clearFullRows(from, to);
+        METRICS.clear.recordSince(start);
+        if (cleared > 0) {
+            METRICS.countLines(cleared);
+            lines += cleared;
+            dirty.markRows(0, to, board.getWidth()); // everything above the cleared rows moved down
+            score += 100 * cleared; // Increase score
+            this.updated = true;
+        }
+    }
+
+    /**
+     * Deletes a full row and shifts rows above it down.
+     *
+     * @param i The index of the row to delete.
+     */
+    public void deleteRow(int i) {
+        board.deleteRow(i);
+        dirty.markRows(0, i, board.getWidth());
+        lines++;
+
+        score += 100; // Increase score
+        this.updated = true;
+    }
+
+    /**
+     * Replaces the current Tetromino with the next one and generates a new next Tetromino {@link Tetromino}.
+     * It sets the updated flag to true to indicate that the next Tetromino shown by a front end needs updating
+     * The three Tetrominos (current, next and the last locked one) take turns, so no Tetromino is allocated while the game is played
+     */
+    public void changeTetro() {
+        Tetromino locked = currTetro;
+        currTetro = nextTetro;
+        if (spare == null) {
+            nextTetro = new Tetromino(nextShape(), spawnX, this);
+        } else {
+            spare.reset(nextShape(), spawnX);
+            nextTetro = spare;
+        }
+        spare = locked;
+        this.updated = true;
+    }
+
+    /**
+     * Tells the shape types of the Tetrominos coming next: the next Tetromino, then the ones the randomizer will deal after it.
+     * The randomizer itself is left untouched, its state is copied into a lookahead randomizer which deals them instead,
+     * so the game goes on exactly as it would have. Doesn't allocate after the first call, called by the thread running the game only.
+     *
+     * @param out The array to fill with the indexes of the shape types, the next Tetromino first.
+     * @param count The number of Tetrominos wanted, at most {@link #MAX_PREVIEW}.
+     * @return The number of shape types filled in.
+     */
+    public int getPreview(int[] out, int count) {
+        count = Math.min(Math.min(count, MAX_PREVIEW), out.length);
+        if (count <= 0 || nextTetro == null) {
+            return 0;
+        }
+        out[0] = nextTetro.getShape().getType();
+        if (count > 1) {
+            if (lookahead == null || lookahead.getKind() != randomizer.getKind()
+                    || lookaheadState.capacity() < randomizer.stateBytes()) {
+                lookahead = randomizer.getKind().create(0);
+                lookaheadState = ByteBuffer.allocate(randomizer.stateBytes());
+            }
+            lookaheadState.clear();
+            randomizer.writeState(lookaheadState);
+            lookaheadState.flip();
+            lookahead.readState(lookaheadState);
+            for (int i = 1; i < count; i++) {
+                out[i] = lookahead.next();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Deals the index of the next shape type from the randomizer.
+     *
+     * @return The index of the shape type.
+     */
+    private int nextShape() {
+        return randomizer.next();
+    }
+
+    /**
+     * Marks the squares currently occupied by a Tetromino and by its ghost (where it would land) as changed.
+     * Called before and after every move, so both the squares it left and the ones it entered get repainted
+     *
+     * @param t The Tetromino that moves.
+     */
+    public void markDirty(Tetromino t) {
+        Coord origin = t.getTopleft();
+        int drop = t.getDropDistance();
+        for (Coord cord : t.getShape().getRelative()) {
+            dirty.mark(origin.getX() + cord.getX(), origin.getY() + cord.getY());
+            dirty.mark(origin.getX() + cord.getX(), origin.getY() + cord.getY() + drop);
+        }
+    }
+
+    /**
+     * Tells the listener that a Tetromino was locked, called by the Tetromino once the next one is drawn.
+     *
+     * @param locked The Tetromino locked.
+     */
+    void pieceLocked(Tetromino locked) {
+        pieces++;
+        if (listener != null) {
+            listener.pieceLocked(locked);
+        }
+    }
+
+    /**
+     * Notifies the listener of the squares changed since the last notification.
+     * Does nothing if nothing has changed, so idle ticks cost a front end nothing.
+     */
+    public void flushDirty() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        if (listener != null) {
+            listener.boardChanged(dirty);
+        }
+        dirty.reset();
+    }
+
+    /**
+     * Pauses the game, ticks leave the board untouched until it is resumed.
+     */
+    public void pause() {
+        record(ReplayRecorder.PAUSE);
+        this.paused = true;
+    }
+
+    /**
+     * Resumes the game, the current Tetromino continues falling with the next tick.
+     */
+    public void resume() {
+        record(ReplayRecorder.RESUME);
+        this.paused = false;
+    }
+
+    /**
+     * Moves the current Tetromino to the left.
+     */
+    @Override
+    public void moveLeft() {
+        record(ReplayRecorder.LEFT);
+        this.currTetro.moveLeft();
+    }
+
+    /**
+     * Moves the current Tetromino to the right.
+     */
+    @Override
+    public void moveRight() {
+        record(ReplayRecorder.RIGHT);
+        this.currTetro.moveRight();
+    }
+
+    /**
+     * Moves the current Tetromino down by one row (soft drop), locking it if it can't move further.
+     */
+    @Override
+    public void moveDown() {
+        record(ReplayRecorder.DOWN);
+        this.currTetro.moveDown();
+    }
+
+    /**
+     * Rotates the current Tetromino clockwise.
+     */
+    @Override
+    public void rotate() {
+        record(ReplayRecorder.ROTATE);
+        this.currTetro.rotate();
+    }
+
+    /**
+     * Drops the current Tetromino as far down as it goes.
+     */
+    @Override
+    public void pushDown() {
+        record(ReplayRecorder.DROP);
+        this.currTetro.pushDown();
+    }
+
+    /**
+     * Tells the recorder about an action, if the game is recorded.
+     *
+     * @param action The action, one of the actions of the {@link ReplayRecorder}.
+     */
+    private void record(int action) {
+        if (recorder != null) {
+            recorder.action(action);
+        }
+    }
+
+    /**
+     * Sets the recorder of the replay of the game, from now on every tick and action is recorded.
+     *
+     * @param recorder The recorder, or null to stop recording.
+     */
+    public void setRecorder(ReplayRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Getter for the recorder of the replay of the game
+     * @return The recorder, null if the game isn't recorded.
+     */
+    public ReplayRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Sets the listener notified about the changes of the game.
+     *
+     * @param listener The front end listening to the game, or null.
+     */
+    public void setListener(GameListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * The getter for the bitboard {@link BitBoard} of the Tetris game
+     * @return The board holding the locked squares.
+     */
+    public BitBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Getter for the currently in play Tetro of the game
+     * @return The currently active Tetromino.
+     */
+    public Tetromino getCurrTetro() {
+        return currTetro;
+    }
+
+    /**
+     * Sets the current Tetromino.
+     *
+     * @param T The Tetromino to set as current.
+     */
+    public void setCurrTetro(Tetromino T) {
+        this.currTetro = T;
+    }
+
+    /**
+     * Getter for the next in line Tetromino
+     * @return The next Tetromino to be dropped.
+     */
+    public Tetromino getNextTetro() {
+        return nextTetro;
+    }
+
+    /**
+     * Sets the next Tetromino to be dropped.
+     *
+     * @param T The Tetromino to set as next.
+     */
+    public void setNextTetro(Tetromino T) {
+        this.nextTetro = T;
+    }
+
+    /**
+     * Getter for the column new Tetrominos spawn in
+     * @return The column of the origin of a new Tetromino.
+     */
+    public int getSpawnX() {
+        return spawnX;
+    }
+
+    /**
+     * The getter for the largest column index of the board
+     * @return The width of the board in squares minus one.
+     */
+    public int getSquareWidth() {
+        return squareWidth;
+    }
+
+    /**
+     * Getter for the largest row index of the board
+     * @return The height of the board in squares minus one.
+     */
+    public int getSquareHeight() {
+        return squareHeight;
+    }
+
+    /**
+     * Getter for the score of the tetris game
+     * @return The player's current score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Getter for the number of Tetrominos locked, the Tetromino falling is the one after as many
+     * @return The number of locked Tetrominos since the game was created or loaded.
+     */
+    public long getPieces() {
+        return pieces;
+    }
+
+    /**
+     * Getter for the number of rows cleared, counted apart from the score so it doesn't depend on the scoring rule
+     * @return The number of cleared rows since the game was created or loaded.
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    /**
+     * Sets the number of Tetrominos locked, for a game loaded from a replay keyframe which knows how many came before it.
+     *
+     * @param pieces The number of locked Tetrominos.
+     */
+    void setPieces(long pieces) {
+        this.pieces = pieces;
+    }
+
+    /**
+     * Getter for the on-state of the game
+     * @return True if the game is active, false otherwise.
+     */
+    public boolean isGameOn() {
+        return gameOn;
+    }
+
+    /**
+     * Getter for the pause-state of the game
+     * @return True if the game is paused, false otherwise.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Getter for the updated flag
+     * @return True if the score or the next Tetromino has changed, false otherwise.
+     */
+    public boolean isUpdated() {
+        return updated;
+    }
+
+    /**
+     * Marks the game state as no longer updated.
+     */
+    public void update() {
+        this.updated = false;
+    }
+
+    /**
+     * Getter for the number of ticks since the falling Tetromino last moved down
+     * @return The gravity counter.
+     */
+    public int getGravityCounter() {
+        return gravityCounter;
+    }
+
+    /**
+     * Getter for the randomizer dealing the Tetrominos, saved so a loaded game deals the same Tetrominos
+     * @return The randomizer of the game.
+     */
+    public Randomizer getRandomizer() {
+        return randomizer;
+    }
+
+    /**
+     * Restores the progress of a loaded game.
+     *
+     * @param score The score.
+     * @param gameOn Whether the game is still active.
+     * @param gravityCounter The number of ticks since the falling Tetromino last moved down.
+     */
+    void restore(int score, boolean gameOn, int gravityCounter) {
+        this.score = score;
+        this.gameOn = gameOn;
+        this.gravityCounter = gravityCounter;
+    }
+}
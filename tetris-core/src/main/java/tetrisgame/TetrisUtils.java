@@ -0,0 +1,71 @@
+package tetrisgame;
+
+/**
+ * Utility class for managing Tetris game constants and utility methods.
+ * This class includes the shape definitions and other game constants.
+ * The colors of the shapes belong to the front end, see TetrisColors in tetris-swing.
+ */
+public class TetrisUtils {
+
+    /**
+     * Enum representing the types of Tetris shapes.
+     */
+    public enum ShapeType {
+        O, I, S, L, J, T, Z
+    }
+
+    /**
+     * Cached copy of ShapeType.values(), so lookups by index don't clone the array every time.
+     */
+    private static final ShapeType[] SHAPE_TYPES = ShapeType.values();
+
+    /**
+     * The number of shape types.
+     */
+    public static final int SHAPE_COUNT = SHAPE_TYPES.length;
+
+    /**
+     * Array containing the relative coordinates of each shape type.
+     * Each shape is defined as an array of 2D coordinates relative to its origin.
+     */
+    public static final int[][][] shapes = {
+        { {0, 0}, {0, 1}, {1, 0}, {1, 1} },  // O
+        { {0, 0}, {0, 1}, {0, 2}, {0, 3} },  // I
+        { {0, 0}, {1, 0}, {-1, 1}, {0, 1} }, // S
+        { {0, 0}, {0, 1}, {0, 2}, {1, 2} },  // L
+        { {0, 0}, {0, 1}, {0, 2}, {-1, 2} }, // J
+        { {0, 0}, {1, 0}, {2, 0}, {1, 1} },  // T
+        { {0, 0}, {1, 0}, {1, 1}, {1, 2} }   // Z
+    };
+
+    /**
+     * Retrieves the compact color code stored on the board ({@link BitBoard}) for a given shape type.
+     * Code 0 is reserved for empty squares, so every shape is shifted up by one.
+     *
+     * @param shape The shape type whose color code is to be retrieved.
+     * @return The color code of the shape type.
+     */
+    public static byte getColorCode(ShapeType shape) {
+        return (byte) (shape.ordinal() + 1);
+    }
+
+    /**
+     * Retrieves the shape type with the given index, without cloning the values of the enum.
+     *
+     * @param i The index of the shape type.
+     * @return The shape type.
+     */
+    public static ShapeType getShapeType(int i) {
+        return SHAPE_TYPES[i];
+    }
+
+    /**
+     * Retrieves the coordinates of the blocks forming a given Tetris shape.
+     *
+     * @param shape The shape type whose coordinates are to be retrieved.
+     * @return A 2D array representing the relative coordinates of the shape's blocks.
+     */
+    public static int[][] getShapeCoords(ShapeType shape) {
+        return shapes[shape.ordinal()];
+    }
+}
@@ -0,0 +1,114 @@
+package tetrisgame;
+
+import java.io.Serializable;
+
+/**
+ * Represents the shape of a Tetromino in the Tetris game.
+ * A TetroShape is just the kind of the shape and the number of clockwise turns it has made,
+ * the coordinates, extents and bitmasks of each orientation are looked up in the {@link ShapeTable}.
+ * This way rotating a shape never allocates anything.
+ * The coordinates of an orientation are {@link Coord}s relative to the Tetromino's topleft square
+ */
+public class TetroShape implements Serializable {
+    /**
+     * The index of the shape (corresponding to TetrisUtils.ShapeType)
+     */
+    private int type;
+    /**
+     * The number of clockwise turns made by the shape, between 0 and 3
+     */
+    private int rotation;
+
+    /**
+     * Constructs a TetroShape using the index of a predefined shape.
+     *
+     * @param i The index of the shape (corresponding to TetrisUtils.ShapeType).
+     */
+    public TetroShape(int i) {
+        this(i, 0);
+    }
+
+    /**
+     * Constructs a TetroShape already turned clockwise a number of times, used when loading a saved game.
+     *
+     * @param i The index of the shape (corresponding to TetrisUtils.ShapeType).
+     * @param rotation The number of clockwise turns, between 0 and 3.
+     */
+    public TetroShape(int i, int rotation) {
+        this.type = i;
+        this.rotation = rotation & (ShapeTable.ROTATIONS - 1);
+    }
+
+    /**
+     * Copy constructor that creates a new TetroShape from an existing one.
+     *
+     * @param copied The TetroShape to copy.
+     */
+    public TetroShape(TetroShape copied) {
+        this.type = copied.type;
+        this.rotation = copied.rotation;
+    }
+
+    /**
+     * Turns the shape into a new, unturned shape of a kind, when its Tetromino is reused.
+     *
+     * @param i The index of the shape (corresponding to TetrisUtils.ShapeType).
+     */
+    void reset(int i) {
+        this.type = i;
+        this.rotation = 0;
+    }
+
+    /**
+     * Rotates the shape clockwise by stepping to the next precomputed orientation.
+     */
+    public void rotateClock() {
+        this.rotation = (this.rotation + 1) & (ShapeTable.ROTATIONS - 1);
+    }
+
+    /**
+     * Retrieves the current orientation of the shape.
+     *
+     * @return The precomputed {@link ShapeTable.Orientation}.
+     */
+    public ShapeTable.Orientation getOrientation() {
+        return ShapeTable.get(type, rotation);
+    }
+
+    /**
+     * Retrieves the orientation the shape would have after a clockwise rotation, without rotating it.
+     *
+     * @return The precomputed {@link ShapeTable.Orientation} after one clockwise turn.
+     */
+    public ShapeTable.Orientation getClockwise() {
+        return ShapeTable.get(type, (rotation + 1) & (ShapeTable.ROTATIONS - 1));
+    }
+
+    /**
+     * Retrieves the relative coordinates of the shape.
+     * The array is shared by every shape in the same orientation, so it must not be modified.
+     *
+     * @return An array of Coord objects representing the relative positions.
+     */
+    public Coord[] getRelative() {
+        return getOrientation().getCells();
+    }
+
+    /**
+     * Retrieves the kind of the shape.
+     *
+     * @return The index of the shape (corresponding to TetrisUtils.ShapeType).
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the number of clockwise turns made by the shape.
+     *
+     * @return The rotation, between 0 and 3.
+     */
+    public int getRotation() {
+        return rotation;
+    }
+}
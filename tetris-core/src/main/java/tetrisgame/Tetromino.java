@@ -0,0 +1,312 @@
+package tetrisgame;
+import tetrisgame.TetrisUtils.ShapeType;
+import java.io.Serializable;
+
+/**
+ * Represents a Tetromino, the main building block of Tetris gameplay.
+ * A Tetromino consists of multiple squares and can move or rotate on the Tetris board.
+ * Every move is applied right away on the calling thread, which has to be the thread running the game ({@link TetrisGame}).
+ * Moving, rotating and locking a Tetromino allocates nothing, and a game reuses its Tetrominos once they are locked.
+ */
+public class Tetromino implements Serializable{
+    /**
+     * Boolean flag storing whether the Tetro is currently acitve in a Game instance
+     */
+    private boolean active;
+    /**
+     * The kind of the Tetromino
+     */
+    private ShapeType type;
+    /**
+     * The grid coordinates of the origin of the Tetromino
+     */
+    private Coord topleft;
+    /**
+     * The shape of the Tetromino
+     */
+    private TetroShape shape;
+    /**
+     * The Tetris game the Tetromino is in
+     */
+    private TetrisGame game;
+
+     /**
+     * Constructs a new Tetromino with the specified shape ({@link TetroShape}), initial x-position, and Tetris game ({@link TetrisGame}).
+     * 
+     * @param i Index of the shape type.
+     * @param x Initial x-coordinate of the Tetromino.
+     * @param g Reference to the Tetris game.
+     */
+    public Tetromino(int i, int x, TetrisGame g){
+        active = false;
+        type = TetrisUtils.getShapeType(i);
+        shapePicker(i); //to make easy lines
+        this.topleft = new Coord(x,0);   
+        game = g;
+    }
+
+    /**
+     * Checking if the Tetromino is stopped by a locked square of the board ({@link BitBoard})
+     * @param offset the direction we want to move the Tetro
+     * @param start The current origin of the tetro
+     * @return True if the Tetro is stopped, False otherwise
+     */
+    public boolean isStopped(int[] offset, Coord start){
+        //if it hits a locked tetro it stops
+        return game.getBoard().collides(this.shape.getOrientation(), start.getX() + offset[0], start.getY() + offset[1]);
+    }
+
+    /**
+     * Checking if the Tetromino would be stopped by a locked square of the board ({@link BitBoard}) when moved from where it is
+     * The moves use this one, so they don't allocate an offset array
+     * @param dx The number of columns to move
+     * @param dy The number of rows to move
+     * @return True if the Tetro is stopped, False otherwise
+     */
+    private boolean isStopped(int dx, int dy){
+        return game.getBoard().collides(this.shape.getOrientation(), topleft.getX() + dx, topleft.getY() + dy);
+    }
+
+    /**
+     * Checks if the Tetromino can be rotated 90 degrees clockwise
+     * Looks up the next orientation of the shape in the {@link ShapeTable} and checks if it with the same origin would be out of bounds or collide with a locked square of the board {@link BitBoard}
+     * @return True if rotating the Tetro can be done without illegal behaviour, False if not
+     */
+    public boolean canRotate() {
+        return game.getBoard().fits(shape.getClockwise(), topleft.getX(), topleft.getY());
+    }
+
+    /**
+     * Sets the bits of the squares occupied by the Tetromino in the board ({@link BitBoard})
+     * This makes it so its a locked in place element of the Board
+     * Only the rows the Tetromino occupies can become full, so only those are checked for clearing
+     * Its squares are marked as changed, the board under them is no longer the same even if the screen looks it
+     */
+    public void lockTetro(){
+        ShapeTable.Orientation orientation = this.shape.getOrientation();
+        game.markDirty(this);
+        game.getBoard().lock(orientation, topleft.getX(), topleft.getY(), TetrisUtils.getColorCode(type));
+        GameMetrics.get().countLock();
+        game.clearRows(topleft.getY() + orientation.getMinY(), topleft.getY() + orientation.getMaxY());
+        this.active = false;
+        game.changeTetro();
+        game.pieceLocked(this);
+    }
+
+    /**
+     * Activates the Tetro
+     * Allows for storing Tetrominos without them being moved down/in the game
+     * The downward movement of an active Tetro is driven by the game tick ({@link TetrisGame#step()})
+     */
+    public void activate(){
+        this.active = true;
+    }
+
+    /**
+     * Turns a Tetromino that is done falling into a new one, so a game can reuse its Tetrominos instead of allocating one for every piece
+     * @param i Index of the shape type.
+     * @param x Initial x-coordinate of the Tetromino.
+     */
+    void reset(int i, int x){
+        active = false;
+        type = TetrisUtils.getShapeType(i);
+        shape.reset(i);
+        topleft.setX(x);
+        topleft.setY(0);
+    }
+
+    /**
+     * Creates a new shape ({@link TetroShape})
+     * @param i the integer corresponding to the shape/kind of the Tetromino (7 possible)
+     */
+    private void shapePicker(int i){
+        this.shape = new TetroShape(i); 
+    }
+
+    /**
+     * Moves the current {@link Tetromino} down by one
+     * First check if moving down is in bounds and whether it collides with a locked square
+     * If can move down push the origin (topleft) {@link Coord} of the Tetro down by one
+     * If can't be moved further down, lock the Squares of the Tetro
+     */
+    public void moveDown() {
+        if(this.topleft.getY()+getHeight()==game.getSquareHeight() || isStopped(0, 1)){
+            this.lockTetro();
+            return;
+        } 
+        game.markDirty(this);
+        this.topleft.pushY(1);
+        game.markDirty(this);
+        game.flushDirty();
+    }
+    /** 
+     * Moves the Tetromino to the right by one column
+     * Checks if moving right is in bounds or stopped by a locked square
+     * If moving right is possible do it
+     */
+    public void moveRight(){
+        if(this.topleft.getX()+getRwidth()<this.game.getSquareWidth()){
+            if(isStopped(1, 0)){
+                return;
+            }
+            game.markDirty(this);
+            this.topleft.pushX(1);
+            game.markDirty(this);
+            game.flushDirty();
+        }
+    }
+
+    /**
+     * Moves the Tetromino to the left by one column
+     * Checks if moving left is in bounds or stopped by a locked square
+     * If moving left is possible do it
+     */
+    public void moveLeft(){
+        if(this.topleft.getX()-getLwidth()>0){
+            if(isStopped(-1, 0)){
+                return;
+            }
+            game.markDirty(this);
+            this.topleft.pushX(-1);
+            game.markDirty(this);
+            game.flushDirty();
+        }
+    }
+
+
+    /**
+     * Computes how far the Tetro could fall from where it is, from the skyline of the board ({@link BitBoard#dropDistance(ShapeTable.Orientation, int, int)})
+     * This is also where the ghost of the Tetro is shown
+     * @return The number of rows the Tetro can move down
+     */
+    public int getDropDistance(){
+        return game.getBoard().dropDistance(this.shape.getOrientation(), this.topleft.getX(), this.topleft.getY());
+    }
+
+    /**
+     * Pushes the Tetro down as far as possible
+     * The distance to the lowest possible position comes from the skyline of the board, so the Tetro is moved there in one step
+     */
+    public void pushDown(){
+        int drop = getDropDistance();
+        if(drop == 0){
+            return;
+        }
+        game.markDirty(this);
+        this.topleft.pushY(drop);
+        game.markDirty(this);
+        game.flushDirty();
+    }
+
+    /**
+     * Rotates the Tetromino if possible, determined by canRotate() method
+     * The width and height of the Tetromino come from the precomputed orientation, so nothing has to be recalculated
+     */
+    public void rotate(){
+        if(canRotate()){
+            game.markDirty(this);
+            this.shape.rotateClock();
+            game.markDirty(this);
+            game.flushDirty();
+        }
+    }
+
+  /**
+     * Checks whether the Tetromino is currently active.
+     *
+     * @return True if the Tetromino is active, false otherwise.
+     */
+    public boolean getActive() {
+        return this.active;
+        }
+
+    /**
+     * Retrieves the top-left coordinate of the Tetromino.
+     *
+     * @return A Coord object representing the top-left position.
+     */
+    public Coord getTopleft(){
+        return this.topleft;
+    }
+
+    /**
+     * Sets the top-left coordinate of the Tetromino.
+     *
+     * @param topleft A Coord object representing the new top-left position.
+     */
+    public void setTopleft(Coord topleft) {
+        this.topleft = topleft;
+    }
+
+    /**
+     * Retrieves the kind of the Tetromino.
+     *
+     * @return The {@link ShapeType} of the Tetromino.
+     */
+    public ShapeType getType(){
+        return this.type;
+    }
+
+       /**
+     * Retrieves the left width offset of the Tetromino.
+     *
+     * @return The left width offset as an integer.
+     */
+    public int getLwidth() {
+        return -this.shape.getOrientation().getMinX();
+    }
+
+    /**
+     * Retrieves the right width offset of the Tetromino.
+     *
+     * @return The right width offset as an integer.
+     */
+    public int getRwidth() {
+        return this.shape.getOrientation().getMaxX();
+    }
+
+    /**
+     * Retrieves the height of the Tetromino.
+     *
+     * @return The height as an integer.
+     */
+    public int getHeight() {
+        return this.shape.getOrientation().getMaxY();
+    }
+
+    /**
+     * Retrieves the associated Tetris game.
+     *
+     * @return The TetrisGame object associated with the Tetromino.
+     */
+    public TetrisGame getGame() {
+        return this.game;
+    }
+
+    /**
+     * Retrieves the shape of the Tetromino.
+     *
+     * @return The TetroShape object representing the Tetromino's shape.
+     */
+    public TetroShape getShape() {
+        return this.shape;
+    }
+
+    /**
+     * Sets the shape of the Tetromino.
+     *
+     * @param shape The new TetroShape for the Tetromino.
+     */
+    public void setShape(TetroShape shape) {
+        this.shape = shape;
+    }
+
+    /**
+     * Sets whether the Tetromino is active.
+     *
+     * @param flag True to activate the Tetromino, false to deactivate it.
+     */
+    public void setActive(boolean flag){
+        this.active = flag;
+    }
+}
@@ -0,0 +1,313 @@
+package tetrisgame;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays many complete headless games ({@link TetrisGame}) side by side with the autoplayer ({@link AutoPlayer}) and reports how they went.
+ * Game i is seeded with the base seed + i, so a tournament gives the same games however many threads play it.
+ * Every game runs on its own task with nothing shared but the stateless autoplayer, so it scales with the cores.
+ * <p>
+ * Run from the command line with {@link #main(String[])}:
+ * <pre>
+ * java -cp tetris-core.jar tetrisgame.Tournament --games 10000 --threads 0 --seed 1 --agent lookahead
+ * </pre>
+ * A thread count of 0 plays every game on its own virtual thread when the JVM has them (Java 21+), otherwise on one thread per core.
+ */
+public class Tournament {
+    /**
+     * The result of a single game.
+     */
+    public static final class GameResult {
+        private final long seed;
+        private final int score;
+        private final long lines;
+        private final long pieces;
+        private final long nanos;
+
+        GameResult(long seed, int score, long lines, long pieces, long nanos) {
+            this.seed = seed;
+            this.score = score;
+            this.lines = lines;
+            this.pieces = pieces;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Getter for the seed the game was played with
+         * @return The seed.
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * Getter for the final score
+         * @return The score.
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * Getter for the number of cleared rows
+         * @return The rows cleared.
+         */
+        public long getLines() {
+            return lines;
+        }
+
+        /**
+         * Getter for the number of Tetrominos played
+         * @return The number of Tetrominos.
+         */
+        public long getPieces() {
+            return pieces;
+        }
+
+        /**
+         * Getter for the wall time of the game
+         * @return The time in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    private final int games;
+    private final int threads;
+    private final long seed;
+    private final long maxPieces;
+    private final Randomizer.Kind randomizer;
+    private final AutoPlayer agent;
+    private Path recordDir;
+
+    /**
+     * Constructs a tournament.
+     *
+     * @param games The number of games to play.
+     * @param threads The number of threads playing, 0 for a virtual thread per game if available.
+     * @param seed The seed of the first game.
+     * @param maxPieces The largest number of Tetrominos played in a game, so strong agents don't play forever.
+     * @param randomizer The kind of randomizer dealing the Tetrominos.
+     * @param agent The autoplayer playing every game, it should search on the calling thread.
+     */
+    public Tournament(int games, int threads, long seed, long maxPieces, Randomizer.Kind randomizer, AutoPlayer agent) {
+        this.games = games;
+        this.threads = threads;
+        this.seed = seed;
+        this.maxPieces = maxPieces;
+        this.randomizer = randomizer;
+        this.agent = agent;
+    }
+
+    /**
+     * Records every game of the tournament as a replay ({@link ReplayRecorder}), named after its seed.
+     *
+     * @param dir The directory the replays are written to, created if needed, or null to record nothing.
+     */
+    public void setRecordDir(Path dir) {
+        this.recordDir = dir;
+    }
+
+    /**
+     * Plays every game of the tournament and waits for all of them.
+     *
+     * @return The results in the order of the seeds.
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    public List<GameResult> run() throws InterruptedException {
+        ExecutorService executor = newExecutor(threads);
+        try {
+            List<Future<GameResult>> futures = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                long gameSeed = seed + i;
+                futures.add(executor.submit(() -> play(gameSeed)));
+            }
+            List<GameResult> results = new ArrayList<>(games);
+            for (Future<GameResult> f : futures) {
+                try {
+                    results.add(f.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("A game failed", e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays a single game.
+     *
+     * @param gameSeed The seed of the game.
+     * @return The result of the game.
+     * @throws IOException If the replay of the game can't be written.
+     */
+    GameResult play(long gameSeed) throws IOException {
+        long start = System.nanoTime();
+        TetrisGame game = new TetrisGame(randomizer.create(gameSeed));
+        long pieces;
+        if (recordDir == null) {
+            pieces = agent.playGame(game, maxPieces);
+        } else {
+            Files.createDirectories(recordDir);
+            // the recorder closes the channel, the channel is only closed here if the recorder can't be made
+            try (FileChannel out = FileChannel.open(recordDir.resolve("game-" + gameSeed + ".ttr"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 ReplayRecorder recorder = new ReplayRecorder(out, game)) {
+                game.setRecorder(recorder);
+                pieces = agent.playGame(game, maxPieces);
+            }
+        }
+        return new GameResult(gameSeed, game.getScore(), game.getLines(), pieces, System.nanoTime() - start);
+    }
+
+    /**
+     * Creates the executor the games are played on.
+     * Virtual threads are looked up reflectively, so the engine still builds and runs on Java 17.
+     *
+     * @param threads The number of threads, 0 for a virtual thread per task if available.
+     * @return The executor.
+     */
+    static ExecutorService newExecutor(int threads) {
+        if (threads <= 0) {
+            try {
+                Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) virtual.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                threads = Runtime.getRuntime().availableProcessors();
+            }
+        }
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "tetris-tournament");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Prints a summary of a tournament: throughput, lines and percentiles of the score and the wall time of a game.
+     *
+     * @param results The results of the games.
+     * @param wallNanos The wall time of the whole tournament.
+     * @param out The stream to print to.
+     */
+    public static void report(List<GameResult> results, long wallNanos, PrintStream out) {
+        int n = results.size();
+        int[] scores = new int[n];
+        long[] nanos = new long[n];
+        long pieces = 0;
+        long lines = 0;
+        for (int i = 0; i < n; i++) {
+            GameResult r = results.get(i);
+            scores[i] = r.getScore();
+            nanos[i] = r.getNanos();
+            pieces += r.getPieces();
+            lines += r.getLines();
+        }
+        Arrays.sort(scores);
+        Arrays.sort(nanos);
+        double seconds = wallNanos / 1e9;
+        out.printf(Locale.ROOT, "games: %d in %.2f s, %.1f games/s, %.0f pieces/s%n", n, seconds, n / seconds, pieces / seconds);
+        out.printf(Locale.ROOT, "pieces: %d, lines: %d (%.1f per game)%n", pieces, lines, n == 0 ? 0.0 : (double) lines / n);
+        out.printf(Locale.ROOT, "score   p50 %d  p90 %d  p99 %d  max %d%n",
+                percentile(scores, 50), percentile(scores, 90), percentile(scores, 99), n == 0 ? 0 : scores[n - 1]);
+        out.printf(Locale.ROOT, "game ms p50 %.2f  p90 %.2f  p99 %.2f  max %.2f%n",
+                percentile(nanos, 50) / 1e6, percentile(nanos, 90) / 1e6, percentile(nanos, 99) / 1e6, n == 0 ? 0.0 : nanos[n - 1] / 1e6);
+    }
+
+    /**
+     * Picks a percentile of sorted values by the nearest rank.
+     *
+     * @param sorted The values, sorted.
+     * @param p The percentile, between 0 and 100.
+     * @return The value, 0 if there are none.
+     */
+    static int percentile(int[] sorted, int p) {
+        return sorted.length == 0 ? 0 : sorted[rank(sorted.length, p)];
+    }
+
+    /**
+     * Picks a percentile of sorted values by the nearest rank.
+     *
+     * @param sorted The values, sorted.
+     * @param p The percentile, between 0 and 100.
+     * @return The value, 0 if there are none.
+     */
+    static long percentile(long[] sorted, int p) {
+        return sorted.length == 0 ? 0 : sorted[rank(sorted.length, p)];
+    }
+
+    private static int rank(int n, int p) {
+        return Math.max(0, (int) Math.ceil(p / 100.0 * n) - 1);
+    }
+
+    /**
+     * Runs a tournament from the command line and prints its report.
+     * Options: --games N (1000), --threads T (0: virtual threads or one per core), --seed S (1),
+     * --max-pieces M (100000), --randomizer random|bag|history (random), --agent greedy|lookahead (greedy),
+     * --record DIR (records every game as a replay into the directory).
+     *
+     * @param args The options.
+     * @throws InterruptedException If the main thread is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int games = 1000;
+        int threads = 0;
+        long seed = 1;
+        long maxPieces = 100_000;
+        Randomizer.Kind kind = Randomizer.Kind.RANDOM;
+        boolean lookahead = false;
+        Path recordDir = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--games":
+                    games = Integer.parseInt(value);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--max-pieces":
+                    maxPieces = Long.parseLong(value);
+                    break;
+                case "--randomizer":
+                    kind = Randomizer.Kind.valueOf(value.toUpperCase(Locale.ROOT));
+                    break;
+                case "--agent":
+                    lookahead = value.equalsIgnoreCase("lookahead");
+                    break;
+                case "--record":
+                    recordDir = Path.of(value);
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    return;
+            }
+        }
+        AutoPlayer agent = new AutoPlayer(PlacementHeuristic.DEFAULT, lookahead, null);
+        Tournament tournament = new Tournament(games, threads, seed, maxPieces, kind, agent);
+        tournament.setRecordDir(recordDir);
+        long start = System.nanoTime();
+        List<GameResult> results = tournament.run();
+        report(results, System.nanoTime() - start, System.out);
+    }
+}
@@ -0,0 +1,389 @@
+package tetrisgame;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes the weights of the autoplayer's heuristic ({@link PlacementHeuristic}) with a genetic algorithm.
+ * <p>
+ * The population is a set of weight vectors of unit length, the fitness of one is the number of rows it clears in a few seeded games.
+ * Every generation a tenth of the population is sampled, its two fittest members are crossed into a child weighted by their fitness,
+ * and the child is sometimes mutated. Such children replace the weakest part of the population.
+ * The games of a generation are one batch of independent tasks spread over every core. Every member of every generation plays
+ * the same seeds, fixed for the whole run, so the fitness of a child and of a member kept from an earlier generation come from identical games,
+ * and the outcome doesn't depend on the number of threads.
+ * <p>
+ * The state of the optimizer can be written to a checkpoint after every generation and resumed from it, resuming gives the same
+ * result as a run that was never stopped since the random numbers of a generation only depend on the seed and the generation.
+ */
+public class WeightOptimizer {
+    /**
+     * The share of the population replaced by children every generation.
+     */
+    private static final double REPLACED = 0.3;
+    /**
+     * The share of the population sampled to pick the parents of a child.
+     */
+    private static final double SAMPLED = 0.1;
+    /**
+     * The chance that a child is mutated.
+     */
+    private static final double MUTATION_RATE = 0.05;
+    /**
+     * The largest change a mutation makes to a weight.
+     */
+    private static final double MUTATION_STEP = 0.2;
+
+    private final int gamesPerMember;
+    private final long maxPieces;
+    private final long seed;
+    private final int threads;
+
+    private int generation;
+    private double[][] population;
+    private double[] fitness;
+
+    /**
+     * Constructs an optimizer with a random population.
+     *
+     * @param populationSize The number of weight vectors in the population.
+     * @param gamesPerMember The number of games every member plays to measure its fitness.
+     * @param maxPieces The largest number of Tetrominos in a game, which caps the fitness of strong members.
+     * @param seed The seed of the whole run.
+     * @param threads The number of threads playing, 0 for a virtual thread per game if available ({@link Tournament#newExecutor(int)}).
+     */
+    public WeightOptimizer(int populationSize, int gamesPerMember, long maxPieces, long seed, int threads) {
+        this.gamesPerMember = gamesPerMember;
+        this.maxPieces = maxPieces;
+        this.seed = seed;
+        this.threads = threads;
+        this.generation = 0;
+        this.population = new double[populationSize][];
+        Random random = new Random(seed);
+        for (int i = 0; i < populationSize; i++) {
+            double[] w = new double[PlacementHeuristic.WEIGHTS];
+            for (int j = 0; j < w.length; j++) {
+                w[j] = random.nextDouble() - 0.5;
+            }
+            population[i] = normalize(w);
+        }
+        this.fitness = null;
+    }
+
+    /**
+     * Runs generations until the given number have been done in total, writing a checkpoint after each one if a path is given.
+     *
+     * @param generations The total number of generations.
+     * @param checkpoint The file to write the checkpoint to, or null.
+     * @throws IOException If the checkpoint can't be written.
+     * @throws InterruptedException If the thread is interrupted while the games are played.
+     */
+    public void run(int generations, Path checkpoint) throws IOException, InterruptedException {
+        ExecutorService executor = Tournament.newExecutor(threads);
+        try {
+            if (fitness == null) {
+                fitness = evaluate(executor, population, gameSeeds());
+                if (checkpoint != null) {
+                    save(checkpoint);
+                }
+            }
+            while (generation < generations) {
+                step(executor);
+                if (checkpoint != null) {
+                    save(checkpoint);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs one generation: breeds the children, lets them play and replaces the weakest members with them.
+     *
+     * @param executor The executor the games are played on.
+     * @throws InterruptedException If the thread is interrupted while the games are played.
+     */
+    private void step(ExecutorService executor) throws InterruptedException {
+        generation++;
+        Random random = new Random(seed * 1_000_003L + generation);
+        int n = population.length;
+        int children = Math.max(1, (int) (n * REPLACED));
+        int sample = Math.max(2, (int) (n * SAMPLED));
+        double[][] offspring = new double[children][];
+        for (int c = 0; c < children; c++) {
+            int first = -1;
+            int second = -1;
+            for (int s = 0; s < sample; s++) {
+                int i = random.nextInt(n);
+                if (first < 0 || fitness[i] > fitness[first]) {
+                    second = first;
+                    first = i;
+                } else if (i != first && (second < 0 || fitness[i] > fitness[second])) {
+                    second = i;
+                }
+            }
+            if (second < 0) {
+                second = first;
+            }
+            double total = fitness[first] + fitness[second];
+            double share = (total == 0) ? 0.5 : fitness[first] / total;
+            double[] child = new double[PlacementHeuristic.WEIGHTS];
+            for (int j = 0; j < child.length; j++) {
+                child[j] = population[first][j] * share + population[second][j] * (1 - share);
+            }
+            if (random.nextDouble() < MUTATION_RATE) {
+                child[random.nextInt(child.length)] += (random.nextDouble() * 2 - 1) * MUTATION_STEP;
+            }
+            offspring[c] = normalize(child);
+        }
+        double[] childFitness = evaluate(executor, offspring, gameSeeds());
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(fitness[a], fitness[b]));
+        for (int c = 0; c < children; c++) {
+            population[order[c]] = offspring[c];
+            fitness[order[c]] = childFitness[c];
+        }
+    }
+
+    /**
+     * Gets the seeds of the games every member plays, the same for the whole run so all the fitness values can be compared.
+     *
+     * @return The seeds.
+     */
+    long[] gameSeeds() {
+        Random random = new Random(seed ^ 0x9E3779B97F4A7C15L);
+        long[] seeds = new long[gamesPerMember];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+        return seeds;
+    }
+
+    /**
+     * Measures the fitness of weight vectors as one batch of games, a task per member and game.
+     *
+     * @param executor The executor the games are played on.
+     * @param members The weight vectors.
+     * @param seeds The seeds of the games every member plays.
+     * @return The fitness of every member: the rows it cleared in all its games.
+     * @throws InterruptedException If the thread is interrupted while the games are played.
+     */
+    private double[] evaluate(ExecutorService executor, double[][] members, long[] seeds) throws InterruptedException {
+        List<Future<Long>> futures = new ArrayList<>(members.length * seeds.length);
+        for (double[] member : members) {
+            AutoPlayer player = new AutoPlayer(PlacementHeuristic.fromArray(member), false, null);
+            for (long gameSeed : seeds) {
+                futures.add(executor.submit(() -> {
+                    TetrisGame game = new TetrisGame(gameSeed);
+                    player.playGame(game, maxPieces);
+                    return game.getLines();
+                }));
+            }
+        }
+        double[] result = new double[members.length];
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                result[i / seeds.length] += futures.get(i).get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A game failed", e.getCause());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Scales a vector to unit length, so members differ only in the direction of their weights.
+     *
+     * @param w The vector, changed in place.
+     * @return The same vector.
+     */
+    private static double[] normalize(double[] w) {
+        double length = 0;
+        for (double v : w) {
+            length += v * v;
+        }
+        length = Math.sqrt(length);
+        if (length > 0) {
+            for (int i = 0; i < w.length; i++) {
+                w[i] /= length;
+            }
+        }
+        return w;
+    }
+
+    /**
+     * Gets the fittest member of the population.
+     *
+     * @return The heuristic with its weights, null before the population has been evaluated.
+     */
+    public PlacementHeuristic getBest() {
+        if (fitness == null) {
+            return null;
+        }
+        int best = 0;
+        for (int i = 1; i < fitness.length; i++) {
+            if (fitness[i] > fitness[best]) {
+                best = i;
+            }
+        }
+        return PlacementHeuristic.fromArray(population[best]);
+    }
+
+    /**
+     * Gets the fitness of the fittest member.
+     *
+     * @return The fitness, 0 before the population has been evaluated.
+     */
+    public double getBestFitness() {
+        return (fitness == null) ? 0 : Arrays.stream(fitness).max().orElse(0);
+    }
+
+    /**
+     * Getter for the number of generations done
+     * @return The generation.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Writes the state of the optimizer to a checkpoint.
+     * The file is written next to the target and moved over it, so a crash never leaves a half-written checkpoint.
+     * It is a small text file: the settings, then a line per member with its fitness and weights.
+     *
+     * @param path The file to write.
+     * @throws IOException If writing fails.
+     */
+    public void save(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            out.write("tetris-optimizer 1\n");
+            out.write(String.format(Locale.ROOT, "%d %d %d %d %d %d%n",
+                    generation, population.length, gamesPerMember, maxPieces, seed, threads));
+            for (int i = 0; i < population.length; i++) {
+                StringBuilder line = new StringBuilder();
+                line.append(fitness == null ? "NaN" : Double.toString(fitness[i]));
+                for (double w : population[i]) {
+                    line.append(' ').append(Double.toString(w));
+                }
+                out.write(line.append('\n').toString());
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads an optimizer back from a checkpoint written by {@link #save(Path)}.
+     *
+     * @param path The file to read.
+     * @return The optimizer, ready to continue.
+     * @throws IOException If reading fails or the file is not a checkpoint.
+     */
+    public static WeightOptimizer load(Path path) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            if (!"tetris-optimizer 1".equals(in.readLine())) {
+                throw new IOException("Not an optimizer checkpoint");
+            }
+            String[] head = in.readLine().trim().split(" ");
+            int size = Integer.parseInt(head[1]);
+            WeightOptimizer optimizer = new WeightOptimizer(size, Integer.parseInt(head[2]),
+                    Long.parseLong(head[3]), Long.parseLong(head[4]), Integer.parseInt(head[5]));
+            optimizer.generation = Integer.parseInt(head[0]);
+            double[] fitness = new double[size];
+            boolean evaluated = true;
+            for (int i = 0; i < size; i++) {
+                String line = in.readLine();
+                if (line == null) {
+                    throw new IOException("Checkpoint ends early");
+                }
+                String[] parts = line.trim().split(" ");
+                fitness[i] = Double.parseDouble(parts[0]);
+                evaluated &= !Double.isNaN(fitness[i]);
+                double[] w = new double[PlacementHeuristic.WEIGHTS];
+                for (int j = 0; j < w.length; j++) {
+                    w[j] = Double.parseDouble(parts[j + 1]);
+                }
+                optimizer.population[i] = w;
+            }
+            optimizer.fitness = evaluated ? fitness : null;
+            return optimizer;
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt optimizer checkpoint", e);
+        }
+    }
+
+    /**
+     * Runs the optimizer from the command line, resuming from the checkpoint if it exists, and prints the best weights after every generation.
+     * Options: --population P (100), --games G (5), --max-pieces M (500), --generations N (20), --seed S (1),
+     * --threads T (0: virtual threads or one per core), --checkpoint FILE (optimizer.txt).
+     *
+     * @param args The options.
+     * @throws IOException If the checkpoint can't be read or written.
+     * @throws InterruptedException If the main thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int populationSize = 100;
+        int games = 5;
+        long maxPieces = 500;
+        int generations = 20;
+        long seed = 1;
+        int threads = 0;
+        Path checkpoint = Path.of("optimizer.txt");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--population":
+                    populationSize = Integer.parseInt(value);
+                    break;
+                case "--games":
+                    games = Integer.parseInt(value);
+                    break;
+                case "--max-pieces":
+                    maxPieces = Long.parseLong(value);
+                    break;
+                case "--generations":
+                    generations = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "--checkpoint":
+                    checkpoint = Path.of(value);
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    return;
+            }
+        }
+        WeightOptimizer optimizer = Files.exists(checkpoint)
+                ? load(checkpoint)
+                : new WeightOptimizer(populationSize, games, maxPieces, seed, threads);
+        for (int gen = optimizer.getGeneration() + 1; gen <= generations; gen++) {
+            long start = System.nanoTime();
+            optimizer.run(gen, checkpoint);
+            System.out.printf(Locale.ROOT, "generation %d: best %.0f lines (%.1f s) %s%n", optimizer.getGeneration(),
+                    optimizer.getBestFitness(), (System.nanoTime() - start) / 1e9, optimizer.getBest());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class AllocationTest {
+    private static final int PIECES = 3000;
+    private static final int WARMUP = 500;
+
+    /**
+     * Plays a game with the autoplayer, which allocates, and records its placements.
+     */
+    private static Placement[] record(long seed) {
+        TetrisGame game = new TetrisGame(new BagRandomizer(seed));
+        AutoPlayer player = new AutoPlayer();
+        Placement[] placements = new Placement[PIECES];
+        for (int i = 0; i < PIECES; i++) {
+            game.step();
+            assertTrue(game.isGameOn());
+            placements[i] = player.choose(game);
+            placements[i].apply(game, game.getCurrTetro().getTopleft().getX());
+            game.getCurrTetro().moveDown();
+        }
+        return placements;
+    }
+
+    /**
+     * Replays placements like a player would, moving the Tetromino and waiting for gravity to lock it.
+     */
+    private static void replay(TetrisGame game, Placement[] placements, int from, int to) {
+        for (int i = from; i < to; i++) {
+            game.step();
+            Tetromino falling = game.getCurrTetro();
+            placements[i].apply(game, falling.getTopleft().getX());
+            while (falling.getActive()) {
+                game.step();
+            }
+        }
+    }
+
+    @Test
+    void testGameplayAllocatesNothing(){
+        assumeTrue(GameMetrics.threadAllocatedBytes() >= 0, "allocation counting not supported");
+        Placement[] placements = record(11);
+        TetrisGame game = new TetrisGame(new BagRandomizer(11));
+        DirtyRegion[] seen = {null};
+        game.setListener(changed -> seen[0] = changed); // the dirty regions are handed to a front end as well
+        replay(game, placements, 0, WARMUP);
+
+        long before = GameMetrics.threadAllocatedBytes();
+        replay(game, placements, WARMUP, PIECES);
+        long allocated = GameMetrics.threadAllocatedBytes() - before;
+
+        assertTrue(game.isGameOn());
+        assertTrue(game.getScore() > 0);
+        assertEquals(0, allocated, "bytes allocated by " + (PIECES - WARMUP) + " pieces");
+    }
+}
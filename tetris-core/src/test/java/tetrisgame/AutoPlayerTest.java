@@ -0,0 +1,70 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class AutoPlayerTest {
+
+    @Test
+    void testHeuristicFeatures(){
+        BitBoard board = new BitBoard(10, 20);
+        board.set(0, 19, (byte) 1);
+        board.set(0, 17, (byte) 1); // one hole under it
+        board.set(1, 19, (byte) 1);
+        assertEquals(1, PlacementHeuristic.countHoles(board));
+        PlacementHeuristic heightOnly = new PlacementHeuristic(0, 1, 0, 0);
+        assertEquals(4, heightOnly.evaluate(board, 0));
+        PlacementHeuristic bumpsOnly = new PlacementHeuristic(0, 0, 0, 1);
+        assertEquals(3, bumpsOnly.evaluate(board, 0)); // 3-1 and 1-0
+        assertEquals(2.0, new PlacementHeuristic(1, 0, 0, 0).evaluate(board, 2));
+    }
+
+    @Test
+    void testChooseNeedsActivePiece(){
+        TetrisGame game = new TetrisGame(1L);
+        assertNull(new AutoPlayer().choose(game));
+        game.step();
+        assertNotNull(new AutoPlayer().choose(game));
+    }
+
+    @Test
+    void testParallelMatchesSequential(){
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (boolean lookahead : new boolean[]{false, true}) {
+                AutoPlayer sequential = new AutoPlayer(PlacementHeuristic.DEFAULT, lookahead, null);
+                AutoPlayer parallel = new AutoPlayer(PlacementHeuristic.DEFAULT, lookahead, pool);
+                TetrisGame game = new TetrisGame(11L);
+                for (int i = 0; i < 30 && game.isGameOn(); i++) {
+                    if (!game.getCurrTetro().getActive()) {
+                        game.step();
+                    }
+                    Placement a = sequential.choose(game);
+                    Placement b = parallel.choose(game);
+                    if (a != null) {
+                        assertEquals(a.getTurns(), b.getTurns());
+                        assertEquals(a.getX(), b.getX());
+                    }
+                    sequential.playPiece(game);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testPlaysAndClearsLines(){
+        TetrisGame game = new TetrisGame(new BagRandomizer(3L));
+        long pieces = new AutoPlayer().playGame(game, 500);
+        assertEquals(500, pieces);
+        assertTrue(game.isGameOn());
+        assertTrue(game.getScore() >= 100 * 150); // 500 pieces fill 200 rows, most of them get cleared
+    }
+}
@@ -0,0 +1,288 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class BitBoardTest {
+    private BitBoard board = new BitBoard(10, 20);
+    private ShapeTable.Orientation square = ShapeTable.get(0, 0);
+
+    @Test
+    void testEmpty(){
+        assertFalse(board.isOccupied(0, 0));
+        assertFalse(board.isTopReached());
+        assertEquals(0, board.getColor(5, 5));
+        assertThrows(IllegalArgumentException.class, () -> new BitBoard(BitBoard.MAX_WIDTH + 1, 20));
+    }
+
+    @Test
+    void testLockAndCollide(){
+        assertFalse(board.collides(square, 4, 18));
+        board.lock(square, 4, 18, (byte) 1);
+        assertTrue(board.isOccupied(5, 19));
+        assertEquals(1, board.getColor(4, 18));
+        assertTrue(board.collides(square, 5, 17));
+        assertFalse(board.collides(square, 6, 17));
+    }
+
+    @Test
+    void testFits(){
+        assertTrue(board.fits(square, 8, 18));
+        assertFalse(board.fits(square, 9, 18));
+        assertFalse(board.fits(square, 0, 19));
+        board.set(0, 0, (byte) 2);
+        assertFalse(board.fits(square, 0, 0));
+    }
+
+    @Test
+    void testDeleteRow(){
+        for(int col = 0; col < 10; col++){
+            board.set(col, 19, (byte) 3);
+        }
+        board.set(2, 18, (byte) 4);
+        assertTrue(board.isRowFull(19));
+        assertFalse(board.isRowFull(18));
+        board.deleteRow(19);
+        assertFalse(board.isRowFull(19));
+        assertTrue(board.isOccupied(2, 19));
+        assertEquals(4, board.getColor(2, 19));
+        assertEquals(0, board.getRow(18));
+    }
+
+    @Test
+    void testClearFullRows(){
+        for(int col = 0; col < 10; col++){
+            board.set(col, 19, (byte) 1);
+            board.set(col, 17, (byte) 1);
+        }
+        board.set(3, 18, (byte) 5);
+        board.set(7, 16, (byte) 6);
+        assertEquals(10, board.getFill(17));
+        assertEquals(0, board.clearFullRows(14, 16));
+        assertEquals(2, board.clearFullRows(16, 19));
+        assertEquals(5, board.getColor(3, 19));
+        assertEquals(6, board.getColor(7, 18));
+        assertEquals(1, board.getFill(19));
+        assertEquals(0, board.getRow(17));
+        assertFalse(board.isTopReached());
+    }
+
+    @Test
+    void testRingWraps(){
+        // clear the bottom row many times so the ring goes around more than once
+        board.set(0, 18, (byte) 2);
+        for(int round = 0; round < 45; round++){
+            for(int col = 0; col < 10; col++){
+                board.set(col, 19, (byte) 1);
+            }
+            assertTrue(board.isRowFull(19));
+            assertEquals(1, board.clearFullRows(19, 19));
+            assertTrue(board.isOccupied(0, 19));
+            assertEquals(2, board.getColor(0, 19));
+            board.deleteRow(19);
+            board.set(0, 18, (byte) 2);
+        }
+        for(int row = 0; row < 18; row++){
+            assertEquals(0, board.getRow(row));
+        }
+    }
+
+    @Test
+    void testSkyline(){
+        assertEquals(20, board.getSkyline(3));
+        board.lock(square, 3, 17, (byte) 1);
+        assertEquals(17, board.getSkyline(3));
+        assertEquals(17, board.getSkyline(4));
+        board.set(3, 10, (byte) 1);
+        assertEquals(10, board.getSkyline(3));
+        board.clear(3, 10);
+        assertEquals(17, board.getSkyline(3));
+        board.deleteRow(19);
+        assertEquals(18, board.getSkyline(3));
+        board.deleteRow(19);
+        board.deleteRow(19);
+        assertEquals(20, board.getSkyline(3));
+    }
+
+    @Test
+    void testDropDistance(){
+        assertEquals(18, board.dropDistance(square, 4, 0));
+        board.set(5, 10, (byte) 1);
+        assertEquals(8, board.dropDistance(square, 4, 0));
+        assertEquals(0, board.dropDistance(square, 4, 8));
+        assertEquals(7, board.dropDistance(square, 4, 11)); // under the overhang, falls back to stepping
+    }
+
+    @Test
+    void testDropMatchesStepping(){
+        Random random = new Random(5);
+        for(int round = 0; round < 200; round++){
+            BitBoard b = new BitBoard(10, 20);
+            for(int i = 0; i < 40; i++){
+                b.set(random.nextInt(10), 8 + random.nextInt(12), (byte) 1);
+            }
+            if(random.nextBoolean()){
+                b.clearFullRows(0, 19);
+                b.deleteRow(19);
+            }
+            ShapeTable.Orientation o = ShapeTable.get(random.nextInt(7), random.nextInt(4));
+            int x = -o.getMinX() + random.nextInt(10 - (o.getMaxX() - o.getMinX()));
+            int y = -o.getMinY();
+            if(b.collides(o, x, y)){
+                continue;
+            }
+            int steps = 0;
+            while(y + steps + o.getMaxY() < 19 && !b.collides(o, x, y + steps + 1)){
+                steps++;
+            }
+            assertEquals(steps, b.dropDistance(o, x, y));
+        }
+    }
+
+    @Test
+    void testAcrossWords(){
+        BitBoard wide = new BitBoard(1000, 1000);
+        assertEquals(16, wide.getWords());
+        assertFalse(wide.collides(square, 63, 998));
+        wide.lock(square, 63, 998, (byte) 3);
+        assertTrue(wide.isOccupied(63, 999));
+        assertTrue(wide.isOccupied(64, 999));
+        assertEquals(1L << 63, wide.getRowWord(999, 0));
+        assertEquals(1L, wide.getRowWord(999, 1));
+        assertTrue(wide.collides(square, 64, 997));
+        assertTrue(wide.collides(square, 62, 997));
+        assertFalse(wide.collides(square, 65, 997));
+        assertFalse(wide.fits(square, 999, 0));
+        assertEquals(998, wide.getSkyline(64));
+        assertEquals(996, wide.dropDistance(square, 64, 0));
+    }
+
+    @Test
+    void testClearWideRows(){
+        BitBoard wide = new BitBoard(1000, 1000);
+        wide.set(500, 997, (byte) 2);
+        for (int x = 0; x < wide.getWidth(); x++) {
+            wide.set(x, 998, (byte) 1);
+            wide.set(x, 999, (byte) 1);
+        }
+        assertEquals(2, wide.clearFullRows(998, 999));
+        assertTrue(wide.isOccupied(500, 999));
+        assertEquals(1, wide.getFill(999));
+        assertEquals(0, wide.getFill(998));
+        assertEquals(999, wide.getSkyline(500));
+        assertEquals(1000, wide.getSkyline(0));
+    }
+
+    @Test
+    void testCopyRowsFrom(){
+        BitBoard wide = new BitBoard(200, 50);
+        BitBoard copy = new BitBoard(200, 50);
+        wide.set(150, 40, (byte) 4);
+        wide.set(10, 49, (byte) 5);
+        copy.copyRowsFrom(wide, 40, 40);
+        assertTrue(copy.isOccupied(150, 40));
+        assertFalse(copy.isOccupied(10, 49)); // not copied
+        assertEquals(4, copy.getColor(150, 40));
+        copy.copyRowsFrom(wide, 0, 49);
+        for (int y = 0; y < wide.getHeight(); y++) {
+            for (int w = 0; w < wide.getWords(); w++) {
+                assertEquals(wide.getRowWord(y, w), copy.getRowWord(y, w));
+            }
+        }
+        assertEquals(wide.getSkyline(10), copy.getSkyline(10));
+    }
+
+    @Test
+    void testClearsMatchModelOnBothSides(){
+        // low stacks near the floor of a tall board compact above the cleared rows, clears high up in a tall stack compact below them
+        Random random = new Random(11);
+        for(int round = 0; round < 300; round++){
+            int height = 8 + random.nextInt(40);
+            BitBoard b = new BitBoard(6, height);
+            byte[][] model = new byte[height][6];
+            int stackTop = random.nextInt(height);
+            for(int y = stackTop; y < height; y++){
+                for(int x = 0; x < 6; x++){
+                    if(random.nextInt(4) != 0){
+                        byte color = (byte) (1 + random.nextInt(7));
+                        b.set(x, y, color);
+                        model[y][x] = color;
+                    }
+                }
+                if(random.nextInt(3) == 0){
+                    for(int x = 0; x < 6; x++){
+                        b.set(x, y, (byte) 1);
+                        model[y][x] = 1;
+                    }
+                }
+            }
+            for(int op = 0; op < 6; op++){
+                // the same board goes through several changes, so the kept skyline and stack top are what the next one starts from
+                int from = random.nextInt(height);
+                int to = Math.min(height - 1, from + random.nextInt(4));
+                int kind = random.nextInt(3);
+                if(kind == 0){
+                    int cleared = 0;
+                    for(int y = from; y <= to; y++){
+                        if(isFull(model[y])){
+                            removeRow(model, y);
+                            cleared++;
+                        }
+                    }
+                    assertEquals(cleared, b.clearFullRows(from, to));
+                } else if(kind == 1){
+                    b.deleteRow(from);
+                    removeRow(model, from);
+                } else {
+                    for(int x = 0; x < 6; x++){
+                        b.clear(x, from);
+                        model[from][x] = 0;
+                    }
+                }
+                assertMatches(b, model, "round " + round + " op " + op);
+            }
+        }
+    }
+
+    private static void assertMatches(BitBoard b, byte[][] model, String what){
+        int height = model.length;
+        for(int y = 0; y < height; y++){
+            int fill = 0;
+            for(int x = 0; x < 6; x++){
+                assertEquals(model[y][x], b.getColor(x, y), what + " at " + x + "," + y);
+                assertEquals(model[y][x] != 0, b.isOccupied(x, y));
+                fill += model[y][x] != 0 ? 1 : 0;
+            }
+            assertEquals(fill, b.getFill(y));
+        }
+        for(int x = 0; x < 6; x++){
+            int top = 0;
+            while(top < height && model[top][x] == 0){
+                top++;
+            }
+            assertEquals(top, b.getSkyline(x), what + " column " + x);
+        }
+    }
+
+    private static boolean isFull(byte[] row){
+        for(byte c : row){
+            if(c == 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void removeRow(byte[][] model, int y){
+        for(int i = y; i > 0; i--){
+            model[i] = model[i - 1];
+        }
+        model[0] = new byte[model[0].length];
+    }
+}
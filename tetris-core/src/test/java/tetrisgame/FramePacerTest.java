@@ -0,0 +1,34 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class FramePacerTest {
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void testWaitsForTheNextSlot() {
+        FramePacer pacer = new FramePacer(100);
+        assertEquals(10 * MILLIS, pacer.getPeriodNanos());
+        pacer.start(0);
+        assertEquals(7 * MILLIS, pacer.frameDone(3 * MILLIS, true));
+        assertEquals(10 * MILLIS, pacer.frameDone(10 * MILLIS, false));
+        assertEquals(0, pacer.frameDone(30 * MILLIS, true)); // done right at the end of its slot
+        assertEquals(0, pacer.getDroppedFrames());
+    }
+
+    @Test
+    void testCountsDroppedFrames() {
+        long dropped = GameMetrics.get().getDroppedFrames();
+        FramePacer pacer = new FramePacer(100);
+        pacer.start(0);
+        assertEquals(6 * MILLIS, pacer.frameDone(14 * MILLIS, true)); // ran past one refresh, starts again on the next slot
+        assertEquals(1, pacer.getDroppedFrames());
+        assertEquals(5 * MILLIS, pacer.frameDone(55 * MILLIS, true)); // ran past three more
+        assertEquals(4, pacer.getDroppedFrames());
+        assertEquals(9 * MILLIS, pacer.frameDone(61 * MILLIS, true));
+        assertEquals(4, pacer.getDroppedFrames());
+        assertEquals(4, GameMetrics.get().getDroppedFrames() - dropped);
+    }
+}
@@ -0,0 +1,193 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class InputControllerTest {
+    private static final long MS = 1_000_000L;
+
+    /**
+     * Records the moves as characters, like the autopilot does.
+     */
+    private static final class Recorder implements PieceControls {
+        final StringBuilder moves = new StringBuilder();
+
+        @Override
+        public void moveLeft() {
+            moves.append('L');
+        }
+
+        @Override
+        public void moveRight() {
+            moves.append('R');
+        }
+
+        @Override
+        public void moveDown() {
+            moves.append('D');
+        }
+
+        @Override
+        public void rotate() {
+            moves.append('U');
+        }
+
+        @Override
+        public void pushDown() {
+            moves.append('P');
+        }
+    }
+
+    @Test
+    void testQueueWrapsAndFills(){
+        InputQueue q = new InputQueue(3);
+        assertEquals(4, q.getCapacity());
+        assertTrue(q.isEmpty());
+        assertEquals(-1, q.peekCommand());
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(q.offer(i, 100 + i));
+            }
+            assertFalse(q.offer(9, 0));
+            for (int i = 0; i < 4; i++) {
+                assertEquals(i, q.peekCommand());
+                assertEquals(100 + i, q.peekTime());
+                q.remove();
+            }
+            assertTrue(q.isEmpty());
+        }
+    }
+
+    @Test
+    void testConcurrentQueue() throws InterruptedException {
+        InputQueue q = new InputQueue(16);
+        int total = 100_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < total; i++) {
+                while (!q.offer(i & 0x7F, i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        for (int i = 0; i < total; i++) {
+            while (q.isEmpty()) {
+                Thread.yield();
+            }
+            assertEquals(i & 0x7F, q.peekCommand());
+            assertEquals(i, q.peekTime());
+            q.remove();
+        }
+        producer.join();
+        assertTrue(q.isEmpty());
+    }
+
+    @Test
+    void testTapMovesOnce(){
+        InputController c = new InputController(100, 20, 8);
+        Recorder r = new Recorder();
+        c.press(InputController.LEFT, 5 * MS);
+        c.press(InputController.ROTATE, 6 * MS);
+        c.release(InputController.LEFT, 30 * MS);
+        c.press(InputController.DROP, 40 * MS);
+        assertEquals(5 * MS, c.pendingTime());
+        c.update(500 * MS, r);
+        assertEquals("LUP", r.moves.toString());
+        assertEquals(0, c.pendingTime());
+    }
+
+    @Test
+    void testDelayedAutoShift(){
+        InputController c = new InputController(100, 20, 8);
+        Recorder r = new Recorder();
+        c.press(InputController.RIGHT, 0);
+        c.update(10 * MS, r);
+        assertEquals("R", r.moves.toString());
+        c.press(InputController.RIGHT, 50 * MS); // a key repeat of the OS
+        c.update(99 * MS, r);
+        assertEquals("R", r.moves.toString());
+        c.update(100 * MS, r);
+        assertEquals("RR", r.moves.toString());
+        c.update(165 * MS, r); // repeats due at 120, 140 and 160
+        assertEquals("RRRRR", r.moves.toString());
+        c.release(InputController.RIGHT, 170 * MS);
+        c.update(400 * MS, r);
+        assertEquals("RRRRR", r.moves.toString());
+    }
+
+    @Test
+    void testX11AutorepeatKeepsDelay(){
+        InputController c = new InputController(100, 20, 8);
+        Recorder r = new Recorder();
+        c.press(InputController.RIGHT, 0);
+        c.update(10 * MS, r);
+        c.release(InputController.RIGHT, 50 * MS); // X11 repeats a held key with a release and a press at the same time
+        c.update(55 * MS, r);
+        c.press(InputController.RIGHT, 50 * MS);
+        c.update(99 * MS, r);
+        assertEquals("R", r.moves.toString());
+        c.update(100 * MS, r);
+        assertEquals("RR", r.moves.toString());
+        c.release(InputController.RIGHT, 110 * MS);
+        c.update(115 * MS, r);
+        c.update(400 * MS, r);
+        assertEquals("RR", r.moves.toString()); // a real release stops the repeats
+        c.press(InputController.RIGHT, 401 * MS);
+        c.update(410 * MS, r);
+        assertEquals("RRR", r.moves.toString());
+    }
+
+    @Test
+    void testRepeatLimitFollowsBoardWidth(){
+        InputController c = new InputController(0, 0, 8, 100);
+        Recorder r = new Recorder();
+        c.press(InputController.LEFT, 0);
+        c.update(0, r);
+        assertEquals(101, r.moves.length());
+    }
+
+    @Test
+    void testOtherDirectionTakesOver(){
+        InputController c = new InputController(100, 20, 8);
+        Recorder r = new Recorder();
+        c.press(InputController.LEFT, 0);
+        c.press(InputController.RIGHT, 10 * MS);
+        c.update(50 * MS, r);
+        assertEquals("LR", r.moves.toString());
+        c.release(InputController.RIGHT, 60 * MS);
+        c.update(150 * MS, r);
+        assertEquals("LR", r.moves.toString());
+        c.update(160 * MS, r);
+        assertEquals("LRL", r.moves.toString());
+    }
+
+    @Test
+    void testZeroRepeatRateAndSoftDrop(){
+        InputController c = new InputController(0, 0, 8);
+        Recorder r = new Recorder();
+        c.press(InputController.LEFT, 0);
+        c.update(0, r);
+        assertEquals(1 + InputController.MAX_REPEATS, r.moves.length());
+        c.reset();
+        r.moves.setLength(0);
+        c.press(InputController.DOWN, 0);
+        c.update(0, r);
+        c.update(10 * MS, r);
+        assertEquals("DDD", r.moves.toString()); // a soft drop a tick
+    }
+
+    @Test
+    void testDrivesGame(){
+        TetrisGame game = new TetrisGame(3L);
+        game.step();
+        InputController c = new InputController();
+        c.press(InputController.LEFT, 0);
+        c.update(InputController.DEFAULT_DAS_MILLIS * MS * 10, game);
+        Tetromino t = game.getCurrTetro();
+        ShapeTable.Orientation o = ShapeTable.get(t.getShape().getType(), t.getShape().getRotation());
+        assertEquals(0, t.getTopleft().getX() + o.getMinX()); // shifted to the wall
+    }
+}
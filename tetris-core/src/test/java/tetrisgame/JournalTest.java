@@ -0,0 +1,118 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JournalTest {
+    @TempDir
+    Path dir;
+
+    /**
+     * Plays a journaled game with the autoplayer, keeping a copy of the board after every locked Tetromino.
+     */
+    private static TetrisGame play(Journal journal, TetrisGame game, int pieces, List<BitBoard> boards) {
+        game.setListener(new GameListener() {
+            @Override
+            public void boardChanged(DirtyRegion changed) {
+            }
+
+            @Override
+            public void pieceLocked(Tetromino locked) {
+                journal.pieceLocked(game, locked);
+                boards.add(new BitBoard(game.getBoard()));
+            }
+        });
+        AutoPlayer player = new AutoPlayer();
+        for (int i = 0; i < pieces; i++) {
+            assertTrue(player.playPiece(game));
+        }
+        return game;
+    }
+
+    private static void assertSameBoard(BitBoard a, BitBoard b) {
+        for (int y = 0; y < a.getHeight(); y++) {
+            assertEquals(a.getRow(y), b.getRow(y));
+            for (int x = 0; x < a.getWidth(); x++) {
+                assertEquals(a.getColor(x, y), b.getColor(x, y));
+            }
+        }
+    }
+
+    @Test
+    void testRecoversAfterCheckpoints() throws IOException {
+        TetrisGame game = new TetrisGame(new BagRandomizer(4));
+        Journal journal = Journal.start(dir, game, 64);
+        List<BitBoard> boards = new ArrayList<>();
+        play(journal, game, 150, boards);
+        journal.close();
+        assertEquals(boards.size(), journal.getPieces());
+
+        TetrisGame recovered = Journal.recover(dir);
+        assertNotNull(recovered);
+        assertSameBoard(game.getBoard(), recovered.getBoard());
+        assertEquals(game.getScore(), recovered.getScore());
+        assertEquals(game.getNextTetro().getType(), recovered.getNextTetro().getType());
+        assertFalse(Files.exists(dir.resolve("journal-0.log"))); // compacted into the checkpoint
+        for (int i = 0; i < 20; i++) {
+            game.changeTetro();
+            recovered.changeTetro();
+            assertEquals(game.getNextTetro().getType(), recovered.getNextTetro().getType());
+        }
+    }
+
+    @Test
+    void testTornRecordEndsReplay() throws IOException {
+        TetrisGame game = new TetrisGame(new BagRandomizer(8));
+        Journal journal = Journal.start(dir, game, 64);
+        List<BitBoard> boards = new ArrayList<>();
+        play(journal, game, 100, boards);
+        journal.close();
+
+        Path segment = dir.resolve("journal-64.log");
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[Journal.HEADER_BYTES + 10 * Journal.RECORD_BYTES + 2] ^= 0x10;
+        Files.write(segment, bytes);
+        TetrisGame recovered = Journal.recover(dir);
+        assertSameBoard(boards.get(64 + 10 - 1), recovered.getBoard());
+    }
+
+    @Test
+    void testCheckpointsFasterThanSpareSegments() throws IOException {
+        TetrisGame game = new TetrisGame(new BagRandomizer(6));
+        Journal journal = Journal.start(dir, game, 1); // a checkpoint on every lock, mostly before the writer has a spare ready
+        List<BitBoard> boards = new ArrayList<>();
+        play(journal, game, 200, boards);
+        journal.close();
+        assertEquals(200, journal.getPieces());
+
+        TetrisGame recovered = Journal.recover(dir);
+        assertNotNull(recovered);
+        assertSameBoard(game.getBoard(), recovered.getBoard());
+        assertEquals(game.getNextTetro().getType(), recovered.getNextTetro().getType());
+    }
+
+    @Test
+    void testDiscard() throws Exception {
+        TetrisGame game = new TetrisGame(5L);
+        Journal journal = Journal.start(dir, game);
+        assertTrue(Journal.exists(dir));
+        journal.discard();
+        for (int i = 0; i < 100 && Journal.exists(dir); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(Journal.exists(dir));
+        assertNull(Journal.recover(dir));
+    }
+}
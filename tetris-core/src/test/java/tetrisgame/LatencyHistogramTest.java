@@ -0,0 +1,85 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void testBuckets(){
+        for (long v : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 1000, 123456789L, Long.MAX_VALUE}) {
+            int b = LatencyHistogram.bucket(v);
+            assertTrue(LatencyHistogram.upperBound(b) >= v);
+            assertTrue(b == 0 || LatencyHistogram.upperBound(b - 1) < v);
+        }
+    }
+
+    @Test
+    void testPercentiles(){
+        LatencyHistogram h = new LatencyHistogram("test");
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i * 1000L);
+        }
+        assertEquals(1000, h.getCount());
+        assertEquals(1_000_000L, h.getMax());
+        assertEquals(500_500.0, h.getMean(), 1e-6);
+        long p50 = h.getPercentile(50);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 1.125, "p50 " + p50);
+        long p99 = h.getPercentile(99);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000, "p99 " + p99);
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getPercentile(50));
+    }
+
+    @Test
+    void testConcurrentRecording() throws InterruptedException {
+        LatencyHistogram h = new LatencyHistogram("test");
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    h.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, h.getCount());
+        assertEquals(9_999, h.getMax());
+    }
+
+    @Test
+    void testGameMetricsMBean() throws Exception {
+        GameMetrics metrics = GameMetrics.get();
+        long pieces = metrics.getPieces();
+        long ticks = metrics.getTickCount();
+        TetrisGame game = new TetrisGame(4L);
+        game.step();
+        game.pushDown();
+        game.moveDown();
+        assertEquals(pieces + 1, metrics.getPieces());
+        assertTrue(metrics.getTickCount() > ticks);
+        assertTrue(metrics.getLocks() > 0);
+
+        GameMetrics.register();
+        GameMetrics.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(GameMetrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+        assertTrue((Long) server.getAttribute(name, "Pieces") > 0);
+        String dump = (String) server.invoke(name, "dump", null, null);
+        assertTrue(dump.contains("key-to-pixel"));
+    }
+}
@@ -0,0 +1,75 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class RandomizerTest {
+
+    @Test
+    void testPureMatchesRandom() {
+        Random random = new Random(12345L);
+        Randomizer pure = new PureRandomizer(12345L);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(random.nextInt(7), pure.next());
+        }
+    }
+
+    @Test
+    void testBagDealsEveryShape() {
+        Randomizer bag = new BagRandomizer(99L);
+        int[] sequence = new int[7 * 50];
+        bag.next(sequence, 0, sequence.length);
+        for (int start = 0; start < sequence.length; start += 7) {
+            int[] one = Arrays.copyOfRange(sequence, start, start + 7);
+            Arrays.sort(one);
+            assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6}, one);
+        }
+    }
+
+    @Test
+    void testHistoryFirstShape() {
+        for (long seed = 0; seed < 50; seed++) {
+            int first = new HistoryRandomizer(seed).next();
+            assertNotEquals(0, first); // O
+            assertNotEquals(2, first); // S
+            assertNotEquals(6, first); // Z
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Randomizer.Kind.class)
+    void testSameSeedSameSequence(Randomizer.Kind kind) {
+        int[] a = new int[500];
+        int[] b = new int[500];
+        kind.create(42L).next(a, 0, a.length);
+        kind.create(42L).next(b, 0, b.length);
+        assertArrayEquals(a, b);
+        assertEquals(kind, kind.create(1L).getKind());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Randomizer.Kind.class)
+    void testStateContinuesSequence(Randomizer.Kind kind) {
+        Randomizer original = kind.create(2024L);
+        for (int i = 0; i < 10; i++) {
+            original.next();
+        }
+        ByteBuffer state = ByteBuffer.allocate(original.stateBytes());
+        original.writeState(state);
+        state.flip();
+        Randomizer restored = kind.create(0L);
+        restored.readState(state);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(original.next(), restored.next());
+        }
+    }
+}
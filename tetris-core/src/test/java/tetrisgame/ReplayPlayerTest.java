@@ -0,0 +1,123 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ReplayPlayerTest {
+    private static final long MILLIS = 1_000_000L;
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+
+    /**
+     * Records a game of a few thousand ticks which drops a Tetromino now and then.
+     */
+    @BeforeEach
+    void record() throws IOException {
+        file = dir.resolve("game.ttr");
+        TetrisGame game = new TetrisGame(new BagRandomizer(5));
+        ReplayRecorder recorder = new ReplayRecorder(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE), game, 250);
+        game.setRecorder(recorder);
+        Random random = new Random(9);
+        for (int t = 0; t < 4000; t++) {
+            int r = random.nextInt(40);
+            if (r == 0) {
+                game.pushDown();
+            } else if (r == 1) {
+                game.moveLeft();
+            } else if (r == 2) {
+                game.rotate();
+            }
+            game.step();
+        }
+        recorder.close();
+    }
+
+    private ReplayReader open() throws IOException {
+        return new ReplayReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    private static void assertShows(TetrisGame game, GameSnapshot snapshot) {
+        BitBoard board = game.getBoard();
+        for (int y = 0; y < board.getHeight(); y++) {
+            assertEquals(board.getRow(y), snapshot.getBoard().getRow(y), "row " + y);
+        }
+        assertEquals(game.getScore(), snapshot.getScore());
+        assertEquals(game.getCurrTetro().getTopleft().getY(), snapshot.getPieceY());
+        assertEquals(game.getCurrTetro().getTopleft().getX(), snapshot.getPieceX());
+    }
+
+    @Test
+    void testPlaysAtSpeedAndSkipsFrames() throws IOException {
+        try (ReplayReader reader = open(); ReplayReader check = open()) {
+            ReplayPlayer player = new ReplayPlayer(reader, null);
+            player.pause();
+            long base = 1_000 * MILLIS;
+            player.tick(base);
+            assertEquals(0, player.getTick());
+
+            player.setSpeed(4);
+            player.play();
+            player.tick(base + 50 * MILLIS);
+            assertEquals(20, player.getTick()); // 50 ms at 4x is 200 ms of play, 20 ticks
+            assertEquals(19, player.getSkippedTicks());
+            assertShows(check.seek(20).getGame(), player.latest());
+
+            player.setSpeed(1000);
+            assertEquals(ReplayPlayer.MAX_SPEED, player.getSpeed());
+            player.tick(base + 66 * MILLIS);
+            assertEquals(20 + 102, player.getTick());
+            assertShows(check.seek(122).getGame(), player.latest());
+
+            player.setSpeed(0.01);
+            assertEquals(ReplayPlayer.MIN_SPEED, player.getSpeed());
+            player.faster();
+            assertEquals(0.5, player.getSpeed());
+        }
+    }
+
+    @Test
+    void testSeekPieceAndEnd() throws IOException {
+        try (ReplayReader reader = open(); ReplayReader check = open()) {
+            ReplayPlayer player = new ReplayPlayer(reader, null);
+            player.pause();
+            player.tick(0);
+            long version = player.latest().getVersion();
+
+            player.seekPiece(12);
+            player.tick(MILLIS);
+            ReplayReader.Cursor expected = check.seekPiece(12);
+            assertEquals(expected.getTick(), player.getTick());
+            assertEquals(11, player.getGame().getPieces());
+            assertTrue(player.latest().getVersion() > version);
+            assertShows(expected.getGame(), player.latest());
+
+            player.skip(-100);
+            player.tick(2 * MILLIS);
+            assertEquals(expected.getTick() - 100, player.getTick());
+            assertShows(check.seek(expected.getTick() - 100).getGame(), player.latest());
+
+            player.seek(reader.getEndTick() - 3);
+            player.setSpeed(ReplayPlayer.MAX_SPEED);
+            player.play();
+            player.tick(5_000 * MILLIS);
+            assertEquals(reader.getEndTick(), player.getTick());
+            assertFalse(player.isPlaying());
+            assertShows(check.seek(reader.getEndTick()).getGame(), player.latest());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ReplayTest {
+    private static final int TICKS = 6000;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * What a game looked like at a tick.
+     */
+    private static final class Frame {
+        final long[] rows;
+        final int score;
+        final int x;
+        final int y;
+        final int rotation;
+        final boolean paused;
+        final long pieces;
+        final boolean falling;
+
+        Frame(TetrisGame game) {
+            BitBoard board = game.getBoard();
+            rows = new long[board.getHeight()];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = board.getRow(i);
+            }
+            score = game.getScore();
+            x = game.getCurrTetro().getTopleft().getX();
+            y = game.getCurrTetro().getTopleft().getY();
+            rotation = game.getCurrTetro().getShape().getRotation();
+            paused = game.isPaused();
+            pieces = game.getPieces();
+            falling = game.getCurrTetro().getActive();
+        }
+
+        void assertShows(TetrisGame game, long tick) {
+            Frame other = new Frame(game);
+            for (int i = 0; i < rows.length; i++) {
+                assertEquals(rows[i], other.rows[i], "row " + i + " at tick " + tick);
+            }
+            assertEquals(score, other.score);
+            assertEquals(x, other.x, "x at tick " + tick);
+            assertEquals(y, other.y, "y at tick " + tick);
+            assertEquals(rotation, other.rotation);
+            assertEquals(paused, other.paused);
+        }
+    }
+
+    /**
+     * Records a game with random moves and a pause now and then, keeping a frame of every tick.
+     */
+    private Path record(List<Frame> frames, int keyframeTicks) throws IOException {
+        Path file = dir.resolve("game.ttr");
+        TetrisGame game = new TetrisGame(new BagRandomizer(11));
+        ReplayRecorder recorder = new ReplayRecorder(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE), game, keyframeTicks);
+        game.setRecorder(recorder);
+        Random random = new Random(3);
+        for (int t = 0; t < TICKS; t++) {
+            if (random.nextInt(8) == 0) {
+                switch (random.nextInt(5)) {
+                    case 0: game.moveLeft(); break;
+                    case 1: game.moveRight(); break;
+                    case 2: game.moveDown(); break;
+                    case 3: game.rotate(); break;
+                    default: game.pushDown(); break;
+                }
+            }
+            if (t % 1500 == 700) {
+                game.pause();
+            } else if (t % 1500 == 760) {
+                game.resume();
+            }
+            frames.add(new Frame(game));
+            game.step();
+        }
+        frames.add(new Frame(game));
+        recorder.close();
+        return file;
+    }
+
+    @Test
+    void testSeekMatchesRecording() throws IOException {
+        List<Frame> frames = new ArrayList<>();
+        Path file = record(frames, 250);
+        try (ReplayReader reader = new ReplayReader(FileChannel.open(file, StandardOpenOption.READ))) {
+            assertEquals(TICKS, reader.getEndTick());
+            assertEquals(TICKS / 250, reader.getKeyframeCount());
+            long[] ticks = {TICKS, 0, 1, 249, 250, 251, 3333, 740, 1234, 5999};
+            for (long t : ticks) {
+                frames.get((int) t).assertShows(reader.seek(t).getGame(), t);
+            }
+            ReplayReader.Cursor cursor = reader.seek(100);
+            for (long t = 100; t <= TICKS; t += 37) {
+                cursor.advanceTo(t);
+                frames.get((int) t).assertShows(cursor.getGame(), t);
+            }
+        }
+    }
+
+    @Test
+    void testSeekPiece() throws IOException {
+        List<Frame> frames = new ArrayList<>();
+        Path file = record(frames, 250);
+        long last = frames.get(TICKS).pieces;
+        assertTrue(last > 50, "only " + last + " pieces locked");
+        try (ReplayReader reader = new ReplayReader(FileChannel.open(file, StandardOpenOption.READ))) {
+            for (long piece : new long[] {1, 2, 7, 30, last / 2, last, last + 1}) {
+                int expected = 0;
+                while (expected < TICKS && !(frames.get(expected).pieces >= piece - 1 && frames.get(expected).falling)) {
+                    expected++;
+                }
+                ReplayReader.Cursor cursor = reader.seekPiece(piece);
+                assertEquals(expected, cursor.getTick(), "piece " + piece);
+                assertEquals(frames.get(expected).pieces, cursor.getGame().getPieces());
+                frames.get(expected).assertShows(cursor.getGame(), expected);
+            }
+        }
+    }
+
+    @Test
+    void testSmallFile() throws IOException {
+        Path file = record(new ArrayList<>(), ReplayRecorder.DEFAULT_KEYFRAME_TICKS);
+        assertTrue(Files.size(file) < 3000, "replay of a minute of play is " + Files.size(file) + " bytes");
+    }
+
+    @Test
+    void testReadsUpToATornChunk() throws IOException {
+        List<Frame> frames = new ArrayList<>();
+        Path file = record(frames, 1000);
+        byte[] bytes = Files.readAllBytes(file);
+        Path torn = dir.resolve("torn.ttr");
+        Files.write(torn, Arrays.copyOf(bytes, bytes.length - 5));
+        try (ReplayReader reader = new ReplayReader(FileChannel.open(torn, StandardOpenOption.READ))) {
+            assertEquals(TICKS - 1000, reader.getEndTick());
+            frames.get(4500).assertShows(reader.seek(4500).getGame(), 4500);
+        }
+        Files.write(torn, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14});
+        assertThrows(IOException.class, () -> new ReplayReader(FileChannel.open(torn, StandardOpenOption.READ)));
+    }
+
+    @Test
+    void testStopsAtAnImpossibleChunkLength() throws IOException {
+        Path file = record(new ArrayList<>(), 1000);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        int at = ReplayRecorder.HEADER_BYTES;
+        int last = at;
+        while (at < bytes.capacity()) {
+            last = at;
+            at += ReplayRecorder.CHUNK_HEADER_BYTES + bytes.getInt(at + ReplayRecorder.CHUNK_HEADER_BYTES - 4);
+        }
+        bytes.putInt(last + ReplayRecorder.CHUNK_HEADER_BYTES - 8, Integer.MAX_VALUE); // the raw length of the last chunk
+        Path damaged = dir.resolve("damaged.ttr");
+        Files.write(damaged, bytes.array());
+        try (ReplayReader reader = new ReplayReader(FileChannel.open(damaged, StandardOpenOption.READ))) {
+            assertEquals(TICKS - 1000, reader.getEndTick()); // read up to the chunk before, nothing of 2 GB is allocated
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class SaveFormatTest {
+
+    private static byte[] save(TetrisGame game) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SaveFormat.write(game, Channels.newChannel(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static TetrisGame load(byte[] bytes) throws IOException {
+        return SaveFormat.read(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * Plays a few pieces so the board has locked squares of different colors.
+     */
+    private static TetrisGame played() {
+        return played(new TetrisGame());
+    }
+
+    private static TetrisGame played(TetrisGame game) {
+        for (int i = 0; i < 5; i++) {
+            game.step();
+            game.rotate();
+            game.pushDown();
+            game.getCurrTetro().moveDown();
+        }
+        game.step();
+        game.rotate();
+        return game;
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        TetrisGame game = played();
+        byte[] bytes = save(game);
+        assertTrue(bytes.length < 200);
+        TetrisGame loaded = load(bytes);
+
+        BitBoard a = game.getBoard();
+        BitBoard b = loaded.getBoard();
+        for (int y = 0; y < a.getHeight(); y++) {
+            assertEquals(a.getRow(y), b.getRow(y));
+            assertEquals(a.getFill(y), b.getFill(y));
+            for (int x = 0; x < a.getWidth(); x++) {
+                assertEquals(a.getColor(x, y), b.getColor(x, y));
+            }
+        }
+        assertEquals(game.getScore(), loaded.getScore());
+        assertEquals(game.getGravityCounter(), loaded.getGravityCounter());
+        assertEquals(game.getRandomizer().getKind(), loaded.getRandomizer().getKind());
+        Tetromino curr = loaded.getCurrTetro();
+        assertEquals(game.getCurrTetro().getType(), curr.getType());
+        assertEquals(game.getCurrTetro().getShape().getRotation(), curr.getShape().getRotation());
+        assertEquals(game.getCurrTetro().getTopleft(), curr.getTopleft());
+        assertTrue(curr.getActive());
+        assertEquals(game.getNextTetro().getType(), loaded.getNextTetro().getType());
+        assertTrue(Arrays.equals(bytes, save(loaded)));
+    }
+
+    @Test
+    void testSameTetrominosAfterLoad() throws IOException {
+        for (Randomizer.Kind kind : Randomizer.Kind.values()) {
+            TetrisGame game = played(new TetrisGame(kind.create(7L)));
+            TetrisGame loaded = load(save(game));
+            assertEquals(kind, loaded.getRandomizer().getKind());
+            for (int i = 0; i < 20; i++) {
+                game.changeTetro();
+                loaded.changeTetro();
+                assertEquals(game.getNextTetro().getType(), loaded.getNextTetro().getType());
+            }
+        }
+    }
+
+    @Test
+    void testReadsVersion1() throws IOException {
+        TetrisGame game = played(new TetrisGame(3L));
+        byte[] v2 = save(game);
+        ByteBuffer state = ByteBuffer.allocate(Long.BYTES);
+        game.getRandomizer().writeState(state);
+        // version 1 had the pure randomizer state right after the gravity counter, and no kind or length
+        int pieces = 6 + 13;
+        int randomizer = pieces + 14;
+        ByteBuffer v1 = ByteBuffer.allocate(v2.length - 3);
+        v1.put(v2, 0, pieces).putLong(state.getLong(0)).put(v2, pieces, 14).put(v2, randomizer + 3 + 8, v2.length - randomizer - 11);
+        v1.putShort(4, (short) 1);
+        TetrisGame loaded = load(v1.array());
+        assertEquals(game.getScore(), loaded.getScore());
+        assertEquals(game.getBoard().getRow(game.getBoard().getHeight() - 1), loaded.getBoard().getRow(loaded.getBoard().getHeight() - 1));
+        game.changeTetro();
+        loaded.changeTetro();
+        assertEquals(game.getNextTetro().getType(), loaded.getNextTetro().getType());
+    }
+
+    @Test
+    void testRoundTripWideBoard() throws IOException {
+        TetrisGame game = new TetrisGame(130, 40, new PureRandomizer(3));
+        game.getBoard().set(64, 39, (byte) 2);
+        game.getBoard().set(129, 39, (byte) 5);
+        game.getBoard().set(0, 38, (byte) 7);
+        TetrisGame loaded = load(save(game));
+        BitBoard a = game.getBoard();
+        BitBoard b = loaded.getBoard();
+        assertEquals(130, b.getWidth());
+        for (int y = 0; y < a.getHeight(); y++) {
+            assertEquals(a.getFill(y), b.getFill(y));
+            for (int x = 0; x < a.getWidth(); x++) {
+                assertEquals(a.getColor(x, y), b.getColor(x, y));
+            }
+        }
+        assertEquals(65, loaded.getSpawnX());
+    }
+
+    @Test
+    void testRejectsBadInput() throws IOException {
+        byte[] bytes = save(played());
+        byte[] wrongMagic = bytes.clone();
+        wrongMagic[0] = 'X';
+        assertThrows(IOException.class, () -> load(wrongMagic));
+        byte[] newer = bytes.clone();
+        newer[5] = (byte) (SaveFormat.VERSION + 1);
+        assertThrows(IOException.class, () -> load(newer));
+        assertThrows(EOFException.class, () -> load(Arrays.copyOf(bytes, bytes.length - 1)));
+    }
+
+    @Test
+    void testRejectsDamagedContents() throws IOException {
+        byte[] bytes = save(played());
+        int current = 6 + 13; // the current piece: type, rotation, x, y, active
+        byte[] badRotation = bytes.clone();
+        badRotation[current + 1] = 9;
+        assertThrows(IOException.class, () -> load(badRotation));
+        byte[] outside = bytes.clone();
+        ByteBuffer.wrap(outside).putShort(current + 2, (short) 500);
+        assertThrows(IOException.class, () -> load(outside));
+        byte[] below = bytes.clone();
+        ByteBuffer.wrap(below).putShort(current + 4, (short) -3);
+        assertThrows(IOException.class, () -> load(below));
+        byte[] badColor = bytes.clone();
+        badColor[badColor.length - 1] = (byte) 0xFF; // past the palette
+        assertThrows(IOException.class, () -> load(badColor));
+
+        int state = current + 14 + 3 + Long.BYTES; // after the kind, the state length and the generator
+        byte[] bag = save(played(new TetrisGame(Randomizer.Kind.BAG.create(5L))));
+        byte[] badShape = bag.clone();
+        badShape[state] = 9;
+        assertThrows(IOException.class, () -> load(badShape));
+        byte[] badPosition = bag.clone();
+        badPosition[state + TetrisUtils.SHAPE_COUNT] = 100;
+        assertThrows(IOException.class, () -> load(badPosition));
+        byte[] history = save(played(new TetrisGame(Randomizer.Kind.HISTORY.create(5L))));
+        history[state] = -1;
+        assertThrows(IOException.class, () -> load(history));
+    }
+}
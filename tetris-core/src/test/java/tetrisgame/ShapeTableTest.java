@@ -0,0 +1,46 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class ShapeTableTest {
+
+    @Test
+    void testExtents(){
+        ShapeTable.Orientation upright = ShapeTable.get(1, 0); // I
+        assertEquals(0, upright.getMinX());
+        assertEquals(0, upright.getMaxX());
+        assertEquals(3, upright.getMaxY());
+        ShapeTable.Orientation flat = ShapeTable.get(1, 1);
+        assertEquals(-3, flat.getMinX());
+        assertEquals(0, flat.getMaxY());
+    }
+
+    @Test
+    void testMasks(){
+        assertArrayEquals(new long[]{0b11, 0b11}, ShapeTable.get(0, 0).getRowMasks()); // O
+        assertArrayEquals(new long[]{0b110, 0b011}, ShapeTable.get(2, 0).getRowMasks()); // S
+        assertArrayEquals(new long[]{0b1111}, ShapeTable.get(1, 1).getRowMasks()); // I flat
+    }
+
+    @Test
+    void testBottoms(){
+        assertArrayEquals(new int[]{1, 1}, ShapeTable.get(0, 0).getBottoms()); // O
+        assertArrayEquals(new int[]{1, 1, 0}, ShapeTable.get(2, 0).getBottoms()); // S
+        assertArrayEquals(new int[]{0, 1, 0}, ShapeTable.get(5, 0).getBottoms()); // T
+    }
+
+    @Test
+    void testRotationCycle(){
+        TetroShape shape = new TetroShape(5);
+        ShapeTable.Orientation start = shape.getOrientation();
+        for(int i = 0; i<4;i++){
+            assertSame(shape.getClockwise(), ShapeTable.get(5, (i + 1) % 4));
+            shape.rotateClock();
+        }
+        assertSame(start, shape.getOrientation());
+    }
+}
@@ -0,0 +1,222 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class SimulationTest {
+
+    @Test
+    void testPublishesSnapshots(){
+        TetrisGame game = new TetrisGame(5L);
+        int[] calls = {0, 0};
+        Simulation sim = new Simulation(game, new InputController(), new GameListener() {
+            @Override
+            public void boardChanged(DirtyRegion changed) {
+                assertFalse(changed.isEmpty());
+                calls[0]++;
+            }
+
+            @Override
+            public void stateChanged() {
+                calls[1]++;
+            }
+        });
+        GameSnapshot first = sim.latest();
+        assertFalse(first.isPieceActive());
+        assertEquals(game.getNextTetro().getShape().getType(), first.getNextType());
+
+        sim.tick();
+        GameSnapshot spawned = sim.latest();
+        assertTrue(spawned.getVersion() > first.getVersion());
+        assertTrue(spawned.isPieceActive());
+        assertEquals(1, spawned.getPieceY());
+        assertEquals(game.getCurrTetro().getDropDistance(), spawned.getDropDistance());
+        assertEquals(1, calls[0]);
+        assertEquals(1, calls[1]); // the flag set by the first Tetromino
+
+        for (int i = 0; i < TetrisGame.GRAVITY_FRAMES; i++) {
+            sim.tick();
+        }
+        assertEquals(1, spawned.getPieceY()); // unchanged until the renderer asks for a newer one
+        assertEquals(2, sim.latest().getPieceY());
+        assertEquals(2, calls[0]);
+        long version = sim.latest().getVersion();
+        assertEquals(version, sim.latest().getVersion());
+    }
+
+    @Test
+    void testTellsScoreAndPreviewChanges(){
+        TetrisGame game = new TetrisGame(new BagRandomizer(3));
+        int[] calls = {0, 0};
+        Simulation sim = new Simulation(game, new InputController(), new GameListener() {
+            @Override
+            public void boardChanged(DirtyRegion changed) {
+            }
+
+            @Override
+            public void scoreChanged(int score) {
+                assertEquals(game.getScore(), score);
+                calls[0]++;
+            }
+
+            @Override
+            public void previewChanged() {
+                calls[1]++;
+            }
+        });
+        SnapshotBuffer snapshots = sim.getSnapshots();
+        int[] preview = new int[TetrisGame.MAX_PREVIEW];
+        game.getPreview(preview, TetrisGame.MAX_PREVIEW);
+        for (int i = 0; i < TetrisGame.MAX_PREVIEW; i++) {
+            assertEquals(preview[i], snapshots.getPreview(i));
+        }
+        assertEquals(-1, snapshots.getPreview(TetrisGame.MAX_PREVIEW));
+
+        for (int i = 0; i < 10; i++) {
+            sim.tick();
+        }
+        assertEquals(0, calls[1]); // spawning and falling change nothing in the HUD
+        assertEquals(0, calls[0]);
+
+        sim.submit(game::pushDown);
+        for (int i = 0; i < 100 && calls[1] == 0; i++) {
+            sim.tick();
+        }
+        assertEquals(1, calls[1]);
+        assertEquals(preview[1], snapshots.getNextType());
+        assertEquals(game.getScore() > 0 ? 1 : 0, calls[0]);
+    }
+
+    @Test
+    void testKeepsTickingAfterAnError(){
+        TetrisGame game = new TetrisGame(5L);
+        List<RuntimeException> errors = new ArrayList<>();
+        Simulation sim = new Simulation(game, new InputController(), new GameListener() {
+            @Override
+            public void boardChanged(DirtyRegion changed) {
+            }
+
+            @Override
+            public void tickFailed(RuntimeException e) {
+                errors.add(e);
+            }
+        });
+        long counted = GameMetrics.get().getTickErrors();
+        sim.tick();
+        sim.setAgent(() -> {
+            throw new IllegalStateException("agent");
+        });
+        sim.tick();
+        assertEquals(1, errors.size());
+        assertEquals("agent", errors.get(0).getMessage());
+        assertTrue(GameMetrics.get().getTickErrors() > counted);
+
+        sim.setAgent(null);
+        for (int i = 0; i < TetrisGame.GRAVITY_FRAMES; i++) {
+            sim.tick();
+        }
+        assertEquals(1, errors.size());
+        assertEquals(2, sim.latest().getPieceY()); // the game went on falling
+    }
+
+    @Test
+    void testSnapshotsCopyChangedRows(){
+        TetrisGame game = new TetrisGame(70, 30, new PureRandomizer(9));
+        Simulation sim = new Simulation(game, new InputController(), null);
+        for (int i = 0; i < 400 && game.isGameOn(); i++) {
+            sim.tick();
+            sim.submit(game::pushDown);
+            sim.tick();
+            BitBoard shown = sim.latest().getBoard();
+            for (int y = 0; y < shown.getHeight(); y++) {
+                for (int w = 0; w < shown.getWords(); w++) {
+                    assertEquals(game.getBoard().getRowWord(y, w), shown.getRowWord(y, w));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testAppliesInput(){
+        TetrisGame game = new TetrisGame(5L);
+        Simulation sim = new Simulation(game, new InputController(), null);
+        sim.tick();
+        int x = sim.latest().getPieceX();
+        long pressed = System.nanoTime();
+        sim.getInput().press(InputController.LEFT, pressed);
+        sim.getInput().release(InputController.LEFT, pressed);
+        sim.tick();
+        GameSnapshot moved = sim.latest();
+        assertEquals(x - 1, moved.getPieceX());
+        assertEquals(pressed, moved.getInputNanos());
+
+        sim.getInput().press(InputController.DROP, System.nanoTime());
+        sim.pause();
+        sim.tick();
+        assertTrue(game.isPaused());
+        assertTrue(sim.latest().isPaused());
+        assertEquals(1, game.getCurrTetro().getTopleft().getY()); // the drop was dropped by the pause
+    }
+
+    @Test
+    void testRendererSeesConsistentSnapshots() throws Exception {
+        TetrisGame game = new TetrisGame(new BagRandomizer(9));
+        Simulation sim = new Simulation(game, new InputController(), null);
+        AutoPilotAgent agent = new AutoPilotAgent(game);
+        sim.setAgent(agent::tick);
+        GameScheduler scheduler = new GameScheduler(2);
+        try {
+            sim.start(scheduler, 1);
+            assertTrue(sim.isRunning());
+            String[] thread = {null};
+            sim.submit(() -> thread[0] = Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+            assertTrue(thread[0].startsWith("tetris-tick"));
+
+            long last = 0;
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+            while (System.nanoTime() < end) {
+                GameSnapshot s = sim.latest();
+                assertTrue(s.getVersion() >= last);
+                last = s.getVersion();
+                BitBoard b = s.getBoard();
+                for (int y = 0; y < b.getHeight(); y++) {
+                    assertEquals(Long.bitCount(b.getRow(y)), b.getFill(y));
+                }
+                Thread.yield();
+            }
+            assertNotEquals(0, last);
+        } finally {
+            sim.stop();
+            scheduler.shutdown();
+        }
+        assertFalse(sim.isRunning());
+    }
+
+    /**
+     * Locks every Tetromino where the autoplayer puts it, one per tick, so the board changes all the time.
+     */
+    private static final class AutoPilotAgent {
+        private final TetrisGame game;
+        private final AutoPlayer player = new AutoPlayer();
+
+        AutoPilotAgent(TetrisGame game) {
+            this.game = game;
+        }
+
+        void tick() {
+            Tetromino falling = game.getCurrTetro();
+            if (game.isGameOn() && falling.getActive()) {
+                player.choose(game).apply(game, falling.getTopleft().getX());
+                falling.moveDown();
+            }
+        }
+    }
+}
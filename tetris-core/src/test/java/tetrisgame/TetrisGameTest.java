@@ -0,0 +1,121 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TetrisGameTest {
+    private TetrisGame game = new TetrisGame();
+
+    @Test
+    void testStepSpawnsAndFalls(){
+        Tetromino first = game.getCurrTetro();
+        game.step();
+        assertTrue(first.getActive());
+        assertEquals(1, first.getTopleft().getY());
+        for(int i = 0; i < TetrisGame.GRAVITY_FRAMES; i++){
+            game.step();
+        }
+        assertEquals(2, first.getTopleft().getY());
+    }
+
+    @Test
+    void testPreviewDealsComingPieces(){
+        for (Randomizer.Kind kind : Randomizer.Kind.values()) {
+            TetrisGame previewed = new TetrisGame(kind.create(11));
+            TetrisGame plain = new TetrisGame(kind.create(11));
+            int[] preview = new int[TetrisGame.MAX_PREVIEW];
+            previewed.step();
+            plain.step();
+            assertEquals(TetrisGame.MAX_PREVIEW, previewed.getPreview(preview, 10));
+            for (int i = 0; i < TetrisGame.MAX_PREVIEW; i++) {
+                assertEquals(preview[i], previewed.getNextTetro().getShape().getType(), kind + " piece " + i);
+                int[] again = new int[TetrisGame.MAX_PREVIEW];
+                previewed.getPreview(again, TetrisGame.MAX_PREVIEW);
+                Tetromino next = previewed.getNextTetro();
+                previewed.pushDown();
+                plain.pushDown();
+                while (previewed.getCurrTetro() != next) {
+                    previewed.step();
+                    plain.step();
+                }
+                // asking for the preview left the randomizer alone
+                assertEquals(plain.getNextTetro().getShape().getType(), previewed.getNextTetro().getShape().getType());
+            }
+        }
+    }
+
+    @Test
+    void testPushDownLocks(){
+        Tetromino first = game.getCurrTetro();
+        game.step();
+        game.pushDown();
+        assertEquals(game.getSquareHeight(), first.getTopleft().getY() + first.getHeight());
+        for(int i = 0; i < TetrisGame.GRAVITY_FRAMES; i++){
+            game.step();
+        }
+        assertFalse(first.getActive());
+        assertNotSame(first, game.getCurrTetro());
+        assertTrue(game.getBoard().isOccupied(first.getTopleft().getX(), first.getTopleft().getY()));
+    }
+
+    @Test
+    void testCountsClearedLines(){
+        BitBoard board = game.getBoard();
+        for(int col = 0; col < board.getWidth(); col++){
+            board.set(col, 19, (byte) 1);
+            board.set(col, 18, (byte) 1);
+        }
+        game.clearRows(18, 19);
+        assertEquals(2, game.getLines());
+        for(int col = 0; col < board.getWidth(); col++){
+            board.set(col, 19, (byte) 1);
+        }
+        game.deleteRow(19);
+        assertEquals(3, game.getLines());
+    }
+
+    @Test
+    void testListenerSeesMoves(){
+        int[] calls = {0};
+        game.setListener(changed -> calls[0]++);
+        game.step();
+        game.moveLeft();
+        assertEquals(2, calls[0]);
+        game.step(); // nothing moves on this tick
+        assertEquals(2, calls[0]);
+    }
+
+    @Test
+    void testPlaysUntilOver(){
+        int ticks = 0;
+        while(game.isGameOn() && ticks < 100000){
+            game.step();
+            game.pushDown();
+            ticks++;
+        }
+        assertFalse(game.isGameOn());
+        assertTrue(game.isLost());
+    }
+
+    @Test
+    void testCustomSize(){
+        TetrisGame large = new TetrisGame(1000, 1000, new PureRandomizer(7));
+        assertEquals(500, large.getSpawnX());
+        assertEquals(999, large.getSquareWidth());
+        int ticks = 0;
+        while(large.isGameOn() && ticks < 200){
+            large.step();
+            large.pushDown();
+            ticks++;
+        }
+        assertTrue(large.isGameOn());
+        assertTrue(large.getBoard().getFill(999) > 0);
+        assertThrows(IllegalArgumentException.class, () -> new TetrisGame(3, 20, new PureRandomizer(7)));
+        assertThrows(IllegalArgumentException.class, () -> new TetrisGame(BitBoard.MAX_WIDTH + 1, 20, new PureRandomizer(7)));
+    }
+}
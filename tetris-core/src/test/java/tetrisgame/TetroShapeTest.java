@@ -24,6 +24,14 @@ public class TetroShapeTest {
 
     @Test
     void testRotate(){
-        
+        TetroShape iShape = new TetroShape(1);
+        iShape.rotateClock();
+        assertEquals(1, iShape.getRotation());
+        assertEquals(new Coord(-3,0), iShape.getRelative()[3]);
+        for(int i = 0; i<3;i++){
+            iShape.rotateClock();
+        }
+        assertEquals(0, iShape.getRotation());
+        assertEquals(new Coord(0,3), iShape.getRelative()[3]);
     }
 }
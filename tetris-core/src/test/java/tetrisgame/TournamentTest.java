@@ -0,0 +1,72 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TournamentTest {
+
+    @Test
+    void testSameGamesOnAnyThreads() throws InterruptedException {
+        AutoPlayer agent = new AutoPlayer();
+        List<Tournament.GameResult> one = new Tournament(12, 1, 100L, 300, Randomizer.Kind.RANDOM, agent).run();
+        List<Tournament.GameResult> many = new Tournament(12, 0, 100L, 300, Randomizer.Kind.RANDOM, agent).run();
+        assertEquals(12, many.size());
+        for (int i = 0; i < one.size(); i++) {
+            assertEquals(100L + i, many.get(i).getSeed());
+            assertEquals(one.get(i).getScore(), many.get(i).getScore());
+            assertEquals(one.get(i).getPieces(), many.get(i).getPieces());
+            assertEquals(one.get(i).getLines(), many.get(i).getLines());
+            assertTrue(one.get(i).getPieces() <= 300);
+        }
+    }
+
+    @Test
+    void testPercentile() {
+        int[] sorted = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        assertEquals(5, Tournament.percentile(sorted, 50));
+        assertEquals(9, Tournament.percentile(sorted, 90));
+        assertEquals(10, Tournament.percentile(sorted, 99));
+        assertEquals(0, Tournament.percentile(new int[0], 50));
+    }
+
+    @Test
+    void testReport() throws InterruptedException {
+        List<Tournament.GameResult> results = new Tournament(4, 2, 1L, 100, Randomizer.Kind.BAG, new AutoPlayer()).run();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Tournament.report(results, 1_000_000_000L, new PrintStream(bytes, true));
+        String text = bytes.toString();
+        assertTrue(text.contains("games: 4"));
+        assertTrue(text.contains("pieces/s"));
+        assertTrue(text.contains("score   p50"));
+    }
+
+    @Test
+    void testReplayClosedWhenGameFails(@TempDir Path dir) throws IOException {
+        AutoPlayer failing = new AutoPlayer() {
+            @Override
+            public long playGame(TetrisGame game, long maxPieces) {
+                super.playGame(game, 20);
+                throw new IllegalStateException("agent failed");
+            }
+        };
+        Tournament tournament = new Tournament(1, 1, 7L, 100, Randomizer.Kind.BAG, failing);
+        tournament.setRecordDir(dir);
+        assertThrows(IllegalStateException.class, () -> tournament.play(7L));
+        try (FileChannel in = FileChannel.open(dir.resolve("game-7.ttr"), StandardOpenOption.READ)) {
+            ReplayReader reader = new ReplayReader(in);
+            assertTrue(reader.getEndTick() > 0); // the last chunk was written when the recorder was closed
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WeightOptimizerTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void testResumeMatchesUninterrupted() throws IOException, InterruptedException {
+        WeightOptimizer straight = new WeightOptimizer(10, 2, 60, 5L, 2);
+        straight.run(3, null);
+
+        Path checkpoint = dir.resolve("opt.txt");
+        WeightOptimizer first = new WeightOptimizer(10, 2, 60, 5L, 2);
+        first.run(1, checkpoint);
+        assertTrue(Files.exists(checkpoint));
+        WeightOptimizer resumed = WeightOptimizer.load(checkpoint);
+        assertEquals(1, resumed.getGeneration());
+        resumed.run(3, checkpoint);
+
+        assertEquals(3, resumed.getGeneration());
+        assertEquals(straight.getBestFitness(), resumed.getBestFitness());
+        assertArrayEquals(straight.getBest().toArray(), resumed.getBest().toArray());
+        assertEquals(3, WeightOptimizer.load(checkpoint).getGeneration());
+    }
+
+    @Test
+    void testBestIsUnitLength() throws IOException, InterruptedException {
+        WeightOptimizer optimizer = new WeightOptimizer(6, 1, 40, 9L, 1);
+        optimizer.run(1, null);
+        double length = 0;
+        for (double w : optimizer.getBest().toArray()) {
+            length += w * w;
+        }
+        assertEquals(1.0, length, 1e-9);
+        assertTrue(optimizer.getBestFitness() >= 0);
+    }
+
+    @Test
+    void testFitnessIsLinesOnTheRunSeeds() throws IOException, InterruptedException {
+        WeightOptimizer optimizer = new WeightOptimizer(10, 2, 60, 3L, 2);
+        optimizer.run(4, null);
+        AutoPlayer best = new AutoPlayer(optimizer.getBest(), false, null);
+        long lines = 0;
+        for (long gameSeed : optimizer.gameSeeds()) {
+            TetrisGame game = new TetrisGame(gameSeed);
+            best.playGame(game, 60);
+            lines += game.getLines();
+        }
+        assertEquals(lines, optimizer.getBestFitness()); // kept members and children are scored on the same games
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path other = dir.resolve("other.txt");
+        Files.writeString(other, "hello\n");
+        assertThrows(IOException.class, () -> WeightOptimizer.load(other));
+    }
+}
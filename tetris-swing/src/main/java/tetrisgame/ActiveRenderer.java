@@ -0,0 +1,143 @@
+package tetrisgame;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Renders a board {@link TetrisPanel} actively instead of through Swing's repaint scheduling.
+ * The board is drawn onto a {@link Canvas} with a {@link BufferStrategy} (accelerated back buffers where the platform has them)
+ * by a render thread of its own, paced to a refresh rate by a {@link FramePacer}, and shown with {@link Toolkit#sync()} so it reaches the display right away.
+ * On every frame the thread takes the latest snapshot {@link GameSnapshot} and renders it if it is new, otherwise it skips the frame,
+ * so a paused game costs nothing but the pacing. Frames that run over their slot are counted as dropped in the {@link GameMetrics}.
+ * While the renderer is active it is the only reader of the snapshots of the board, the EDT doesn't paint the board at all.
+ */
+public final class ActiveRenderer implements Runnable {
+    private final TetrisPanel board;
+    private final FramePacer pacer;
+    private final Canvas canvas;
+    private volatile boolean running = true;
+    private volatile boolean forced = true;
+    private long renderedVersion = -1;
+
+    /**
+     * Creates the renderer of a board and starts its render thread, which waits until the canvas is on screen.
+     * The canvas still has to be added to the board ({@link #getCanvas()}).
+     *
+     * @param board The board to render.
+     * @param refreshHz The target refresh rate in frames a second.
+     */
+    public ActiveRenderer(TetrisPanel board, int refreshHz) {
+        this.board = board;
+        this.pacer = new FramePacer(refreshHz);
+        this.canvas = new Canvas() {
+            @Override
+            public void addNotify() {
+                super.addNotify();
+                createBufferStrategy(2);
+                requestRender();
+            }
+
+            @Override
+            public void removeNotify() {
+                stop();
+                super.removeNotify();
+            }
+
+            @Override
+            public void paint(Graphics g) {
+                requestRender(); // exposed or resized, the render thread paints it all on its next frame
+            }
+
+            @Override
+            public void update(Graphics g) {
+                requestRender();
+            }
+        };
+        canvas.setIgnoreRepaint(true);
+        canvas.setFocusable(false); // the keys go to the frame, like with the passive board
+        Thread thread = new Thread(this, "tetris-render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Getter for the canvas the board is rendered onto
+     * @return The canvas.
+     */
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * Makes the next frame render the board even if there is no new snapshot, like after zooming.
+     * Safe from any thread.
+     */
+    public void requestRender() {
+        forced = true;
+    }
+
+    /**
+     * Stops the render thread after its current frame.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Getter for the pacer of the render thread, read its counters from the render thread only
+     * @return The frame pacer.
+     */
+    public FramePacer getPacer() {
+        return pacer;
+    }
+
+    /**
+     * The render loop: renders a frame if there is anything new, then waits for the slot of the next one.
+     */
+    @Override
+    public void run() {
+        pacer.start(System.nanoTime());
+        while (running) {
+            boolean presented = canvas.isDisplayable() && render();
+            LockSupport.parkNanos(pacer.frameDone(System.nanoTime(), presented));
+        }
+    }
+
+    /**
+     * Renders the latest snapshot into the back buffer and shows it, if it wasn't rendered yet.
+     * Renders again when the contents of the buffers were lost, like after the display mode changed.
+     *
+     * @return True if a frame was shown.
+     */
+    private boolean render() {
+        BufferStrategy strategy = canvas.getBufferStrategy();
+        if (strategy == null || canvas.getWidth() <= 0 || canvas.getHeight() <= 0) {
+            return false;
+        }
+        GameSnapshot snapshot = board.getSnapshot();
+        if (snapshot.getVersion() == renderedVersion && !forced) {
+            return false;
+        }
+        forced = false;
+        try {
+            do {
+                do {
+                    Graphics g = strategy.getDrawGraphics();
+                    try {
+                        board.render(g, snapshot); // the whole viewport, so it doesn't matter whether it moved
+                    } finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+        } catch (IllegalStateException e) {
+            return false; // the canvas was taken off screen while rendering
+        }
+        Toolkit.getDefaultToolkit().sync();
+        renderedVersion = snapshot.getVersion();
+        StartupProbe.boardPainted();
+        return true;
+    }
+}
@@ -0,0 +1,200 @@
+package tetrisgame;
+
+/**
+ * Lets the autoplayer ({@link AutoPlayer}) play a game ({@link TetrisGame}), for attract mode.
+ * It makes its moves through the same entry points as the keyboard, one move every few game ticks so the moves can be followed on screen.
+ * It runs on the simulation thread as the agent of the simulation ({@link Simulation#setAgent(Runnable)}), like the input.
+ * Gravity keeps moving the Tetromino between the moves, so the plan is checked against where the Tetromino is before every move:
+ * the rows gravity already dropped are taken off the drops of the plan, and any other difference makes a new plan from where the Tetromino is now.
+ */
+public class AutoPilot implements PieceControls {
+    /**
+     * The number of game ticks between two moves of the autoplayer.
+     */
+    public static final int MOVE_FRAMES = 5;
+
+    private final TetrisGame game;
+    private final AutoPlayer player;
+
+    /**
+     * The Tetromino the current plan was made for.
+     */
+    private Tetromino planned;
+
+    /**
+     * The moves left of the current plan, in the order they are made.
+     */
+    private final StringBuilder moves = new StringBuilder();
+
+    /**
+     * The number of game ticks since the last move.
+     */
+    private int frames;
+
+    /**
+     * Where the planned Tetromino was left after the last move of the autopilot: the column and row of its origin and its rotation.
+     */
+    private int lastX;
+    private int lastY;
+    private int lastRotation;
+
+    /**
+     * Constructs an autopilot for a game.
+     *
+     * @param game The game to play.
+     * @param player The autoplayer choosing the placements.
+     */
+    public AutoPilot(TetrisGame game, AutoPlayer player) {
+        this.game = game;
+        this.player = player;
+    }
+
+    /**
+     * Called on every game tick: plans a placement for a newly spawned Tetromino, and makes the next move of the plan every {@link #MOVE_FRAMES} ticks.
+     */
+    public void tick() {
+        Tetromino falling = game.getCurrTetro();
+        if (falling == null || !falling.getActive()) {
+            return;
+        }
+        if (falling != planned) {
+            plan(falling);
+            frames = 0;
+        } else if (!isWhereLeft(falling)) {
+            int fallen = falling.getTopleft().getY() - lastY;
+            if (falling.getTopleft().getX() == lastX && falling.getShape().getRotation() == lastRotation
+                    && fallen > 0 && fallen <= plannedDrops()) {
+                moves.delete(0, fallen); // gravity made these drops already
+                remember(falling);
+            } else {
+                plan(falling);
+            }
+        }
+        if (moves.length() == 0 || ++frames < MOVE_FRAMES) {
+            return;
+        }
+        frames = 0;
+        char move = moves.charAt(0);
+        moves.deleteCharAt(0);
+        makeMove(move);
+        if (falling.getActive()) {
+            if (move != 'P' && isWhereLeft(falling)) {
+                planned = null; // the move was blocked, plan again on the next tick
+            }
+            remember(falling);
+        }
+    }
+
+    /**
+     * Plans a placement for the falling Tetromino from where it is now.
+     *
+     * @param falling The falling Tetromino.
+     */
+    private void plan(Tetromino falling) {
+        planned = falling;
+        moves.setLength(0);
+        Placement placement = player.choose(game);
+        placement.apply(this, falling.getTopleft().getX()); // records the moves instead of making them
+        remember(falling);
+    }
+
+    /**
+     * Remembers where the Tetromino is, to tell the moves made by anything else than the autopilot.
+     *
+     * @param falling The falling Tetromino.
+     */
+    private void remember(Tetromino falling) {
+        lastX = falling.getTopleft().getX();
+        lastY = falling.getTopleft().getY();
+        lastRotation = falling.getShape().getRotation();
+    }
+
+    /**
+     * Checks whether the Tetromino is where the autopilot left it.
+     *
+     * @param falling The falling Tetromino.
+     * @return True if it hasn't moved since.
+     */
+    private boolean isWhereLeft(Tetromino falling) {
+        return falling.getTopleft().getX() == lastX && falling.getTopleft().getY() == lastY
+                && falling.getShape().getRotation() == lastRotation;
+    }
+
+    /**
+     * Counts the drops at the start of the moves left.
+     *
+     * @return The number of rows the plan still moves down before the other moves.
+     */
+    private int plannedDrops() {
+        int drops = 0;
+        while (drops < moves.length() && moves.charAt(drops) == 'D') {
+            drops++;
+        }
+        return drops;
+    }
+
+    /**
+     * Makes a move of the plan in the game.
+     *
+     * @param move The move, as recorded.
+     */
+    private void makeMove(char move) {
+        switch (move) {
+            case 'L':
+                game.moveLeft();
+                break;
+            case 'R':
+                game.moveRight();
+                break;
+            case 'U':
+                game.rotate();
+                break;
+            case 'D':
+                game.moveDown();
+                break;
+            default:
+                game.pushDown();
+                break;
+        }
+    }
+
+    /**
+     * Records a move to the left in the plan.
+     */
+    @Override
+    public void moveLeft() {
+        moves.append('L');
+    }
+
+    /**
+     * Records a move to the right in the plan.
+     */
+    @Override
+    public void moveRight() {
+        moves.append('R');
+    }
+
+    /**
+     * Records a move down in the plan.
+     */
+    @Override
+    public void moveDown() {
+        moves.append('D');
+    }
+
+    /**
+     * Records a rotation in the plan.
+     */
+    @Override
+    public void rotate() {
+        moves.append('U');
+    }
+
+    /**
+     * Records the final push down in the plan.
+     */
+    @Override
+    public void pushDown() {
+        moves.append('P');
+    }
+}
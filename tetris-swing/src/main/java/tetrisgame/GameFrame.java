@@ -0,0 +1,619 @@
+package tetrisgame;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * The main frame of the Tetris game. Displays the game board {@link TetrisPanel} and the HUD {@link TetrisHUD}.
+ * The game is run by a simulation {@link Simulation} ticking on the shared {@link GameScheduler}, which is the only thread changing it,
+ * the frame hands the user input over to it and paints the snapshots it publishes.
+ * A frame can also show a recorded game instead ({@link #GameFrame(ReplayReader)}), played back by a {@link ReplayPlayer} at a chosen speed.
+ */
+public class GameFrame extends JFrame {
+    /**
+     * The time jumped by the Left and Right keys of a replay.
+     */
+    public static final long REPLAY_SKIP_MILLIS = 10_000;
+
+    private TetrisPanel TetrisBoard;
+    private TetrisHUD HUD;
+    private Simulation simulation;
+    private ReplayPlayer replay;
+    private AutoPilot autoPilot;
+    private boolean over;
+
+    /**
+     * Listens to the simulation, on its thread: repaints the changed squares of the board and whatever changed in the HUD, and ends the game once it is lost.
+     * The first tick which fails is shown in a dialog, the game goes on.
+     */
+    class SimulationListener implements GameListener {
+        private boolean failed;
+
+        @Override
+        public void tickFailed(RuntimeException e) {
+            if (!failed) {
+                failed = true;
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(GameFrame.this,
+                        "The game ran into an error and skipped a tick: " + e, "Error", JOptionPane.ERROR_MESSAGE));
+            }
+        }
+
+        @Override
+        public void boardChanged(DirtyRegion changed) {
+            TetrisBoard.boardChanged(changed);
+        }
+
+        @Override
+        public void scoreChanged(int score) {
+            HUD.scoreChanged(score);
+        }
+
+        @Override
+        public void previewChanged() {
+            HUD.previewChanged();
+        }
+
+        @Override
+        public void stateChanged() {
+            if (!simulation.getGame().isGameOn()) {
+                SwingUtilities.invokeLater(GameFrame.this::gameOver);
+            }
+        }
+    }
+
+    /**
+     * Listens to the replay player, on its thread: repaints the changed squares of the board and whatever changed in the HUD.
+     */
+    class ReplayListener implements GameListener {
+        @Override
+        public void boardChanged(DirtyRegion changed) {
+            TetrisBoard.boardChanged(changed);
+        }
+
+        @Override
+        public void scoreChanged(int score) {
+            HUD.scoreChanged(score);
+        }
+
+        @Override
+        public void previewChanged() {
+            HUD.previewChanged();
+        }
+    }
+
+    /**
+     * Key listener of a replay.
+     * Space plays and pauses, Up and Down double and halve the speed, Left and Right jump {@link #REPLAY_SKIP_MILLIS} back and forward,
+     * Home goes back to the start and P asks for a piece to jump to. + and - zoom the board in and out, F12 prints the game metrics {@link GameMetrics}.
+     */
+    class ReplayKeyListener extends KeyAdapter {
+        @Override
+        public void keyPressed(KeyEvent k) {
+            long skip = REPLAY_SKIP_MILLIS / replay.getReader().getTickMillis();
+            switch (k.getKeyCode()) {
+                case KeyEvent.VK_SPACE:
+                    if (replay.isPlaying()) {
+                        replay.pause();
+                    } else {
+                        replay.play();
+                    }
+                    break;
+                case KeyEvent.VK_UP:
+                    replay.faster();
+                    break;
+                case KeyEvent.VK_DOWN:
+                    replay.slower();
+                    break;
+                case KeyEvent.VK_LEFT:
+                    replay.skip(-skip);
+                    break;
+                case KeyEvent.VK_RIGHT:
+                    replay.skip(skip);
+                    break;
+                case KeyEvent.VK_HOME:
+                    replay.seek(0);
+                    break;
+                case KeyEvent.VK_P:
+                    askPiece();
+                    break;
+                case KeyEvent.VK_PLUS:
+                case KeyEvent.VK_EQUALS:
+                case KeyEvent.VK_ADD:
+                    TetrisBoard.zoomIn();
+                    break;
+                case KeyEvent.VK_MINUS:
+                case KeyEvent.VK_SUBTRACT:
+                    TetrisBoard.zoomOut();
+                    break;
+                case KeyEvent.VK_F12:
+                    System.out.print(GameMetrics.get().dump());
+                    break;
+                default:
+                    break;
+            }
+            updateReplayTitle();
+        }
+    }
+
+    /**
+     * Key listener for handling user input during the game.
+     * Arrows for controlling the Tetromino (Down moves it down by one row), Space to push it down and Esc to pause the game.
+     * A turns the autoplayer on and off, + and - zoom the board in and out, F12 prints the game metrics {@link GameMetrics}.
+     * The moves are not made here, the presses and releases are recorded with their time into the input controller {@link InputController},
+     * and the simulation makes the moves on its tick with auto repeat, so holding a key doesn't depend on the key repeat of the OS.
+     */
+    class MyKeyListener extends KeyAdapter {
+        /**
+         * The difference between the clock of {@link System#nanoTime()} and the wall clock of the events, taken once,
+         * so two events with the same time get the same nanos, the autorepeat of X11 is told apart by that.
+         */
+        private final long clockOffset = System.nanoTime() - System.currentTimeMillis() * 1_000_000L;
+
+        @Override
+        public void keyPressed(KeyEvent k) {
+            int command = commandOf(k.getKeyCode());
+            if (command >= 0) {
+                simulation.getInput().press(command, eventNanos(k));
+                return;
+            }
+            switch (k.getKeyCode()) {
+                case KeyEvent.VK_ESCAPE:
+                    Pause();
+                    break;
+                case KeyEvent.VK_A:
+                    setAutoPlay(autoPilot == null);
+                    break;
+                case KeyEvent.VK_PLUS:
+                case KeyEvent.VK_EQUALS:
+                case KeyEvent.VK_ADD:
+                    TetrisBoard.zoomIn();
+                    break;
+                case KeyEvent.VK_MINUS:
+                case KeyEvent.VK_SUBTRACT:
+                    TetrisBoard.zoomOut();
+                    break;
+                case KeyEvent.VK_F12:
+                    System.out.print(GameMetrics.get().dump());
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void keyReleased(KeyEvent k) {
+            int command = commandOf(k.getKeyCode());
+            if (command >= 0) {
+                simulation.getInput().release(command, eventNanos(k));
+            }
+        }
+
+        /**
+         * Maps a key to the command of the input controller.
+         *
+         * @param keyCode The code of the key.
+         * @return The command, -1 if the key doesn't move the Tetromino.
+         */
+        private int commandOf(int keyCode) {
+            switch (keyCode) {
+                case KeyEvent.VK_LEFT:
+                    return InputController.LEFT;
+                case KeyEvent.VK_RIGHT:
+                    return InputController.RIGHT;
+                case KeyEvent.VK_DOWN:
+                    return InputController.DOWN;
+                case KeyEvent.VK_UP:
+                    return InputController.ROTATE;
+                case KeyEvent.VK_SPACE:
+                    return InputController.DROP;
+                default:
+                    return -1;
+            }
+        }
+
+        /**
+         * Converts the time of a key event to the clock of {@link System#nanoTime()}.
+         *
+         * @param k The key event.
+         * @return The time the key was pressed or released, never later than now.
+         */
+        private long eventNanos(KeyEvent k) {
+            return Math.min(System.nanoTime(), k.getWhen() * 1_000_000L + clockOffset);
+        }
+    }
+
+    /**
+     * Initializes basic configurations for the game frame.
+     * The basics inits are in a method of their own so they can just be called when using multiple constructors.
+     * The frame is sized to the board and the HUD once they are added ({@link #initHUD()}).
+     */
+    public void initBasic() {
+        setTitle("Active Game");
+        setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        setResizable(false);
+        this.setLayout(new BorderLayout());
+    }
+
+    /**
+     * Creates the simulation running the game of the board, with the DAS and ARR from the tetris.das and tetris.arr system properties.
+     * A held key repeats up to the width of the board in one tick, so an ARR of 0 reaches the wall on any board.
+     * Has to be called after TetrisBoard has been initialized.
+     * The autosave journal is only started with the game ({@link #startJournal()}), so its files aren't written before the first frame.
+     */
+    private void initSimulation() {
+        InputController input = new InputController(
+                Integer.getInteger("tetris.das", InputController.DEFAULT_DAS_MILLIS),
+                Integer.getInteger("tetris.arr", InputController.DEFAULT_ARR_MILLIS), 64,
+                TetrisBoard.getGame().getBoard().getWidth());
+        this.simulation = new Simulation(TetrisBoard.getGame(), input, new SimulationListener());
+        TetrisBoard.setSimulation(simulation);
+        initRecorder();
+        initRendering();
+    }
+
+    /**
+     * Starts the autosave journal {@link Journal} of the game, on the simulation thread once it runs.
+     * Creating the autosave directory and writing the first checkpoint is left to the first tick, the window is already on screen by then.
+     */
+    private void startJournal() {
+        try {
+            simulation.setJournal(Journal.start(autosaveDir(), simulation.getGame()));
+        } catch (IOException e) {
+            e.printStackTrace(); // the game is still playable, just not recoverable
+        }
+    }
+
+    /**
+     * Renders the board actively ({@link ActiveRenderer}) at the refresh rate in the tetris.activeHz system property, if it is set.
+     * Otherwise the board is repainted by Swing whenever the game changes.
+     * Has to be called once the board shows the snapshots of the simulation or the replay.
+     */
+    private void initRendering() {
+        int refreshHz = Integer.getInteger("tetris.activeHz", 0);
+        if (refreshHz > 0) {
+            TetrisBoard.setActiveRendering(refreshHz);
+        }
+    }
+
+    /**
+     * Records the game as a replay {@link ReplayRecorder} into the directory named by the tetris.replays system property, if it is set.
+     * The replay is named after the time the game started, and finished by the simulation once the game is lost.
+     * Has to be called before the simulation is started.
+     */
+    private void initRecorder() {
+        String dir = System.getProperty("tetris.replays");
+        if (dir == null) {
+            return;
+        }
+        try {
+            Path replays = Path.of(dir);
+            Files.createDirectories(replays);
+            FileChannel out = FileChannel.open(replays.resolve("game-" + System.currentTimeMillis() + ".ttr"),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            TetrisGame game = TetrisBoard.getGame();
+            game.setRecorder(new ReplayRecorder(out, game));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Gets the directory of the autosave journal {@link Journal}, every game journals its locked Tetrominos there.
+     * It is next to the saves, and only holds the game played last.
+     *
+     * @return The path of the autosave directory.
+     */
+    public static Path autosaveDir() {
+        return savesDir().resolve("autosave");
+    }
+
+    /**
+     * Gets the directory of the saved games, it is only created when the first game is saved.
+     *
+     * @return The path of the saves directory.
+     */
+    public static Path savesDir() {
+        return Path.of(System.getProperty("user.dir"), "resources", "saves");
+    }
+
+    /**
+     * Initializes and attaches the HUD to the game frame, then sizes the frame to fit the board and the HUD.
+     * Has to be called after TetrisBoard has been initialized.
+     */
+    public void initHUD() {
+        this.HUD = new TetrisHUD(TetrisBoard);
+        this.add(HUD, BorderLayout.EAST);
+        this.drawHUD();
+        this.pack();
+    }
+
+    /**
+     * Constructs a new game frame with a fresh game board. {@link TetrisPanel}
+     * The size of the board comes from the tetris.width and tetris.height system properties, the classic 10x20 by default.
+     */
+    public GameFrame() {
+        this(Integer.getInteger("tetris.width", TetrisGame.CLASSIC_WIDTH),
+                Integer.getInteger("tetris.height", TetrisGame.CLASSIC_HEIGHT));
+    }
+
+    /**
+     * Constructs a new game frame with a fresh game board of any size. {@link TetrisPanel}
+     * Boards larger than the frame are shown through a viewport following the falling Tetromino.
+     *
+     * @param width The width of the board in squares.
+     * @param height The height of the board in squares.
+     */
+    public GameFrame(int width, int height) {
+        initBasic();
+        this.TetrisBoard = new TetrisPanel(this, new TetrisGame(width, height, new PureRandomizer(new Random().nextLong())));
+        initSimulation();
+        this.addKeyListener(new MyKeyListener());
+        this.add(TetrisBoard, BorderLayout.CENTER);
+        initHUD();
+    }
+
+    /**
+     * Constructs a game frame continuing an existing game, like one recovered from the autosave journal.
+     *
+     * @param game The game to continue.
+     */
+    public GameFrame(TetrisGame game) {
+        initBasic();
+        this.TetrisBoard = new TetrisPanel(this, game);
+        initSimulation();
+        this.addKeyListener(new MyKeyListener());
+        this.add(TetrisBoard, BorderLayout.CENTER);
+        initHUD();
+    }
+
+    /**
+     * Constructs a game frame by loading a previously saved game state.
+     * 
+     * @param filename The name of the file containing the saved game state.
+     * @throws IOException If the file can't be read or isn't a save, no frame is made then.
+     */
+    public GameFrame(String filename) throws IOException {
+        initBasic();
+        loadGame(filename);
+        initSimulation();
+        this.addKeyListener(new MyKeyListener());
+        this.add(TetrisBoard, BorderLayout.CENTER);
+        initHUD();
+    }
+
+    /**
+     * Constructs a frame playing back a recorded game {@link ReplayRecorder}, from its start at real time.
+     * The replay is played by a {@link ReplayPlayer} on the shared {@link GameScheduler}, the board only paints the snapshots it publishes,
+     * so however fast the replay goes the board is painted at most once per frame.
+     *
+     * @param reader The replay.
+     * @throws IOException If reading the replay fails.
+     */
+    public GameFrame(ReplayReader reader) throws IOException {
+        initBasic();
+        ReplayReader.Cursor start = reader.seek(0);
+        this.TetrisBoard = new TetrisPanel(this, start.getGame());
+        this.replay = new ReplayPlayer(reader, start, new ReplayListener());
+        TetrisBoard.setSnapshots(replay.getSnapshots());
+        initRendering();
+        this.addKeyListener(new ReplayKeyListener());
+        this.add(TetrisBoard, BorderLayout.CENTER);
+        initHUD();
+        updateReplayTitle();
+    }
+
+    /**
+     * Asks for the number of a piece and jumps the replay to where it starts falling.
+     */
+    private void askPiece() {
+        String answer = JOptionPane.showInputDialog(this, "Jump to piece:");
+        if (answer == null) {
+            return;
+        }
+        try {
+            replay.seekPiece(Long.parseLong(answer.trim()));
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "Not a piece number: " + answer);
+        }
+    }
+
+    /**
+     * Shows the speed of the replay in the title, called on the EDT.
+     */
+    private void updateReplayTitle() {
+        double speed = replay.getSpeed();
+        String shown = (speed >= 1) ? String.valueOf((int) speed) : String.valueOf(speed);
+        setTitle("Replay " + shown + "x" + (replay.isPlaying() ? "" : " (paused)"));
+    }
+
+    /**
+     * Resumes the game after being paused.
+     * The game is resumed on the simulation thread, the ticks went on while it was paused, this waits until it is done.
+     */
+    public void resume() {
+        await(simulation.resume());
+    }
+
+    /**
+     * Ends the game and displays a Game Over message.
+     * Displays the score that the game ended on.
+     */
+    private void gameOver() {
+        if (over) {
+            return;
+        }
+        over = true;
+        simulation.stop();
+
+        JLabel overLabel = new JLabel("Game Over! Score: " + this.TetrisBoard.getShownScore(), SwingConstants.CENTER);
+        overLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        overLabel.setOpaque(true);
+        overLabel.setBackground(Color.BLACK);
+        overLabel.setForeground(Color.GREEN);
+
+        this.getContentPane().removeAll();
+        this.setLayout(new BorderLayout());
+        this.add(overLabel, BorderLayout.CENTER);
+
+        this.revalidate();
+        this.repaint();
+    }
+
+    /**
+     * Displays a pause menu (called from Pause after Esc key)
+     * Pause menu is a seperate window {@link PauseMenu}
+     */
+    public void drawPauseMenu() {
+        PauseMenu PM = new PauseMenu(this);
+        PM.display();
+    }
+
+    /**
+     * Ensures the HUD is visible and properly displayed.
+     */
+    public void drawHUD() {
+        this.HUD.setVisible(true);
+    }
+
+    /**
+     * Updates the whole HUD {@link TetrisHUD} from the latest snapshot, on the EDT.
+     * While a game runs the HUD follows its events instead, this is only needed when the game shown was swapped behind its back.
+     */
+    public void updateHUD() {
+        this.HUD.updateScore();
+        this.HUD.previewChanged();
+    }
+
+    /**
+     * Pauses the game and displays the pause menu.{@link PauseMenu}
+     * The menu has options to quit, save and quit or resume
+     */
+    public void Pause() {
+        simulation.pause();
+        drawPauseMenu();
+    }
+
+    /**
+     * Starts the game and initializes the game loop.
+     */
+    public void runGame() {
+        this.setVisible(true);
+        if (replay != null) {
+            replay.start(GameScheduler.shared(), ReplayPlayer.FRAME_MILLIS);
+        } else {
+            simulation.start(GameScheduler.shared(), TetrisPanel.FRAME_MILLIS);
+            simulation.submit(this::startJournal);
+        }
+    }
+
+    /**
+     * Turns the autoplayer {@link AutoPilot} on or off, when on it plays the game through the same moves as the keyboard.
+     *
+     * @param on True to let the autoplayer play, false to give the game back to the player.
+     */
+    public void setAutoPlay(boolean on) {
+        this.autoPilot = on ? new AutoPilot(simulation.getGame(), new AutoPlayer()) : null;
+        simulation.setAgent(on ? autoPilot::tick : null);
+    }
+
+    /**
+     * Saves the current game state to a file in the binary save format {@link SaveFormat}.
+     * Called from the Pause menu's {@link PauseMenu} save menu, the game is written on the simulation thread and this waits for it
+     * @param filename The name of the file to save the game state to.
+     */
+    public void saveGame(String filename) {
+        Path saveDir = savesDir();
+        try {
+            Files.createDirectories(saveDir);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        await(simulation.submit(() -> {
+            try (FileChannel out = FileChannel.open(saveDir.resolve(filename),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                SaveFormat.write(simulation.getGame(), out);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }));
+    }
+
+    /**
+     * Waits for a task handed to the simulation, it takes at most a tick.
+     *
+     * @param task The future of the task.
+     */
+    private static void await(Future<?> task) {
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads a gamestate from a file.  {@link TetrisGame} 
+     * Called in the start window's {@link StartWindow} load game button 
+     * The file is read in the binary save format {@link SaveFormat}, a new board {@link TetrisPanel} is created to show the loaded game
+     * @param filename The name of the file containing the saved game state.
+     * @throws IOException If the file can't be read or isn't a save, the board is left as it was then.
+     */
+    public void loadGame(String filename) throws IOException {
+        try (FileChannel in = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            TetrisGame loadedGame = SaveFormat.read(in);
+            this.TetrisBoard = new TetrisPanel(this, loadedGame);
+            this.TetrisBoard.resumeGame();
+            this.TetrisBoard.repaint();
+            this.add(TetrisBoard, BorderLayout.CENTER);
+        }
+    }
+
+    /**
+     * Gets the current game board.
+     * @return The {@link TetrisPanel} representing the game board.
+     */
+    public TetrisPanel getBoard() {
+        return this.TetrisBoard;
+    }
+
+    /**
+     * Gets the handle of the game tick registered with the {@link GameScheduler}.
+     *
+     * @return The handle of the game loop, null before the game is started.
+     */
+    public ScheduledFuture<?> getTicker() {
+        return simulation.getTicker();
+    }
+
+    /**
+     * Gets the simulation running the game.
+     *
+     * @return The simulation.
+     */
+    public Simulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Gets the player of the replay shown.
+     *
+     * @return The replay player, null if the frame runs a game.
+     */
+    public ReplayPlayer getReplay() {
+        return replay;
+    }
+}
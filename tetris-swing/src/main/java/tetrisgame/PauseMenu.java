@@ -124,7 +124,7 @@ public class PauseMenu extends JFrame {
         this.Resume = new JButton("Resume");
         this.Quit = new JButton("Quit");
         this.SQuit = new JButton("Save & Quit");
-        this.Status = new JLabel("Game Paused | Score: " + Game.getBoard().getScore());
+        this.Status = new JLabel("Game Paused | Score: " + Game.getBoard().getShownScore());
 
         // Set Frame Properties
         setTitle("Pause Menu");
@@ -0,0 +1,193 @@
+package tetrisgame;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The StartWindow class serves as the entry point for the Tetris game.
+ * providing a menu to start a new game, load a saved game, recover the last game from the autosave journal, watch a replay, or quit.
+ */
+public class StartWindow extends JFrame {
+    private GameFrame CurrentGame; // Reference to the current game instance
+    private JButton newgame = new JButton("New Game"); // Button to start a new game
+    private JButton loadgame = new JButton("Load Game"); // Button to load a saved game
+    private JButton recover = new JButton("Recover"); // Button to continue the last game from the autosave journal
+    private JButton replay = new JButton("Replay"); // Button to watch a recorded game
+    private JButton quit = new JButton("Quit"); // Button to quit the application
+    private JPanel panel = new JPanel(); // Panel to hold the buttons
+
+    /**
+     * Constructor for StartWindow.
+     * Initializes the UI components and adds action listeners for the buttons.
+     */
+    public StartWindow() {
+        setTitle("Tetris");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setSize(480, 110);
+        setResizable(false);
+
+        // Add buttons to the panel
+        panel.add(newgame);
+        panel.add(loadgame);
+        if (Journal.exists(GameFrame.autosaveDir())) {
+            panel.add(recover);
+        }
+        panel.add(replay);
+        panel.add(quit);
+        this.add(panel);
+
+        // Attach action listeners to buttons
+        newgame.addActionListener(new StartButton());
+        loadgame.addActionListener(new LoadButton());
+        recover.addActionListener(new RecoverButton());
+        replay.addActionListener(new ReplayButton());
+        quit.addActionListener(new QuitButton());
+    }
+
+    /**
+     * Opens a file chooser dialog to allow the user to select a saved game file
+     * and loads the game from the selected file. 
+     * The loading is done with a special constructor of the {@link GameFrame} class which takes a path as an argument
+     * The {@link TetrisPanel} of the new GameFrame will be loaded from this path, if it exists and is a correct savefile,
+     * otherwise the error is shown and the start window stays.
+     */
+    public void loadGame() {
+        // Show the file chooser dialog
+        JFileChooser saveChooser = new JFileChooser();
+        saveChooser.setDialogTitle("Select Saved Game");
+
+        int userSelection = saveChooser.showOpenDialog(this); // Use showOpenDialog for loading
+
+        if (userSelection == JFileChooser.APPROVE_OPTION) {
+            File fileToLoad = saveChooser.getSelectedFile();
+
+            // Initialize the game frame with the selected file path
+            try {
+                CurrentGame = new GameFrame(fileToLoad.getAbsolutePath());
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(this, "The game can't be loaded: " + e.getMessage());
+                return;
+            }
+            CurrentGame.runGame(); // Start the game
+        }
+    }
+
+    /**
+     * Recovers the last game from the autosave journal {@link Journal} and continues it.
+     * The Tetromino that was falling when the game was left is lost, the game goes on with the next one.
+     */
+    public void recoverGame() {
+        try {
+            TetrisGame game = Journal.recover(GameFrame.autosaveDir());
+            if (game == null) {
+                JOptionPane.showMessageDialog(this, "There is no game to recover.");
+                return;
+            }
+            CurrentGame = new GameFrame(game);
+            CurrentGame.runGame();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Opens a file chooser dialog to select a recorded game {@link ReplayRecorder} and plays it back in a new {@link GameFrame}.
+     */
+    public void watchReplay() {
+        JFileChooser replayChooser = new JFileChooser();
+        replayChooser.setDialogTitle("Select Replay");
+        if (replayChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            ReplayReader reader = new ReplayReader(FileChannel.open(replayChooser.getSelectedFile().toPath(), StandardOpenOption.READ));
+            CurrentGame = new GameFrame(reader);
+            CurrentGame.runGame();
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "The replay can't be read: " + e.getMessage());
+        }
+    }
+
+    /**
+     * ActionListener for the Replay button.
+     * Plays back a recorded game.
+     */
+    public class ReplayButton implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            watchReplay();
+        }
+    }
+
+    /**
+     * ActionListener for the Recover button.
+     * Continues the last game from the autosave journal.
+     */
+    public class RecoverButton implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            recoverGame();
+        }
+    }
+
+    /**
+     * ActionListener for the Load Game button.
+     * Opens the load game menu.
+     */
+    public class LoadButton implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            loadGame();
+        }
+    }
+
+    /**
+     * ActionListener for the Quit button.
+     * Exits the application.
+     */
+    public class QuitButton implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            dispose();
+        }
+    }
+
+    /**
+     * ActionListener for the New Game button.
+     * Starts a new Tetris game window. {@link GameFrame}
+     */
+    public class StartButton implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            CurrentGame = new GameFrame();
+            CurrentGame.runGame();
+        }
+    }
+
+    /**
+     * The main method to launch the StartWindow.
+     * The game metrics are published over JMX {@link GameMetrics}, so they can be watched from JConsole.
+     * Starting JMX loads a good part of java.management, so it is done on a thread of its own instead of before the first frame.
+     * With the startup probe on ({@link StartupProbe}) a new game is started right away, as if New Game was pressed.
+     *
+     * @param args Command-line arguments (not used).
+     */
+    public static void main(String[] args) {
+        Thread jmx = new Thread(GameMetrics::register, "tetris-jmx");
+        jmx.setDaemon(true);
+        jmx.start();
+        StartWindow frame = new StartWindow();
+
+        // Make the window visible
+        frame.setVisible(true);
+        if (StartupProbe.isEnabled()) {
+            frame.newgame.doClick();
+        }
+    }
+}
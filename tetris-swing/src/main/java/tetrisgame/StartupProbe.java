@@ -0,0 +1,55 @@
+package tetrisgame;
+
+import java.awt.Toolkit;
+
+/**
+ * Marks the end of a cold start for the startup benchmark (tetrisgame.StartupBench in tetris-bench) and the AppCDS training run of the appcds profile.
+ * When the tetris.startupProbe system property is set, the start window starts a new game right away,
+ * and the first paint of the board prints {@link #MARKER} and exits, so whoever launched the JVM can time it from the outside.
+ * Otherwise the probe costs one check of a static flag per paint.
+ */
+public final class StartupProbe {
+    /**
+     * The system property turning the probe on.
+     */
+    public static final String PROPERTY = "tetris.startupProbe";
+
+    /**
+     * The line printed once the board is on screen.
+     */
+    public static final String MARKER = "tetris-first-paint";
+
+    private static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+    private static boolean done;
+
+    private StartupProbe() {
+    }
+
+    /**
+     * Checks whether the probe is on.
+     *
+     * @return True if the JVM was started to be timed.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Called after every paint of the board, on the first one with the probe on it flushes the screen, prints {@link #MARKER} and exits.
+     */
+    public static void boardPainted() {
+        if (!ENABLED || done) {
+            return;
+        }
+        synchronized (StartupProbe.class) {
+            if (done) {
+                return;
+            }
+            done = true;
+        }
+        Toolkit.getDefaultToolkit().sync();
+        System.out.println(MARKER);
+        System.out.flush();
+        System.exit(0);
+    }
+}
@@ -0,0 +1,88 @@
+package tetrisgame;
+
+import java.awt.Color;
+import java.util.HashMap;
+import tetrisgame.TetrisUtils.ShapeType;
+
+/**
+ * Utility class holding the colors used to draw the Tetris game.
+ * The engine only stores compact color codes ({@link TetrisUtils#getColorCode(ShapeType)}), they are mapped to colors here.
+ */
+public class TetrisColors {
+
+    /**
+     * HashMap for storing colors corresponding to each Tetris shape type.
+     */
+    public static final HashMap<ShapeType, Color> SHAPE_COLORS = new HashMap<>();
+
+    // Static initializer block for setting up shape colors
+    static {
+        SHAPE_COLORS.put(ShapeType.O, Color.YELLOW);
+        SHAPE_COLORS.put(ShapeType.I, new Color(0, 100, 150)); // Teal
+        SHAPE_COLORS.put(ShapeType.S, new Color(50, 250, 0));  // Green
+        SHAPE_COLORS.put(ShapeType.L, new Color(255, 160, 30)); // Orange
+        SHAPE_COLORS.put(ShapeType.J, new Color(200, 20, 100)); // Pink
+        SHAPE_COLORS.put(ShapeType.T, new Color(250, 30, 0));   // Red
+        SHAPE_COLORS.put(ShapeType.Z, new Color(220, 20, 170)); // Purple
+    }
+
+    /**
+     * HashMap for storing the see-through colors of the ghost of each Tetris shape type.
+     */
+    public static final HashMap<ShapeType, Color> GHOST_COLORS = new HashMap<>();
+
+    /**
+     * The opacity of a ghost color, out of 255.
+     */
+    private static final int GHOST_ALPHA = 70;
+
+    static {
+        for (ShapeType type : ShapeType.values()) {
+            Color c = SHAPE_COLORS.get(type);
+            GHOST_COLORS.put(type, new Color(c.getRed(), c.getGreen(), c.getBlue(), GHOST_ALPHA));
+        }
+    }
+
+    /**
+     * The default base/background color for the Tetris grid.
+     */
+    public static final Color BASE_COLOR = Color.BLACK;
+
+    /**
+     * The color of the grid lines on the Tetris board.
+     */
+    public static final Color GRID_LINE_COLOR = Color.WHITE;
+
+    /**
+     * Retrieves the color associated with a given Tetris shape type.
+     *
+     * @param shape The shape type whose color is to be retrieved.
+     * @return The color associated with the specified shape type.
+     */
+    public static Color getColorForShape(ShapeType shape) {
+        return SHAPE_COLORS.get(shape);
+    }
+
+    /**
+     * Retrieves the see-through color of the ghost of a given Tetris shape type, which shows where the falling Tetromino would land.
+     *
+     * @param shape The shape type whose ghost color is to be retrieved.
+     * @return The ghost color associated with the specified shape type.
+     */
+    public static Color getGhostColorForShape(ShapeType shape) {
+        return GHOST_COLORS.get(shape);
+    }
+
+    /**
+     * Retrieves the color belonging to a color code stored on the board ({@link BitBoard}).
+     *
+     * @param code The color code, 0 for an empty square.
+     * @return The base color for empty squares, the shape's color otherwise.
+     */
+    public static Color getColorForCode(int code) {
+        if (code == 0) {
+            return BASE_COLOR;
+        }
+        return SHAPE_COLORS.get(TetrisUtils.getShapeType(code - 1));
+    }
+}
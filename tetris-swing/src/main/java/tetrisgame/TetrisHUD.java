@@ -0,0 +1,198 @@
+package tetrisgame;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * TetrisHUD is a graphical component that displays the current game status,
+ * including the score and a preview of the tetrominos coming next to the current Game window {@link GameFrame}
+ * The HUD is driven by the events of the game ({@link GameListener#scoreChanged(int)}, {@link GameListener#previewChanged()}):
+ * a change of the score only sets the text of its label and a change of the queue only repaints the preview panel,
+ * between two events the HUD costs nothing. Everything is read from the latest snapshot published {@link SnapshotBuffer},
+ * so the HUD works the same when the board is rendered actively.
+ */
+public class TetrisHUD extends JPanel {
+    /**
+     * The number of Tetrominos shown by default, unless the tetris.preview system property tells otherwise.
+     */
+    public static final int DEFAULT_PREVIEW = 3;
+
+    /**
+     * The size of a square of the preview in pixels.
+     */
+    static final int PREVIEW_CELL = 20;
+
+    /**
+     * The orientation every shape is previewed in, the flattest one, so the I piece lies down.
+     */
+    private static final ShapeTable.Orientation[] PREVIEW_SHAPES = previewShapes();
+
+    /**
+     * The height of the slot of one Tetromino in the preview in squares: the tallest shape previewed with half a square of padding above and below.
+     */
+    static final int PREVIEW_SLOT = previewSlot();
+
+    private JLabel scoreLabel = new JLabel("Score: 0"); // Label to display the score
+    private TetrisPanel Tetris; // Reference to the Tetris game panel
+    private final int previewCount;
+
+    /**
+     * Panel to display the queue of tetrominos coming next. It overrides paintComponent to render them, stacked from the top.
+     */
+    private JPanel previewPanel = new JPanel() {
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            TileSprites sprites = TileSprites.get(getGraphicsConfiguration(), PREVIEW_CELL);
+            for (int i = 0; i < previewCount; i++) {
+                int type = Tetris.getShownPreview(i);
+                if (type >= 0) {
+                    drawPreview(g, sprites, type, i, getWidth());
+                }
+            }
+        }
+    };
+
+    /**
+     * Constructs the TetrisHUD with a reference to the Tetris game panel. {@link TetrisPanel}
+     * Needs access to the Tetris game in order to display the correct information
+     * The number of Tetrominos previewed comes from the tetris.preview system property, {@link #DEFAULT_PREVIEW} by default.
+     * @param T The TetrisPanel object representing the game state.
+     */
+    public TetrisHUD(TetrisPanel T) {
+        this(T, Integer.getInteger("tetris.preview", DEFAULT_PREVIEW));
+    }
+
+    /**
+     * Constructs the TetrisHUD with a reference to the Tetris game panel. {@link TetrisPanel}
+     * @param T The TetrisPanel object representing the game state.
+     * @param previewCount The number of Tetrominos coming next to show, kept between 1 and {@link TetrisGame#MAX_PREVIEW}.
+     */
+    public TetrisHUD(TetrisPanel T, int previewCount) {
+        this.Tetris = T;
+        this.previewCount = Math.max(1, Math.min(TetrisGame.MAX_PREVIEW, previewCount));
+        this.setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+        this.setPreferredSize(new Dimension(130, 600));
+        this.setBackground(Color.LIGHT_GRAY);
+
+        // Score Label
+        scoreLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        scoreLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        scoreLabel.setText("Score: " + Tetris.getShownScore());
+        this.add(Box.createRigidArea(new Dimension(0, 20))); // Spacer
+        this.add(scoreLabel);
+
+        // Next Tetromino Label
+        JLabel nextLabel = new JLabel("Next:");
+        nextLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        nextLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        this.add(Box.createRigidArea(new Dimension(0, 20))); // Spacer
+        this.add(nextLabel);
+
+        // Preview Panel, one slot for each Tetromino
+        Dimension size = new Dimension(100, this.previewCount * PREVIEW_SLOT * PREVIEW_CELL);
+        previewPanel.setPreferredSize(size);
+        previewPanel.setMaximumSize(size);
+        previewPanel.setBackground(Color.WHITE);
+        this.add(Box.createRigidArea(new Dimension(0, 10))); // Spacer
+        this.add(previewPanel);
+
+        this.add(Box.createVerticalGlue()); // Push content to the top
+    }
+
+    /**
+     * Picks the orientation every shape is previewed in: the one taking the fewest rows, the first of them if there are several.
+     *
+     * @return The orientations indexed by shape type.
+     */
+    private static ShapeTable.Orientation[] previewShapes() {
+        ShapeTable.Orientation[] shapes = new ShapeTable.Orientation[TetrisUtils.shapes.length];
+        for (int type = 0; type < shapes.length; type++) {
+            for (int rot = 0; rot < ShapeTable.ROTATIONS; rot++) {
+                ShapeTable.Orientation o = ShapeTable.get(type, rot);
+                if (shapes[type] == null || height(o) < height(shapes[type])) {
+                    shapes[type] = o;
+                }
+            }
+        }
+        return shapes;
+    }
+
+    /**
+     * Works out the height of a preview slot from the tallest shape previewed.
+     *
+     * @return The height in squares.
+     */
+    private static int previewSlot() {
+        int tallest = 0;
+        for (ShapeTable.Orientation o : PREVIEW_SHAPES) {
+            tallest = Math.max(tallest, height(o));
+        }
+        return tallest + 1;
+    }
+
+    /**
+     * Gets the number of rows an orientation takes.
+     *
+     * @param o The orientation.
+     * @return The height in squares.
+     */
+    private static int height(ShapeTable.Orientation o) {
+        return o.getMaxY() - o.getMinY() + 1;
+    }
+
+    /**
+     * Draws a Tetromino of the preview in its slot, its bounding box centered in the slot both ways.
+     *
+     * @param g The Graphics object of the preview panel.
+     * @param sprites The sprites of the squares, of the size of a square of the preview.
+     * @param type The index of the shape type.
+     * @param slot The place of the Tetromino in the queue, 0 is the top slot.
+     * @param width The width of the preview panel in pixels.
+     */
+    static void drawPreview(Graphics g, TileSprites sprites, int type, int slot, int width) {
+        ShapeTable.Orientation shape = PREVIEW_SHAPES[type];
+        int top = slot * PREVIEW_SLOT * PREVIEW_CELL;
+        int x0 = (width - (shape.getMaxX() - shape.getMinX() + 1) * PREVIEW_CELL) / 2 - shape.getMinX() * PREVIEW_CELL;
+        int y0 = top + (PREVIEW_SLOT - height(shape)) * PREVIEW_CELL / 2 - shape.getMinY() * PREVIEW_CELL;
+        Image tile = sprites.getTile(type);
+        for (Coord coord : shape.getCells()) {
+            int x = x0 + coord.getX() * PREVIEW_CELL;
+            int y = y0 + coord.getY() * PREVIEW_CELL;
+            g.drawImage(tile, x, y, PREVIEW_CELL, PREVIEW_CELL, null);
+            g.setColor(Color.BLACK);
+            g.drawRect(x, y, PREVIEW_CELL, PREVIEW_CELL);
+        }
+    }
+
+    /**
+     * Getter for the number of Tetrominos coming next shown
+     * @return The length of the preview queue.
+     */
+    public int getPreviewCount() {
+        return previewCount;
+    }
+
+    /**
+     * Repaints the preview panel, and only that, when the queue of Tetrominos coming next has changed. Safe from any thread.
+     */
+    public void previewChanged() {
+        previewPanel.repaint();
+    }
+
+    /**
+     * Updates the score label when the score has changed. Safe from any thread, the label is set on the EDT.
+     *
+     * @param score The new score.
+     */
+    public void scoreChanged(int score) {
+        SwingUtilities.invokeLater(() -> scoreLabel.setText("Score: " + score));
+    }
+
+    /**
+     * Updates the score label with the current score from the TetrisPanel.
+     */
+    public void updateScore() {
+        scoreLabel.setText("Score: " + Tetris.getShownScore());
+    }
+}
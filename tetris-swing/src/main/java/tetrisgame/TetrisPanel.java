@@ -0,0 +1,652 @@
+package tetrisgame;
+import javax.swing.*;
+import java.awt.*;
+
+
+/**
+ * The TetrisPanel class represents the game board for a Tetris game.
+ * It renders the board and the current Tetromino {@link Tetromino} of a headless game {@link TetrisGame},
+ * the game logic like clearing rows and detecting game over conditions lives in the game itself.
+ * The panel listens to the game {@link GameListener} and repaints only the squares the game reports as changed.
+ * Once a simulation {@link Simulation} runs the game on its own thread, the panel paints the latest snapshot {@link GameSnapshot} it published,
+ * without locks and without touching the game itself. A replay ({@link ReplayPlayer}) is painted the same way.
+ * Boards too large for the panel are shown through a viewport which follows the falling Tetromino, and can be zoomed in and out.
+ * The board can also be rendered actively ({@link #setActiveRendering(int)}) by a render thread of its own instead of being repainted by Swing.
+ */
+public class TetrisPanel extends JPanel implements GameListener {
+    /**
+     * The time between two game ticks in milliseconds.
+     */
+    public static final int FRAME_MILLIS = TetrisGame.FRAME_MILLIS;
+
+    /**
+     * The number of game ticks between two gravity steps of the falling Tetromino.
+     */
+    public static final int GRAVITY_FRAMES = TetrisGame.GRAVITY_FRAMES;
+
+    /**
+     * The size of a square of the board in pixels, before zooming.
+     */
+    public static final int CELL_SIZE = 30;
+
+    /**
+     * The smallest size of a square when zoomed out.
+     */
+    public static final int MIN_CELL_SIZE = 3;
+
+    /**
+     * The largest size of a square when zoomed in.
+     */
+    public static final int MAX_CELL_SIZE = 60;
+
+    /**
+     * The largest size of the panel in pixels, larger boards are scrolled.
+     */
+    public static final int MAX_VIEW_SIZE = 900;
+
+    /**
+     * The number of squares kept between the falling Tetromino and the edge of the viewport when it is followed.
+     */
+    private static final int FOLLOW_MARGIN = 4;
+
+    /**
+     * The game shown by the panel.
+     */
+    private final TetrisGame game;
+
+    /**
+     * The size of a square in pixels at the current zoom.
+     * Only changed on the EDT, but read by the simulation thread when it asks for a repaint.
+     */
+    private volatile int cellSize = CELL_SIZE;
+
+    /**
+     * The leftmost column and the topmost row of the board shown, only changed by the renderer of the board.
+     */
+    private volatile int viewCol;
+    private volatile int viewRow;
+
+    /**
+     * The snapshots published by the simulation or the replay player running the game, null until there is one.
+     */
+    private volatile SnapshotBuffer snapshots;
+
+    /**
+     * The simulation running the game, null until there is one. The moves of the panel ({@link #moveLeft()} and the rest) are handed to it.
+     */
+    private volatile Simulation simulation;
+
+    /**
+     * The renderer drawing the board on its own thread, null if the board is painted by Swing.
+     */
+    private volatile ActiveRenderer renderer;
+
+    /**
+     * The pre-rendered squares for the current size of a square and display, only used by the renderer of the board.
+     */
+    private TileSprites sprites;
+
+    /**
+     * The version of the last snapshot painted, so its latencies are only recorded once.
+     */
+    private long paintedVersion;
+
+    /**
+     * Constructs a TetrisPanel showing a new game.
+     *
+     * @param G The GameFrame instance associated with this panel.
+     */
+    public TetrisPanel(GameFrame G) {
+        this(G, new TetrisGame());
+    }
+
+    /**
+     * Constructs a TetrisPanel showing an existing game, for example one loaded from a save.
+     *
+     * @param G The GameFrame instance associated with this panel.
+     * @param game The game to show.
+     */
+    public TetrisPanel(GameFrame G, TetrisGame game) {
+        this.game = game;
+        BitBoard board = game.getBoard();
+        Dimension size = new Dimension(Math.min(board.getWidth() * CELL_SIZE, MAX_VIEW_SIZE),
+                Math.min(board.getHeight() * CELL_SIZE, MAX_VIEW_SIZE));
+        this.setPreferredSize(size);
+        this.setSize(size);
+        game.setListener(this);
+    }
+
+    /**
+     * Overriding the painCompononent method of the JPanel class
+     * The board is painted by {@link #render(Graphics, GameSnapshot)}, unless it is rendered actively, then its canvas covers the panel
+     * Everything is painted from a snapshot of the game {@link GameSnapshot}, the latest one published by the simulation
+     * Only the part of the board inside the clip is painted, which is usually just the squares changed by the last move {@link DirtyRegion}
+     * The board is shown from the top left square of the viewport, which moves along with the falling Tetromino when the board is larger than the panel
+     * The empty squares and their grid lines are filled and drawn for the clip only, so painting costs the same however large the board is
+     * The squares are drawn with the pre-rendered sprite {@link TileSprites} of the color code stored for them in the Board {@link BitBoard},
+     * the sprites are rendered once for every size of a square and scale of the display, so shading them costs nothing while painting
+     * The falling Tetromino is not part of the board, so it is painted over the locked squares
+     * Its ghost is painted see-through where it would land, the drop distance comes from the skyline of the board so no rows are scanned
+     * Squares are drawn inside the grid lines, so the lines don't have to be redrawn over them
+     * The paint time, the time from publishing a snapshot to painting it and the time from a key press to the paint showing it are recorded in the {@link GameMetrics}
+     *
+     * @param g The Graphics object used to render the board.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (renderer == null) {
+            if (render(g, getSnapshot())) {
+                repaint(); // the whole viewport moved, the clip only covers the last move
+            }
+            StartupProbe.boardPainted();
+        }
+    }
+
+    /**
+     * Paints a snapshot of the board inside the clip of a Graphics, or the whole viewport if it has no clip.
+     * Called by whoever renders the board: the EDT, or the render thread of the active renderer.
+     *
+     * @param g The Graphics object used to render the board.
+     * @param snapshot The latest snapshot.
+     * @return True if the viewport moved to follow the falling Tetromino, so more than the clip has changed.
+     */
+    boolean render(Graphics g, GameSnapshot snapshot) {
+        long start = System.nanoTime();
+        GameMetrics metrics = GameMetrics.get();
+        boolean fresh = snapshots != null && snapshot.getVersion() != paintedVersion;
+        if (fresh) {
+            metrics.edtDelay.recordSince(snapshot.getPublishedNanos());
+        }
+        BitBoard board = snapshot.getBoard();
+        int cell = cellSize;
+        boolean moved = follow(snapshot, cell);
+        Graphics2D bg = (Graphics2D) g.create();
+        GraphicsConfiguration config = bg.getDeviceConfiguration();
+        if (sprites == null || !sprites.fits(config, cell)) {
+            sprites = TileSprites.get(config, cell);
+        }
+        bg.translate(-viewCol * cell, -viewRow * cell);
+        Rectangle clip = bg.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(viewCol * cell, viewRow * cell, getWidth(), getHeight());
+        }
+        clip = clip.intersection(new Rectangle(0, 0, board.getWidth() * cell, board.getHeight() * cell));
+        if (!clip.isEmpty()) {
+            paintBoard(bg, snapshot, clip, cell, sprites);
+        }
+        bg.dispose();
+        metrics.paint.recordSince(start);
+        if (fresh) {
+            paintedVersion = snapshot.getVersion();
+            if (snapshot.getInputNanos() != 0) {
+                metrics.keyToPixel.recordSince(snapshot.getInputNanos());
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Paints the squares of a snapshot inside a clip, in the pixels of the whole board.
+     *
+     * @param g The Graphics object used to render the board, translated to the viewport.
+     * @param snapshot The snapshot to paint.
+     * @param clip The part of the board to paint, in pixels of the board.
+     * @param cell The size of a square.
+     * @param sprites The sprites of the squares, of the size of a square.
+     */
+    private void paintBoard(Graphics g, GameSnapshot snapshot, Rectangle clip, int cell, TileSprites sprites) {
+        BitBoard board = snapshot.getBoard();
+        int colFrom = clip.x / cell;
+        int colTo = Math.min(board.getWidth() - 1, (clip.x + clip.width - 1) / cell);
+        int rowFrom = clip.y / cell;
+        int rowTo = Math.min(board.getHeight() - 1, (clip.y + clip.height - 1) / cell);
+        g.setColor(TetrisColors.BASE_COLOR);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        g.setColor(TetrisColors.GRID_LINE_COLOR);
+        for (int col = Math.max(1, colFrom); col <= colTo; col++) {
+            g.drawLine(col * cell, clip.y, col * cell, clip.y + clip.height - 1);
+        }
+        for (int row = Math.max(1, rowFrom); row <= rowTo; row++) {
+            g.drawLine(clip.x, row * cell, clip.x + clip.width - 1, row * cell);
+        }
+        for (int row = rowFrom; row <= rowTo; row++) {
+            if (board.getFill(row) == 0) {
+                continue;
+            }
+            for (int col = colFrom; col <= colTo; col++) {
+                byte code = board.getColor(col, row);
+                if (code != 0) {
+                    sprites.draw(g, sprites.getTile(code - 1), col, row);
+                }
+            }
+        }
+        if (snapshot.isPieceActive()) {
+            int type = snapshot.getPieceType();
+            Coord[] cells = snapshot.getPieceOrientation().getCells();
+            int x = snapshot.getPieceX();
+            int y = snapshot.getPieceY();
+            int drop = snapshot.getDropDistance();
+            if (drop > 0) {
+                for (Coord cord : cells) {
+                    sprites.draw(g, sprites.getGhost(type), x + cord.getX(), y + cord.getY() + drop);
+                }
+            }
+            for (Coord cord : cells) {
+                sprites.draw(g, sprites.getTile(type), x + cord.getX(), y + cord.getY());
+            }
+        }
+    }
+
+    /**
+     * Moves the viewport so the falling Tetromino stays inside it, a few squares away from its edges where the board allows.
+     * Boards that fit the panel are always shown from their top left square.
+     *
+     * @param snapshot The snapshot about to be painted.
+     * @param cell The size of a square.
+     * @return True if the viewport moved.
+     */
+    private boolean follow(GameSnapshot snapshot, int cell) {
+        BitBoard board = snapshot.getBoard();
+        int col = viewCol;
+        int row = viewRow;
+        if (snapshot.isPieceActive()) {
+            ShapeTable.Orientation o = snapshot.getPieceOrientation();
+            col = followAxis(col, getWidth() / cell, board.getWidth(),
+                    snapshot.getPieceX() + o.getMinX(), snapshot.getPieceX() + o.getMaxX());
+            row = followAxis(row, getHeight() / cell, board.getHeight(),
+                    snapshot.getPieceY() + o.getMinY(), snapshot.getPieceY() + o.getMaxY());
+        }
+        col = clampView(col, getWidth() / cell, board.getWidth());
+        row = clampView(row, getHeight() / cell, board.getHeight());
+        if (col == viewCol && row == viewRow) {
+            return false;
+        }
+        viewCol = col;
+        viewRow = row;
+        return true;
+    }
+
+    /**
+     * Moves the start of the viewport along one axis so a range of squares is inside it with a margin.
+     *
+     * @param start The first square shown now.
+     * @param visible The number of squares shown.
+     * @param size The number of squares of the board along the axis.
+     * @param from The first square of the range.
+     * @param to The last square of the range.
+     * @return The new first square shown, not yet clamped to the board.
+     */
+    private static int followAxis(int start, int visible, int size, int from, int to) {
+        if (visible >= size) {
+            return 0;
+        }
+        int margin = Math.min(FOLLOW_MARGIN, Math.max(0, (visible - (to - from + 1)) / 2));
+        if (from - margin < start) {
+            return from - margin;
+        }
+        if (to + margin >= start + visible) {
+            return to + margin - visible + 1;
+        }
+        return start;
+    }
+
+    /**
+     * Keeps the start of the viewport on the board.
+     *
+     * @param start The first square shown.
+     * @param visible The number of squares shown.
+     * @param size The number of squares of the board along the axis.
+     * @return The first square shown, between 0 and the last start which still fills the panel.
+     */
+    private static int clampView(int start, int visible, int size) {
+        return Math.max(0, Math.min(start, size - visible));
+    }
+
+    /**
+     * Gets the snapshot of the game to paint, called by the renderer only: the EDT, or the render thread when rendering actively.
+     * Before there is a simulation the game is captured right away, nothing else touches it then.
+     *
+     * @return The latest snapshot of the game.
+     */
+    public GameSnapshot getSnapshot() {
+        SnapshotBuffer s = snapshots;
+        return (s != null) ? s.latest() : GameSnapshot.of(game);
+    }
+
+    /**
+     * Sets the simulation running the game, from now on the panel paints the snapshots it publishes.
+     *
+     * @param simulation The simulation.
+     */
+    public void setSimulation(Simulation simulation) {
+        this.simulation = simulation;
+        setSnapshots(simulation.getSnapshots());
+    }
+
+    /**
+     * Changes the game on the thread which owns it: handed to the simulation if there is one, its tick is the only writer of the game,
+     * otherwise run right away, nothing else touches the game then.
+     *
+     * @param change The change of the game.
+     */
+    private void onGame(Runnable change) {
+        Simulation s = simulation;
+        if (s != null) {
+            s.submit(change);
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * Sets where the snapshots of the game come from, like a replay player {@link ReplayPlayer}, from now on the panel paints the latest of them.
+     *
+     * @param snapshots The snapshots.
+     */
+    public void setSnapshots(SnapshotBuffer snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * Gets the score to show next to the board, from the latest snapshot published. Safe from any thread.
+     *
+     * @return The score.
+     */
+    public int getShownScore() {
+        SnapshotBuffer s = snapshots;
+        return (s != null) ? s.getScore() : game.getScore();
+    }
+
+    /**
+     * Gets the next Tetromino to show next to the board, from the latest snapshot published. Safe from any thread.
+     *
+     * @return The index of the shape type, -1 if there is none.
+     */
+    public int getShownNextType() {
+        SnapshotBuffer s = snapshots;
+        if (s != null) {
+            return s.getNextType();
+        }
+        Tetromino next = game.getNextTetro();
+        return (next != null) ? next.getShape().getType() : -1;
+    }
+
+    /**
+     * Gets a Tetromino coming next to show next to the board, from the latest snapshot published. Safe from any thread.
+     * Without snapshots the game is asked directly, then it must be called on the thread of the game.
+     *
+     * @param i The place in the queue, 0 is the next Tetromino.
+     * @return The index of the shape type, -1 if it isn't known.
+     */
+    public int getShownPreview(int i) {
+        SnapshotBuffer s = snapshots;
+        if (s != null) {
+            return s.getPreview(i);
+        }
+        int[] preview = new int[TetrisGame.MAX_PREVIEW];
+        return (i >= 0 && i < game.getPreview(preview, i + 1)) ? preview[i] : -1;
+    }
+
+    /**
+     * Renders the board actively: a render thread draws it onto a canvas at a refresh rate ({@link ActiveRenderer}),
+     * Swing no longer paints it. The snapshots have to be set first ({@link #setSnapshots(SnapshotBuffer)}).
+     * Called on the EDT before the panel is shown.
+     *
+     * @param refreshHz The target refresh rate in frames a second.
+     */
+    public void setActiveRendering(int refreshHz) {
+        if (renderer != null) {
+            return;
+        }
+        ActiveRenderer r = new ActiveRenderer(this, refreshHz);
+        this.setLayout(new BorderLayout());
+        this.add(r.getCanvas(), BorderLayout.CENTER);
+        this.renderer = r;
+    }
+
+    /**
+     * Getter for the active renderer of the board
+     * @return The renderer, null if the board is painted by Swing.
+     */
+    public ActiveRenderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * Sets the size of a square in pixels and repaints the board.
+     * Called on the EDT only.
+     *
+     * @param size The size, kept between {@link #MIN_CELL_SIZE} and {@link #MAX_CELL_SIZE}.
+     */
+    public void setCellSize(int size) {
+        cellSize = Math.max(MIN_CELL_SIZE, Math.min(MAX_CELL_SIZE, size));
+        ActiveRenderer r = renderer;
+        if (r != null) {
+            r.requestRender();
+        }
+        repaint();
+    }
+
+    /**
+     * Getter for the size of a square at the current zoom
+     * @return The size in pixels.
+     */
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Makes the squares a third larger, showing less of the board.
+     */
+    public void zoomIn() {
+        setCellSize(Math.max(cellSize + 1, cellSize * 4 / 3));
+    }
+
+    /**
+     * Makes the squares a quarter smaller, showing more of the board.
+     */
+    public void zoomOut() {
+        setCellSize(Math.min(cellSize - 1, cellSize * 3 / 4));
+    }
+
+    /**
+     * Getter for the leftmost column shown by the viewport
+     * @return The column.
+     */
+    public int getViewCol() {
+        return viewCol;
+    }
+
+    /**
+     * Getter for the topmost row shown by the viewport
+     * @return The row.
+     */
+    public int getViewRow() {
+        return viewRow;
+    }
+
+    /**
+     * Requests a clipped repaint of the squares the game reports as changed, where they are in the viewport.
+     * Called on the simulation thread, requesting a repaint is thread safe in Swing.
+     * Squares outside the viewport are clipped away by Swing.
+     *
+     * @param changed The squares changed since the last notification.
+     */
+    @Override
+    public void boardChanged(DirtyRegion changed) {
+        if (renderer != null) {
+            return; // the render thread picks the snapshot up on its next frame
+        }
+        int cell = cellSize;
+        repaint((changed.getMinX() - viewCol) * cell, (changed.getMinY() - viewRow) * cell,
+                (changed.getMaxX() - changed.getMinX() + 1) * cell, (changed.getMaxY() - changed.getMinY() + 1) * cell);
+    }
+
+    /**
+     * Checks if the game is lost (when a locked square is in the top row).
+     *
+     * @return True if the game is lost, false otherwise.
+     */
+    public boolean isLost() {
+        return game.isLost();
+    }
+
+    /**
+     * Checks and clears full rows on the whole board.
+     */
+    public void checkRows() {
+        onGame(game::checkRows);
+    }
+
+    /**
+     * Pauses the game, game ticks leave the board untouched until it is resumed.
+     */
+    public void pauseGame() {
+        onGame(game::pause);
+    }
+
+    /**
+     * Resumes the game, the current Tetromino continues falling with the next game tick.
+     */
+    public void resumeGame() {
+        onGame(game::resume);
+    }
+
+    /**
+     * Advances the game by one tick {@link TetrisGame#step()}, the changed squares are repainted through the listener.
+     */
+    public void doFrame() {
+        onGame(game::step);
+    }
+
+    /**
+     * Moves the current Tetromino {@link Tetromino} to the left.
+     */
+    public void moveLeft() {
+        onGame(game::moveLeft);
+    }
+
+    /**
+     * Moves the current Tetromino to the right.
+     */
+    public void moveRight() {
+        onGame(game::moveRight);
+    }
+
+    /**
+     * Moves the current Tetromino down by one row.
+     */
+    public void moveDown() {
+        onGame(game::moveDown);
+    }
+
+    /**
+     * Rotates the current Tetromino clockwise.
+     */
+    public void rotateTetro() {
+        onGame(game::rotate);
+    }
+
+    /**
+     * Drops the current Tetromino as far down as it goes.
+     */
+    public void pushDown() {
+        onGame(game::pushDown);
+    }
+
+    /**
+     * The getter for the headless game shown by the panel
+     * @return The game.
+     */
+    public TetrisGame getGame() {
+        return game;
+    }
+
+    /**
+     * The getter for the bitboard {@link BitBoard} of the Tetris game
+     * @return The board holding the locked squares.
+     */
+    public BitBoard getBoard() {
+        return game.getBoard();
+    }
+
+    /**
+     * Getter for the currently in play Tetro of the game
+     * @return The currently active Tetromino.
+     */
+    public Tetromino getCurrTetro() {
+        return game.getCurrTetro();
+    }
+
+    /**
+     * Getter for the next in line Tetromino
+     * @return The next Tetromino to be dropped.
+     */
+    public Tetromino getNextTetro() {
+        return game.getNextTetro();
+    }
+
+    /**
+     * The getter for the base color for the Tetris board
+     * @return The base color for unoccupied squares.
+     */
+    public Color getBase() {
+        return TetrisColors.BASE_COLOR;
+    }
+
+    /**
+     * The getter for the width of the Game board in squares as an integer
+     * @return The largest column index of the board.
+     */
+    public int getSquareWidth() {
+        return game.getSquareWidth();
+    }
+
+    /**
+     * Getter for the height of the Game board in squares as an integer
+     * @return The largest row index of the board.
+     */
+    public int getSquareHeight() {
+        return game.getSquareHeight();
+    }
+
+    /**
+     * Getter for the score of the tetris game
+     * @return The player's current score.
+     */
+    public int getScore() {
+        return game.getScore();
+    }
+
+    /**
+     * Getter for the on-state of the game
+     * @return True if the game is active, false otherwise.
+     */
+    public boolean isGameOn() {
+        return game.isGameOn();
+    }
+
+    /**
+     * Getter for the pause-state of the game
+     * @return True if the game is paused, false otherwise.
+     */
+    public boolean isPaused() {
+        return game.isPaused();
+    }
+
+    /**
+     * Getter for the updated flag
+     * @return True if the score or the next Tetromino has changed, false otherwise.
+     */
+    public boolean isUpdated() {
+        return game.isUpdated();
+    }
+
+    /**
+     * Marks the game state as no longer updated.
+     */
+    public void update() {
+        game.update();
+    }
+}
@@ -30,7 +30,7 @@ public class TetrisSquare implements Serializable {
      */
     public TetrisSquare(int xX, int yY) {
         this.position = new Coord(xX, yY);
-        color = TetrisUtils.BASE_COLOR;
+        color = TetrisColors.BASE_COLOR;
         locked = false;
     }
 
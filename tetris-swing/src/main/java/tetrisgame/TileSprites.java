@@ -0,0 +1,179 @@
+package tetrisgame;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import tetrisgame.TetrisUtils.ShapeType;
+
+/**
+ * Pre-rendered images of the squares of the board, one for every shape color ({@link TetrisColors#SHAPE_COLORS}) and one for every ghost color,
+ * for one size of a square and one scale of the display.
+ * The squares are shaded with a bevel, which takes a handful of Graphics2D calls, so they are rendered once when a size is first used
+ * and then only copied with {@link Graphics#drawImage}, which costs the same as filling a plain square.
+ * The images are compatible with the display and have its full resolution, on a HiDPI display a square of 30 pixels is an image of 60 pixels at a scale of 2,
+ * so copying them neither converts nor scales anything.
+ * The sprites of the last few sizes are cached ({@link #get(GraphicsConfiguration, int)}), zooming back and forth doesn't render them again.
+ */
+public final class TileSprites {
+    /**
+     * The number of sizes and scales kept in the cache.
+     */
+    private static final int CACHED_SIZES = 8;
+
+    /**
+     * The sprites rendered so far, the one used last at the end.
+     */
+    private static final List<TileSprites> CACHE = new ArrayList<>();
+
+    private final GraphicsConfiguration config;
+    private final int cell;
+    private final double scaleX;
+    private final double scaleY;
+    private final Image[] tiles;
+    private final Image[] ghosts;
+
+    /**
+     * Renders the sprites of every shape for a size of a square.
+     *
+     * @param config The configuration of the display the sprites are drawn on, null for plain images.
+     * @param cell The size of a square in pixels, before scaling.
+     * @param scaleX The horizontal scale of the display.
+     * @param scaleY The vertical scale of the display.
+     */
+    TileSprites(GraphicsConfiguration config, int cell, double scaleX, double scaleY) {
+        this.config = config;
+        this.cell = cell;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        ShapeType[] types = ShapeType.values();
+        this.tiles = new Image[types.length];
+        this.ghosts = new Image[types.length];
+        for (ShapeType type : types) {
+            tiles[type.ordinal()] = render(TetrisColors.getColorForShape(type), false);
+            ghosts[type.ordinal()] = render(TetrisColors.getGhostColorForShape(type), true);
+        }
+    }
+
+    /**
+     * Gets the sprites for a size of a square on a display, rendering them if they aren't cached.
+     *
+     * @param config The configuration of the display the sprites are drawn on, null for plain images.
+     * @param cell The size of a square in pixels, before scaling.
+     * @return The sprites.
+     */
+    public static TileSprites get(GraphicsConfiguration config, int cell) {
+        synchronized (CACHE) {
+            for (int i = CACHE.size() - 1; i >= 0; i--) {
+                TileSprites s = CACHE.get(i);
+                if (s.fits(config, cell)) {
+                    CACHE.add(CACHE.remove(i));
+                    return s;
+                }
+            }
+            AffineTransform t = (config != null) ? config.getDefaultTransform() : new AffineTransform();
+            TileSprites s = new TileSprites(config, cell, t.getScaleX(), t.getScaleY());
+            CACHE.add(s);
+            if (CACHE.size() > CACHED_SIZES) {
+                CACHE.remove(0);
+            }
+            return s;
+        }
+    }
+
+    /**
+     * Checks whether the sprites were rendered for a size of a square on a display, cheap enough to call on every paint.
+     * The scale is part of the configuration, a display changing its scale gets a configuration of its own.
+     *
+     * @param config The configuration of the display.
+     * @param cell The size of a square in pixels, before scaling.
+     * @return True if they can be drawn as they are.
+     */
+    public boolean fits(GraphicsConfiguration config, int cell) {
+        return this.config == config && this.cell == cell;
+    }
+
+    /**
+     * Gets the sprite of a square of a shape.
+     *
+     * @param type The index of the shape type.
+     * @return The image, of the size of a square at the scale of the display.
+     */
+    public Image getTile(int type) {
+        return tiles[type];
+    }
+
+    /**
+     * Gets the see-through sprite of a square of the ghost of a shape.
+     *
+     * @param type The index of the shape type.
+     * @return The image, of the size of a square at the scale of the display.
+     */
+    public Image getGhost(int type) {
+        return ghosts[type];
+    }
+
+    /**
+     * Draws a square of the board, inside its grid lines like {@link TetrisPanel} fills them.
+     * The image is copied pixel for pixel: the part of it left of or above the grid lines is cut off, never scaled.
+     *
+     * @param g The Graphics object used to render the board.
+     * @param sprite The sprite of the square.
+     * @param col The column of the square.
+     * @param row The row of the square.
+     */
+    public void draw(Graphics g, Image sprite, int col, int row) {
+        int x = col * cell;
+        int y = row * cell;
+        int left = (col == 0) ? 0 : 1;
+        int top = (row == 0) ? 0 : 1;
+        g.drawImage(sprite, x + left, y + top, x + cell, y + cell,
+                (int) Math.round(left * scaleX), (int) Math.round(top * scaleY),
+                (int) Math.round(cell * scaleX), (int) Math.round(cell * scaleY), null);
+    }
+
+    /**
+     * Getter for the size of a square the sprites were rendered for
+     * @return The size in pixels, before scaling.
+     */
+    public int getCellSize() {
+        return cell;
+    }
+
+    /**
+     * Renders the sprite of a square.
+     * A solid square is shaded with a bevel: lighter on its top and left edge, darker on its bottom and right edge.
+     * A ghost is only filled, it is drawn over the board see-through.
+     *
+     * @param color The color of the square.
+     * @param ghost True for a see-through ghost square.
+     * @return The image.
+     */
+    private Image render(Color color, boolean ghost) {
+        int width = (int) Math.round(cell * scaleX);
+        int height = (int) Math.round(cell * scaleY);
+        BufferedImage image = (config != null)
+                ? config.createCompatibleImage(width, height, ghost ? Transparency.TRANSLUCENT : Transparency.OPAQUE)
+                : new BufferedImage(width, height, ghost ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.scale(scaleX, scaleY);
+            g.setComposite(AlphaComposite.Src);
+            g.setColor(color);
+            g.fillRect(0, 0, cell, cell);
+            if (!ghost && cell >= 6) {
+                int bevel = Math.max(1, cell / 8);
+                g.setColor(color.brighter());
+                g.fillPolygon(new int[] {0, cell, cell - bevel, bevel, bevel, 0},
+                        new int[] {0, 0, bevel, bevel, cell - bevel, cell}, 6);
+                g.setColor(color.darker());
+                g.fillPolygon(new int[] {cell, cell, 0, bevel, cell - bevel, cell - bevel},
+                        new int[] {0, cell, cell, cell - bevel, cell - bevel, bevel}, 6);
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+}
@@ -0,0 +1,56 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class AutoPilotTest {
+
+    @Test
+    void testSkipsDropsGravityMade() {
+        TetrisGame game = new TetrisGame(4L);
+        game.step();
+        AutoPlayer player = new AutoPlayer();
+        Placement placement = player.choose(game);
+        assertEquals(1, placement.getDrops()); // the first piece of this seed falls a row before it turns
+        AutoPilot pilot = new AutoPilot(game, player);
+        Tetromino falling = game.getCurrTetro();
+        int spawnY = falling.getTopleft().getY();
+        int rotation = falling.getShape().getRotation();
+
+        pilot.tick();
+        game.moveDown(); // gravity makes the planned drop before the autopilot does
+        for (int i = 1; i < AutoPilot.MOVE_FRAMES; i++) {
+            pilot.tick();
+        }
+        assertEquals(spawnY + 1, falling.getTopleft().getY());
+        assertEquals((rotation + 1) % ShapeTable.ROTATIONS, falling.getShape().getRotation()); // went on with the turns
+    }
+
+    @Test
+    void testLandsWhereItPlannedUnderGravity() {
+        for (long seed = 1; seed <= 5; seed++) {
+            TetrisGame expected = new TetrisGame(seed);
+            AutoPlayer player = new AutoPlayer();
+            for (int i = 0; i < 4; i++) {
+                player.playPiece(expected);
+            }
+
+            TetrisGame game = new TetrisGame(seed);
+            AutoPilot pilot = new AutoPilot(game, new AutoPlayer());
+            int ticks = 0;
+            while (game.getPieces() < 4 && ticks < 100_000) {
+                game.step();
+                pilot.tick();
+                if (++ticks % AutoPilot.MOVE_FRAMES == 0) {
+                    game.moveDown(); // gravity a row a move, faster than the plan expects
+                }
+            }
+            BitBoard want = expected.getBoard();
+            BitBoard got = game.getBoard();
+            for (int y = 0; y < want.getHeight(); y++) {
+                assertEquals(want.getRow(y), got.getRow(y), "seed " + seed + " row " + y);
+            }
+        }
+    }
+}
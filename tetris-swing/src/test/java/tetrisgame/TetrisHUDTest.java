@@ -0,0 +1,48 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+public class TetrisHUDTest {
+    private static final int WIDTH = 100;
+
+    @Test
+    void testPreviewStaysInsideItsSlot() {
+        int slotPixels = TetrisHUD.PREVIEW_SLOT * TetrisHUD.PREVIEW_CELL;
+        TileSprites sprites = TileSprites.get(null, TetrisHUD.PREVIEW_CELL);
+        for (int type = 0; type < TetrisUtils.shapes.length; type++) {
+            for (int slot = 0; slot < TetrisGame.MAX_PREVIEW; slot++) {
+                BufferedImage img = new BufferedImage(WIDTH, TetrisGame.MAX_PREVIEW * slotPixels, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = img.createGraphics();
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, img.getWidth(), img.getHeight());
+                TetrisHUD.drawPreview(g, sprites, type, slot, WIDTH);
+                g.dispose();
+
+                int top = Integer.MAX_VALUE, bottom = -1, left = Integer.MAX_VALUE, right = -1;
+                for (int y = 0; y < img.getHeight(); y++) {
+                    for (int x = 0; x < img.getWidth(); x++) {
+                        if (img.getRGB(x, y) != Color.WHITE.getRGB()) {
+                            top = Math.min(top, y);
+                            bottom = Math.max(bottom, y);
+                            left = Math.min(left, x);
+                            right = Math.max(right, x);
+                        }
+                    }
+                }
+                String what = "type " + type + " in slot " + slot;
+                // padding above and below, never touching the neighbouring slots
+                assertTrue(top > slot * slotPixels, what);
+                assertTrue(bottom < (slot + 1) * slotPixels - 1, what);
+                // centred on its own bounding box
+                assertTrue(Math.abs((top - slot * slotPixels) - ((slot + 1) * slotPixels - 1 - bottom)) <= 1, what);
+                assertTrue(Math.abs(left - (WIDTH - 1 - right)) <= 1, what);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package tetrisgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+public class TileSpritesTest {
+    private static final TetrisUtils.ShapeType TYPE = TetrisUtils.ShapeType.L;
+
+    @Test
+    void testCachedPerSize() {
+        TileSprites sprites = TileSprites.get(null, 30);
+        assertSame(sprites, TileSprites.get(null, 30));
+        assertNotSame(sprites, TileSprites.get(null, 20));
+        assertEquals(20, TileSprites.get(null, 20).getCellSize());
+    }
+
+    @Test
+    void testBevel() {
+        BufferedImage tile = (BufferedImage) TileSprites.get(null, 30).getTile(TYPE.ordinal());
+        Color color = TetrisColors.getColorForShape(TYPE);
+        assertEquals(30, tile.getWidth());
+        assertEquals(color.getRGB(), tile.getRGB(15, 15));
+        assertEquals(color.brighter().getRGB(), tile.getRGB(1, 15));
+        assertEquals(color.darker().getRGB(), tile.getRGB(28, 15));
+    }
+
+    @Test
+    void testDrawnAtFullResolution() {
+        TileSprites sprites = new TileSprites(null, 30, 2, 2);
+        assertEquals(60, ((BufferedImage) sprites.getTile(TYPE.ordinal())).getWidth());
+        BufferedImage img = new BufferedImage(120, 120, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.scale(2, 2);
+        sprites.draw(g, sprites.getTile(TYPE.ordinal()), 1, 1);
+        g.dispose();
+        assertEquals(TetrisColors.getColorForShape(TYPE).getRGB(), img.getRGB(90, 90));
+        assertEquals(Color.BLACK.getRGB(), img.getRGB(61, 90)); // the grid line left of the square is left alone
+        assertEquals(TetrisColors.getColorForShape(TYPE).brighter().getRGB(), img.getRGB(62, 90));
+    }
+}
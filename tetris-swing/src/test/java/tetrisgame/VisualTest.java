@@ -35,15 +35,15 @@ public class VisualTest{
         assertEquals(300, panel.getWidth());
         assertEquals(600, panel.getHeight());
 
-        // Check square initialization
-        TetrisSquare[][] squares = panel.getSquares();
-        assertNotNull(squares);
-        assertEquals(20, squares.length);
-        assertEquals(10, squares[0].length);
-        assertNotNull(squares[0][0]);
+        // Check board initialization
+        BitBoard board = panel.getBoard();
+        assertNotNull(board);
+        assertEquals(20, board.getHeight());
+        assertEquals(10, board.getWidth());
+        assertFalse(board.isOccupied(0, 0));
 
         // Check base color
-        assertEquals(TetrisUtils.BASE_COLOR, panel.getBase());
+        assertEquals(TetrisColors.BASE_COLOR, panel.getBase());
     }
 
     @Test
@@ -130,7 +130,7 @@ public class VisualTest{
     @Test 
     void testRotate(){
         TetrisPanel panel = new TetrisPanel(null);
-        Tetromino tetromino = new Tetromino(1, 5, panel); // ShapeType.I
+        Tetromino tetromino = new Tetromino(1, 5, panel.getGame()); // ShapeType.I
         TetroShape copy = new TetroShape(tetromino.getShape());
         assertTrue(tetromino.canRotate());
         tetromino.rotate();
@@ -141,7 +141,7 @@ public class VisualTest{
     @Test 
     void testPushDown(){
         TetrisPanel panel = new TetrisPanel(null);
-        Tetromino tetromino = new Tetromino(1, 5, panel);
+        Tetromino tetromino = new Tetromino(1, 5, panel.getGame());
         assertFalse(tetromino.isStopped((new int[]{0,0}), tetromino.getTopleft()));
         tetromino.pushDown();
         this.waitForEDT();
@@ -153,13 +153,44 @@ public class VisualTest{
         TetrisPanel panel = new TetrisPanel(null);
         // Fill a row completely
         for (int col = 0; col <= panel.getSquareWidth(); col++) {
-            panel.getSquares()[19][col].lock();
+            panel.getBoard().set(col, 19, (byte) 1);
         }
         panel.checkRows();
         this.waitForEDT();
-        assertFalse(panel.getSquares()[19][0].isLocked()); // Top row should be cleared
+        assertFalse(panel.getBoard().isOccupied(0, 19)); // Top row should be cleared
     }
 
+    @Test
+    void testGravityTick() {
+        TetrisPanel panel = new TetrisPanel(null);
+        Tetromino tetromino = panel.getCurrTetro();
+        panel.doFrame(); // spawns and drops the first row right away
+        this.waitForEDT();
+        assertTrue(tetromino.getActive());
+        assertEquals(1, tetromino.getTopleft().getY());
+        for (int i = 0; i < TetrisPanel.GRAVITY_FRAMES; i++) {
+            panel.doFrame();
+        }
+        this.waitForEDT();
+        assertEquals(2, tetromino.getTopleft().getY());
+        panel.pauseGame();
+        for (int i = 0; i < TetrisPanel.GRAVITY_FRAMES; i++) {
+            panel.doFrame();
+        }
+        this.waitForEDT();
+        assertEquals(2, tetromino.getTopleft().getY());
+    }
 
+    @Test
+    void testPaintBoard() {
+        TetrisPanel panel = new TetrisPanel(null);
+        panel.getBoard().set(2, 19, TetrisUtils.getColorCode(TetrisUtils.ShapeType.T));
+        java.awt.image.BufferedImage img = new java.awt.image.BufferedImage(300, 600, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        java.awt.Graphics g = img.getGraphics();
+        panel.paint(g);
+        g.dispose();
+        assertEquals(TetrisColors.getColorForShape(TetrisUtils.ShapeType.T).getRGB(), img.getRGB(75, 585));
+        assertEquals(TetrisColors.GRID_LINE_COLOR.getRGB(), img.getRGB(60, 585)); // grid line left of the square
+        assertEquals(TetrisColors.BASE_COLOR.getRGB(), img.getRGB(105, 585));
+    }
 }
-